@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ponysdk.core.server.concurrent.AutoFlushedBuffer;
+import com.ponysdk.core.server.concurrent.SegmentedAutoFlushedBuffer;
+
+/**
+ * A message written then flushed, in the ring buffer and in the segmented buffer used by the
+ * {@link com.ponysdk.core.server.websocket.WebSocketPusher}. The flushes complete in the writing
+ * thread, so only the buffer management is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutoFlushedBufferBenchmark {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int CHUNK_SIZE = 1 << 12;
+
+    // Bytes written between two flushes
+    @Param({ "64", "1024", "16384" })
+    private int messageSize;
+
+    private AutoFlushedBuffer ringBuffer;
+    private SegmentedAutoFlushedBuffer segmentedBuffer;
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        ringBuffer = new AutoFlushedBuffer(BUFFER_SIZE, true, CHUNK_SIZE, 0.25f, TimeUnit.SECONDS.toMillis(10)) {
+
+            @Override
+            protected void doFlush(final ByteBuffer bufferToFlush) {
+                bufferToFlush.position(bufferToFlush.limit());
+                onFlushCompletion();
+            }
+
+            @Override
+            protected void closeFlusher() {
+                // Nothing to close
+            }
+        };
+        segmentedBuffer = new SegmentedAutoFlushedBuffer(BUFFER_SIZE, CHUNK_SIZE, 0.25f, TimeUnit.SECONDS.toMillis(10)) {
+
+            @Override
+            protected void doFlush(final ByteBuffer bufferToFlush) {
+                bufferToFlush.position(bufferToFlush.limit());
+                onFlushCompletion();
+            }
+
+            @Override
+            protected void closeFlusher() {
+                // Nothing to close
+            }
+        };
+        // A third of the message in primitives, the rest as strings
+        payload = new byte[messageSize * 2 / 3];
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ringBuffer.close();
+        segmentedBuffer.close();
+    }
+
+    @Benchmark
+    public void ringBuffer() throws IOException {
+        final int primitives = (messageSize - payload.length) / 8;
+        for (int i = 0; i < primitives; i++) {
+            ringBuffer.put((byte) i).putShort((short) i).putInt(i).put((byte) 0);
+        }
+        ringBuffer.put(payload);
+        ringBuffer.flush();
+    }
+
+    @Benchmark
+    public void segmentedBuffer() throws IOException {
+        final int primitives = (messageSize - payload.length) / 8;
+        for (int i = 0; i < primitives; i++) {
+            segmentedBuffer.put((byte) i).putShort((short) i).putInt(i).put((byte) 0);
+        }
+        segmentedBuffer.put(payload);
+        segmentedBuffer.flush();
+    }
+
+}
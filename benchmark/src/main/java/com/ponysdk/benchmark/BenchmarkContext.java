@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+
+import com.ponysdk.core.server.application.ApplicationConfiguration;
+import com.ponysdk.core.server.application.UIContext;
+import com.ponysdk.core.server.stm.Txn;
+import com.ponysdk.core.server.stm.TxnContext;
+import com.ponysdk.core.server.websocket.WebSocket;
+
+/**
+ * A {@link UIContext} writing in a {@link #newWebSocket() benchmark WebSocket}, as if the benchmark thread was
+ * processing a terminal message. The {@link UIContext} and the {@link Txn} are thread locals and
+ * JMH doesn't always run the iterations in the same thread, so the benchmarks {@link #begin()} and
+ * {@link #end()} the context around each iteration.
+ */
+public final class BenchmarkContext {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final WebSocket socket = newWebSocket();
+    private final TxnContext txnContext = new TxnContext(socket);
+    private final UIContext uiContext = new UIContext(socket, txnContext, new ApplicationConfiguration(), null);
+
+    public BenchmarkContext begin() {
+        UIContext.setCurrent(uiContext);
+        Txn.get().begin(txnContext);
+        return this;
+    }
+
+    /**
+     * Writes the pending updates and flushes the websocket, the transaction goes on
+     */
+    public void flush() {
+        Txn.get().flush();
+    }
+
+    public void end() {
+        Txn.get().commit();
+        UIContext.remove();
+    }
+
+    public WebSocket getSocket() {
+        return socket;
+    }
+
+    public TxnContext getTxnContext() {
+        return txnContext;
+    }
+
+    public UIContext getUIContext() {
+        return uiContext;
+    }
+
+    /**
+     * @return a {@link WebSocket} encoding with a real pusher, whose session drops the bytes and
+     *         completes the writes immediately. The encoding and the flushes cost the same as on a
+     *         server, without the network.
+     */
+    public static WebSocket newWebSocket() {
+        return WebSocket.newDetached(newNullSession(), BUFFER_SIZE);
+    }
+
+    /**
+     * @return an always open session, whose remote endpoint consumes the bytes sent and reports
+     *         the success in the calling thread
+     */
+    private static Session newNullSession() {
+        final ClassLoader classLoader = BenchmarkContext.class.getClassLoader();
+        final RemoteEndpoint remote = (RemoteEndpoint) Proxy.newProxyInstance(classLoader, new Class<?>[] { RemoteEndpoint.class },
+            (proxy, method, args) -> {
+                if ("sendBytes".equals(method.getName()) && args.length == 2) {
+                    final ByteBuffer buffer = (ByteBuffer) args[0];
+                    buffer.position(buffer.limit());
+                    ((WriteCallback) args[1]).writeSuccess();
+                }
+                return null;
+            });
+        return (Session) Proxy.newProxyInstance(classLoader, new Class<?>[] { Session.class }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getRemote":
+                    return remote;
+                case "isOpen":
+                    return Boolean.TRUE;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "NullSession";
+                default:
+                    return null;
+            }
+        });
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.benchmark;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.spi.JsonProvider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ponysdk.core.model.ClientToServerModel;
+import com.ponysdk.core.model.ClientToServerValueTypeModel;
+import com.ponysdk.core.server.websocket.ClientMessageDecoder;
+
+/**
+ * A batch of terminal instructions read up to their dispatch to the PObjects : a JSON text message,
+ * the binary message decoded into a whole JsonObject, and the binary message dispatched on its typed keys.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientMessageDecoderBenchmark {
+
+    private static final int INSTRUCTIONS = 10;
+    private static final String VALUE = "EUR/USD 1.17120";
+
+    private final JsonProvider jsonProvider = JsonProvider.provider();
+    private final ClientMessageDecoder decoder = new ClientMessageDecoder(jsonProvider);
+
+    private String text;
+    private byte[] binary;
+    private int binaryLength;
+
+    @Setup
+    public void setup() {
+        final StringBuilder builder = new StringBuilder("{\"").append(ClientToServerModel.APPLICATION_INSTRUCTIONS.toStringValue())
+            .append("\":[");
+        final ByteBuffer buffer = ByteBuffer.allocate(4096);
+        buffer.put(ClientToServerValueTypeModel.OBJECT.getValue());
+        buffer.putInt(1);
+        buffer.put(ClientToServerModel.APPLICATION_INSTRUCTIONS.getValue());
+        buffer.put(ClientToServerValueTypeModel.ARRAY.getValue());
+        buffer.putInt(INSTRUCTIONS);
+        final byte[] value = VALUE.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < INSTRUCTIONS; i++) {
+            if (i > 0) builder.append(',');
+            builder.append("{\"").append(ClientToServerModel.OBJECT_ID.toStringValue()).append("\":").append(100 + i).append(",\"")
+                .append(ClientToServerModel.HANDLER_STRING_VALUE_CHANGE.toStringValue()).append("\":\"").append(VALUE).append("\"}");
+
+            buffer.put(ClientToServerValueTypeModel.OBJECT.getValue());
+            buffer.putInt(2);
+            buffer.put(ClientToServerModel.OBJECT_ID.getValue());
+            buffer.put(ClientToServerValueTypeModel.INTEGER.getValue());
+            buffer.putInt(100 + i);
+            buffer.put(ClientToServerModel.HANDLER_STRING_VALUE_CHANGE.getValue());
+            buffer.put(ClientToServerValueTypeModel.STRING.getValue());
+            buffer.putInt(value.length);
+            buffer.put(value);
+        }
+        text = builder.append("]}").toString();
+        binary = buffer.array();
+        binaryLength = buffer.position();
+    }
+
+    @Benchmark
+    public int text() {
+        final JsonObject jsonObject;
+        try (final JsonReader reader = jsonProvider.createReader(new StringReader(text))) {
+            jsonObject = reader.readObject();
+        }
+        return dispatch(jsonObject);
+    }
+
+    @Benchmark
+    public int binaryJson() {
+        return dispatch(decoder.decode(ByteBuffer.wrap(binary, 0, binaryLength)));
+    }
+
+    @Benchmark
+    public int binaryTyped() {
+        final ClientMessageDecoder.ClientMessage message = decoder.decodeMessage(ByteBuffer.wrap(binary, 0, binaryLength));
+        int sum = 0;
+        final int[] objectIDs = message.getObjectIDs();
+        final JsonObject[] instructions = message.getInstructions();
+        for (int i = 0; i < objectIDs.length; i++) {
+            sum += objectIDs[i] + instructions[i].size();
+        }
+        return sum;
+    }
+
+    // What WebSocket and UIContext.fireClientData read before handing an instruction to its PObject
+    private static int dispatch(final JsonObject jsonObject) {
+        int sum = 0;
+        final JsonArray instructions = jsonObject.getJsonArray(ClientToServerModel.APPLICATION_INSTRUCTIONS.toStringValue());
+        for (int i = 0; i < instructions.size(); i++) {
+            final JsonObject instruction = instructions.getJsonObject(i);
+            sum += instruction.getJsonNumber(ClientToServerModel.OBJECT_ID.toStringValue()).intValue() + instruction.size();
+        }
+        return sum;
+    }
+
+}
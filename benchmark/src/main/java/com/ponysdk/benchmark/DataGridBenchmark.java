@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ponysdk.core.ui.basic.PWindow;
+import com.ponysdk.core.ui.datagrid.ColumnDescriptor;
+import com.ponysdk.core.ui.datagrid.DataGrid;
+
+/**
+ * {@link DataGrid#addData(Object)} of all the rows in an attached grid of 4 columns, then the flush
+ * of the transaction. The rows are added in the sort order, each one draws only its own cells.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DataGridBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    private int rowCount;
+
+    private final BenchmarkContext context = new BenchmarkContext();
+    private final List<Row> rows = new ArrayList<>();
+    private DataGrid<Row> dataGrid;
+
+    private static final class Row implements Comparable<Row> {
+
+        private final int id;
+        private final String name;
+        private final double price;
+
+        private Row(final int id) {
+            this.id = id;
+            this.name = "Row " + id;
+            this.price = id * 0.25;
+        }
+
+        @Override
+        public int compareTo(final Row row) {
+            return Integer.compare(id, row.id);
+        }
+
+    }
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(new Row(i));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIteration() {
+        context.begin();
+        dataGrid = new DataGrid<>(row -> row.id);
+        dataGrid.addColumnDescriptor(ColumnDescriptor.newDefault("ID", row -> String.valueOf(row.id)));
+        dataGrid.addColumnDescriptor(ColumnDescriptor.newDefault("Name", row -> row.name));
+        dataGrid.addColumnDescriptor(ColumnDescriptor.newDefault("Price", row -> String.valueOf(row.price)));
+        dataGrid.addColumnDescriptor(ColumnDescriptor.newDefault("Total", row -> String.valueOf(row.price * 100)));
+        PWindow.getMain().add(dataGrid);
+        context.flush();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() {
+        dataGrid.asWidget().removeFromParent();
+        context.end();
+    }
+
+    @Benchmark
+    public void addData() {
+        for (final Row row : rows) {
+            dataGrid.addData(row);
+        }
+        context.flush();
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ponysdk.core.model.ServerToClientModel;
+import com.ponysdk.core.ui.basic.PLabel;
+import com.ponysdk.core.ui.basic.PObject;
+import com.ponysdk.core.ui.basic.PWindow;
+import com.ponysdk.core.writer.ModelWriterCallback;
+
+/**
+ * The updates of attached labels, with and without the coalescing of the transaction :
+ * {@link PObject#saveUpdate(ServerToClientModel, Object)}, coalesced by model, and the
+ * {@link PObject#saveUpdate(ModelWriterCallback)} of a prepared update, never coalesced. The
+ * transaction is flushed after each round of updates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PObjectUpdateBenchmark {
+
+    private static final int LABELS = 64;
+    private static final int UPDATES_BY_LABEL = 4;
+
+    @Param({ "false", "true" })
+    private boolean coalescing;
+
+    private final BenchmarkContext context = new BenchmarkContext();
+    private final UpdatedLabel[] labels = new UpdatedLabel[LABELS];
+    private final String[] texts = new String[UPDATES_BY_LABEL];
+    private final ModelWriterCallback update = writer -> writer.write(ServerToClientModel.TEXT, "updated");
+
+    @Setup
+    public void setup() {
+        context.begin();
+        for (int i = 0; i < LABELS; i++) {
+            labels[i] = new UpdatedLabel();
+            PWindow.getMain().add(labels[i]);
+        }
+        for (int i = 0; i < UPDATES_BY_LABEL; i++) {
+            texts[i] = "text " + i;
+        }
+        context.getTxnContext().setCoalescingUpdates(coalescing);
+        context.end();
+    }
+
+    @Setup(Level.Iteration)
+    public void begin() {
+        context.begin();
+    }
+
+    @TearDown(Level.Iteration)
+    public void end() {
+        context.end();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LABELS * UPDATES_BY_LABEL)
+    public void saveUpdate() {
+        for (final String text : texts) {
+            for (final UpdatedLabel label : labels) {
+                label.saveUpdate(ServerToClientModel.TEXT, text);
+            }
+        }
+        context.flush();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LABELS * UPDATES_BY_LABEL)
+    public void saveCallbackUpdate() {
+        for (int i = 0; i < UPDATES_BY_LABEL; i++) {
+            for (final UpdatedLabel label : labels) {
+                label.saveUpdate(update);
+            }
+        }
+        context.flush();
+    }
+
+    /**
+     * Exposes the updates of {@link PObject} to the benchmark
+     */
+    private static final class UpdatedLabel extends PLabel {
+
+        @Override
+        protected void saveUpdate(final ServerToClientModel serverToClientModel, final Object value) {
+            super.saveUpdate(serverToClientModel, value);
+        }
+
+        @Override
+        protected void saveUpdate(final ModelWriterCallback callback) {
+            super.saveUpdate(callback);
+        }
+
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ponysdk.core.server.context.PObjectWeakHashMap;
+import com.ponysdk.core.ui.basic.Element;
+import com.ponysdk.core.ui.basic.PFlowPanel;
+import com.ponysdk.core.ui.basic.PLabel;
+import com.ponysdk.core.ui.basic.PObject;
+import com.ponysdk.core.ui.basic.PWindow;
+
+/**
+ * The registry of the objects of a {@link com.ponysdk.core.server.application.UIContext} : lookups
+ * of registered IDs, registrations replacing the reference of an ID, and the removal of the
+ * collected objects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PObjectWeakHashMapBenchmark {
+
+    private static final int LOOKUPS = 1 << 10;
+
+    @Benchmark
+    public PObject get(final Registry registry) {
+        return registry.map.get(registry.lookups[registry.next++ & LOOKUPS - 1]);
+    }
+
+    @Benchmark
+    public PObject put(final Registry registry) {
+        final PObject object = registry.objects[registry.next++ % registry.size];
+        return registry.map.put(object.getID(), object);
+    }
+
+    /**
+     * Removes {@code size} collected objects, the map is filled again before each iteration
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 10)
+    @Measurement(iterations = 20)
+    public void expungeStaleEntries(final StaleEntries staleEntries) {
+        staleEntries.map.expungeStaleEntries();
+    }
+
+    // Also the state of StaleEntries, so that a single context is begun by iteration
+    @State(Scope.Thread)
+    public static class Registry {
+
+        @Param({ "1000", "100000" })
+        private int size;
+
+        private final BenchmarkContext context = new BenchmarkContext();
+        private final PObjectWeakHashMap map = new PObjectWeakHashMap();
+        private PObject[] objects;
+        private int[] lookups;
+        private int next;
+
+        @Setup
+        public void setup() {
+            context.begin();
+            objects = newAttachedLabels(size);
+            for (final PObject object : objects) {
+                map.put(object.getID(), object);
+            }
+
+            final Random random = new Random(42);
+            lookups = new int[LOOKUPS];
+            for (int i = 0; i < LOOKUPS; i++) {
+                lookups[i] = objects[random.nextInt(size)].getID();
+            }
+            context.end();
+        }
+
+        @Setup(Level.Iteration)
+        public void begin() {
+            context.begin();
+        }
+
+        @TearDown(Level.Iteration)
+        public void end() {
+            context.end();
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class StaleEntries {
+
+        private PObjectWeakHashMap map;
+
+        @Setup(Level.Iteration)
+        public void setup(final Registry registry) throws InterruptedException {
+            map = new PObjectWeakHashMap();
+            for (final PObject object : newAttachedLabels(registry.size)) {
+                map.put(object.getID(), object);
+            }
+            // The labels are only weakly reachable now, wait for their references to be enqueued
+            System.gc();
+            Thread.sleep(100);
+        }
+
+    }
+
+    private static PObject[] newAttachedLabels(final int count) {
+        final PFlowPanel panel = Element.newPFlowPanel();
+        PWindow.getMain().add(panel);
+        final PObject[] labels = new PObject[count];
+        for (int i = 0; i < count; i++) {
+            final PLabel label = Element.newPLabel();
+            panel.add(label);
+            labels[i] = label;
+        }
+        panel.removeFromParent();
+        return labels;
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ponysdk.core.model.ServerToClientModel;
+import com.ponysdk.core.server.websocket.WebSocket;
+import com.ponysdk.core.writer.SharedFrame;
+
+/**
+ * The same tick written to an UIContext : encoded value by value, as each UIContext does by
+ * default, versus spliced from a {@link SharedFrame} encoded once for all the UIContexts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SharedFrameBenchmark {
+
+    private static final String[] FIELDS = { "EUR/USD", "1.17120", "1.17140", "+0.12%", "12:30:45.123", "Prix unitaire : 12,50 €" };
+
+    private final int[] objectIDs = new int[FIELDS.length];
+
+    private WebSocket socket;
+    private SharedFrame frame;
+
+    @Setup
+    public void setup() {
+        socket = BenchmarkContext.newWebSocket();
+        final SharedFrame.Builder builder = SharedFrame.builder();
+        for (int i = 0; i < FIELDS.length; i++) {
+            objectIDs[i] = 100 + i;
+            builder.beginUpdate(i).write(ServerToClientModel.TEXT, FIELDS[i]).write(ServerToClientModel.WIDGET_VISIBLE, true)
+                .endObject();
+        }
+        frame = builder.build();
+    }
+
+    @Benchmark
+    public void encode() {
+        for (int i = 0; i < FIELDS.length; i++) {
+            socket.encode(ServerToClientModel.TYPE_UPDATE, objectIDs[i]);
+            socket.encode(ServerToClientModel.TEXT, (Object) FIELDS[i]);
+            socket.encode(ServerToClientModel.WIDGET_VISIBLE, true);
+            socket.encode(ServerToClientModel.END, null);
+        }
+    }
+
+    @Benchmark
+    public void splice() {
+        socket.encode(frame, objectIDs);
+    }
+
+}
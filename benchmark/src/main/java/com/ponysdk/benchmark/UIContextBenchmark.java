@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ponysdk.core.model.ClientToServerModel;
+import com.ponysdk.core.model.DomHandlerType;
+import com.ponysdk.core.server.application.UIContext;
+import com.ponysdk.core.ui.basic.Element;
+import com.ponysdk.core.ui.basic.PButton;
+import com.ponysdk.core.ui.basic.PWindow;
+
+/**
+ * {@link UIContext#fireClientData(JsonObject)} of a click on a button, from the parsed instruction
+ * and from the text of the terminal message, as received by the websocket.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UIContextBenchmark {
+
+    private final BenchmarkContext context = new BenchmarkContext();
+    private UIContext uiContext;
+    private JsonObject instruction;
+    private String message;
+    private long clicks;
+
+    @Setup
+    public void setup() {
+        context.begin();
+        uiContext = context.getUIContext();
+
+        final PButton button = Element.newPButton();
+        button.addClickHandler(event -> clicks++);
+        PWindow.getMain().add(button);
+
+        instruction = uiContext.getJsonProvider().createObjectBuilder()
+            .add(ClientToServerModel.OBJECT_ID.toStringValue(), button.getID())
+            .add(ClientToServerModel.DOM_HANDLER_TYPE.toStringValue(), DomHandlerType.CLICK.getValue())
+            .add(ClientToServerModel.EVENT_INFO.toStringValue(),
+                uiContext.getJsonProvider().createArrayBuilder().add(120).add(48).add(320).add(212).add(1).add(false).add(false)
+                    .add(false).add(false))
+            .add(ClientToServerModel.WIDGET_POSITION.toStringValue(),
+                uiContext.getJsonProvider().createArrayBuilder().add(200).add(164).add(24).add(80))
+            .build();
+        message = instruction.toString();
+        context.end();
+    }
+
+    @Setup(Level.Iteration)
+    public void begin() {
+        context.begin();
+    }
+
+    @TearDown(Level.Iteration)
+    public void end() {
+        context.end();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (clicks == 0) throw new IllegalStateException("The click handler has not been called");
+    }
+
+    @Benchmark
+    public void fireClientData() {
+        uiContext.fireClientData(instruction);
+    }
+
+    @Benchmark
+    public void parseAndFireClientData() {
+        try (final JsonReader reader = uiContext.getJsonProvider().createReader(new StringReader(message))) {
+            uiContext.fireClientData(reader.readObject());
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.json.Json;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ponysdk.core.model.ServerToClientModel;
+import com.ponysdk.core.model.ValueTypeModel;
+import com.ponysdk.core.server.websocket.WebSocket;
+
+/**
+ * The {@link com.ponysdk.core.server.websocket.WebSocketPusher} encoding of one frame per value
+ * type, through the {@link WebSocket#encode(ServerToClientModel, Object)} overload used by the
+ * {@link com.ponysdk.core.writer.ModelWriter} for this type. The segments are flushed when full,
+ * as on a server.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebSocketPusherBenchmark {
+
+    // ValueTypeModel.SHORT is not used by any model
+    @Param({ "NULL", "BOOLEAN", "BYTE", "INTEGER", "LONG", "DOUBLE", "STRING", "STRING_UTF8", "STRING_DICTIONARY", "JSON_OBJECT",
+             "INTEGER_ARRAY" })
+    private ValueTypeModel typeModel;
+
+    private WebSocket socket;
+    private Consumer<WebSocket> frame;
+
+    @Setup
+    public void setup() {
+        socket = BenchmarkContext.newWebSocket();
+
+        // END, WINDOW_ID and FRAME_ID change the way the dictionary values are written
+        final ServerToClientModel model = Arrays.stream(ServerToClientModel.values())
+            .filter(m -> m.getTypeModel() == typeModel && m != ServerToClientModel.END && m != ServerToClientModel.WINDOW_ID
+                    && m != ServerToClientModel.FRAME_ID)
+            .findFirst().orElseThrow(() -> new IllegalArgumentException("No model of type " + typeModel));
+
+        switch (typeModel) {
+            case NULL:
+                frame = p -> p.encode(model, null);
+                break;
+            case BOOLEAN:
+                frame = p -> p.encode(model, true);
+                break;
+            case BYTE:
+                frame = p -> p.encode(model, (byte) 12);
+                break;
+            case INTEGER:
+                frame = p -> p.encode(model, 123_456);
+                break;
+            case LONG:
+                frame = p -> p.encode(model, 1_530_000_000_000L);
+                break;
+            case DOUBLE:
+                frame = p -> p.encode(model, 1234.5678);
+                break;
+            case STRING:
+                frame = p -> p.encode(model, (Object) "pony-widget-label");
+                break;
+            case STRING_UTF8:
+                frame = p -> p.encode(model, (Object) "Prix unitaire : 12,50 €");
+                break;
+            case STRING_DICTIONARY:
+                frame = p -> p.encode(model, (Object) "background-color");
+                break;
+            case JSON_OBJECT:
+                final Object json = Json.createObjectBuilder().add("symbol", "EUR/USD").add("bid", 1.1712).add("ask", 1.1714).build();
+                frame = p -> p.encode(model, json);
+                break;
+            case INTEGER_ARRAY:
+                final int[] values = new int[32];
+                Arrays.setAll(values, i -> i * 7);
+                frame = p -> p.encode(model, (Object) values);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported type : " + typeModel);
+        }
+    }
+
+    @Benchmark
+    public void encode() {
+        frame.accept(socket);
+    }
+
+}
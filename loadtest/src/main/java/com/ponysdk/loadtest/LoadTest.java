@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2017 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *  Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *  Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.loadtest;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.glassfish.tyrus.client.ClientManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ponysdk.driver.WebsocketClient;
+
+/**
+ * Runs many virtual terminals, {@link com.ponysdk.driver.PonySDKWebDriver} without browser, replaying a
+ * {@link Scenario} against a running PonySDK server. All the terminals share the same websocket
+ * client and the same executor.
+ */
+public class LoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+    private final Scenario scenario;
+    private final int terminalCount;
+
+    private Duration rampUp = Duration.ZERO;
+    private Duration duration = Duration.ofMinutes(1);
+    private Duration reportInterval = Duration.ofSeconds(1);
+    private Duration pollInterval = Duration.ofMillis(50);
+    private int threadCount = Runtime.getRuntime().availableProcessors();
+    private File outputDirectory = new File("loadtest");
+
+    public LoadTest(final Scenario scenario, final int terminalCount) {
+        this.scenario = scenario;
+        this.terminalCount = terminalCount;
+    }
+
+    /**
+     * Arguments : url terminals rampUpSeconds durationSeconds outputDirectory
+     * <p>
+     * The terminals only connect and stay connected, answering the heartbeats and the pings. Other
+     * scenarios are run by code, with {@link #run()}.
+     */
+    public static void main(final String[] args) throws Exception {
+        if (args.length < 5) {
+            System.err.println("Usage : LoadTest url terminals rampUpSeconds durationSeconds outputDirectory");
+            System.exit(1);
+        }
+
+        final LoadTest loadTest = new LoadTest(Scenario.named("connect").open(args[0]).build(), Integer.parseInt(args[1]));
+        loadTest.setRampUp(Duration.ofSeconds(Long.parseLong(args[2])));
+        loadTest.setDuration(Duration.ofSeconds(Long.parseLong(args[3])));
+        loadTest.setOutputDirectory(new File(args[4]));
+        loadTest.run();
+    }
+
+    /**
+     * Blocks until the end of the test
+     *
+     * @return the round trip latencies, in microseconds
+     */
+    public Histogram run() throws Exception {
+        log.info("Starting {} terminals on {} during {}, ramp up {}", terminalCount, scenario, duration, rampUp);
+
+        final LoadTestMetrics metrics = new LoadTestMetrics();
+        final ClientManager clientManager = WebsocketClient.createSharedClientManager(threadCount);
+        final ScheduledExecutorService executor = Executors.newScheduledThreadPool(threadCount);
+        final List<VirtualTerminal> terminals = new ArrayList<>(terminalCount);
+
+        try (LoadTestReport report = new LoadTestReport(metrics, outputDirectory)) {
+            final long pollIntervalNanos = pollInterval.toNanos();
+            final long rampUpNanos = rampUp.toNanos();
+            for (int i = 0; i < terminalCount; i++) {
+                final VirtualTerminal terminal = new VirtualTerminal(i, scenario, executor, pollIntervalNanos, metrics, clientManager);
+                terminals.add(terminal);
+                terminal.start(rampUpNanos * i / terminalCount);
+            }
+
+            final long reportIntervalMillis = reportInterval.toMillis();
+            executor.scheduleAtFixedRate(report::report, reportIntervalMillis, reportIntervalMillis, TimeUnit.MILLISECONDS);
+
+            Thread.sleep(duration.toMillis());
+
+            executor.shutdownNow();
+            executor.awaitTermination(reportIntervalMillis, TimeUnit.MILLISECONDS);
+            report.report();
+
+            final Histogram latency = report.getTotalLatency();
+            log.info("Round trip latency : p50 {} ms, p99 {} ms, max {} ms, {} samples", latency.getValueAtPercentile(50) / 1000.0,
+                latency.getValueAtPercentile(99) / 1000.0, latency.getMaxValue() / 1000.0, latency.getTotalCount());
+            log.info("Reports written in {}", outputDirectory.getAbsolutePath());
+            return latency;
+        } finally {
+            executor.shutdownNow();
+            terminals.forEach(VirtualTerminal::stop);
+            clientManager.shutdown();
+        }
+    }
+
+    public void setRampUp(final Duration rampUp) {
+        this.rampUp = rampUp;
+    }
+
+    public void setDuration(final Duration duration) {
+        this.duration = duration;
+    }
+
+    public void setReportInterval(final Duration reportInterval) {
+        this.reportInterval = reportInterval;
+    }
+
+    /**
+     * Delay before executing again a step waiting for an element
+     */
+    public void setPollInterval(final Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Threads of the websocket client workers, and threads executing the scenario steps
+     */
+    public void setThreadCount(final int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    public void setOutputDirectory(final File outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+}
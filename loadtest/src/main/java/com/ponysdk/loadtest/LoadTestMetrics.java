@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2017 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *  Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *  Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.loadtest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Recorder;
+
+/**
+ * Counters shared by all the virtual terminals, read and reset by each report
+ */
+final class LoadTestMetrics {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    // Microseconds between an instruction sent and the next message received
+    final Recorder roundTripLatency = new Recorder(SIGNIFICANT_DIGITS);
+
+    final LongAdder sentInstructions = new LongAdder();
+    final LongAdder receivedMessages = new LongAdder();
+    final LongAdder sentBytes = new LongAdder();
+    final LongAdder receivedBytes = new LongAdder();
+    final LongAdder errors = new LongAdder();
+
+    final AtomicInteger connectedTerminals = new AtomicInteger();
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2017 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *  Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *  Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+/**
+ * Writes, in the output directory :
+ * <ul>
+ * <li>report.csv : a line per interval with the throughputs and the round trip latency percentiles</li>
+ * <li>latency.hlog : the interval histograms, readable by the HdrHistogram tools</li>
+ * <li>latency.hgrm : the percentile distribution of the whole test</li>
+ * </ul>
+ */
+final class LoadTestReport implements AutoCloseable {
+
+    private static final String CSV_HEADER = "time_s,terminals,instructions_per_s,messages_per_s,sent_bytes_per_s,received_bytes_per_s,"
+            + "latency_p50_ms,latency_p99_ms,latency_max_ms,errors";
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LoadTestMetrics metrics;
+    private final File outputDirectory;
+    private final PrintWriter csvWriter;
+    private final HistogramLogWriter histogramLogWriter;
+    private final Histogram totalLatency = new Histogram(3);
+
+    private final long startMillis;
+    private long lastReportNanos;
+    private Histogram intervalLatency;
+
+    LoadTestReport(final LoadTestMetrics metrics, final File outputDirectory) throws IOException {
+        this.metrics = metrics;
+        this.outputDirectory = outputDirectory;
+        if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) throw new IOException("Cannot create " + outputDirectory);
+
+        this.csvWriter = new PrintWriter(new File(outputDirectory, "report.csv"), StandardCharsets.UTF_8.name());
+        this.csvWriter.println(CSV_HEADER);
+
+        this.startMillis = System.currentTimeMillis();
+        this.lastReportNanos = System.nanoTime();
+        this.histogramLogWriter = new HistogramLogWriter(new File(outputDirectory, "latency.hlog"));
+        this.histogramLogWriter.outputLogFormatVersion();
+        this.histogramLogWriter.outputStartTime(startMillis);
+        this.histogramLogWriter.setBaseTime(startMillis);
+        this.histogramLogWriter.outputLegend();
+
+        // Reset what has been recorded before the start
+        this.intervalLatency = metrics.roundTripLatency.getIntervalHistogram();
+    }
+
+    /**
+     * Appends the interval since the previous report
+     */
+    synchronized void report() {
+        final long now = System.nanoTime();
+        final double seconds = (now - lastReportNanos) / 1_000_000_000.0;
+        lastReportNanos = now;
+
+        intervalLatency = metrics.roundTripLatency.getIntervalHistogram(intervalLatency);
+        totalLatency.add(intervalLatency);
+        histogramLogWriter.outputIntervalHistogram(intervalLatency);
+
+        csvWriter.println(String.format(Locale.ROOT, "%.3f,%d,%.1f,%.1f,%.1f,%.1f,%.3f,%.3f,%.3f,%d",
+            (System.currentTimeMillis() - startMillis) / 1000.0, metrics.connectedTerminals.get(),
+            metrics.sentInstructions.sumThenReset() / seconds, metrics.receivedMessages.sumThenReset() / seconds,
+            metrics.sentBytes.sumThenReset() / seconds, metrics.receivedBytes.sumThenReset() / seconds,
+            intervalLatency.getValueAtPercentile(50) / MICROS_PER_MILLI, intervalLatency.getValueAtPercentile(99) / MICROS_PER_MILLI,
+            intervalLatency.getMaxValue() / MICROS_PER_MILLI, metrics.errors.sumThenReset()));
+        csvWriter.flush();
+    }
+
+    Histogram getTotalLatency() {
+        return totalLatency;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        csvWriter.close();
+        histogramLogWriter.close();
+        try (PrintStream out = new PrintStream(new File(outputDirectory, "latency.hgrm"), StandardCharsets.UTF_8.name())) {
+            totalLatency.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2017 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *  Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *  Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.openqa.selenium.By;
+
+import com.ponysdk.driver.PonySDKWebDriver;
+import com.ponysdk.driver.PonyWebElement;
+
+/**
+ * The interactions replayed by each virtual terminal, e.g.
+ *
+ * <pre>
+ * Scenario.named("search") //
+ *     .open("ws://localhost:8081/sample/ws") //
+ *     .loop() //
+ *     .repeat(10, s -&gt; s.type(By.id("search"), "pony").pause(Duration.ofSeconds(1)).click(By.id("go")))
+ *     .build();
+ * </pre>
+ */
+public final class Scenario {
+
+    private final String name;
+    private final List<ScenarioStep> steps;
+    private final int loopIndex;
+
+    private Scenario(final String name, final List<ScenarioStep> steps, final int loopIndex) {
+        this.name = name;
+        this.steps = Collections.unmodifiableList(steps);
+        this.loopIndex = loopIndex;
+    }
+
+    public static Builder named(final String name) {
+        return new Builder(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<ScenarioStep> getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return the index of the step replayed after the last one, or -1 if the terminal stays idle once
+     *         the scenario is done
+     */
+    public int getLoopIndex() {
+        return loopIndex;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + steps.size() + " steps)";
+    }
+
+    public static final class Builder {
+
+        private final String name;
+        private final List<ScenarioStep> steps = new ArrayList<>();
+        private int loopIndex = -1;
+
+        private Builder(final String name) {
+            this.name = name;
+        }
+
+        /**
+         * Connects the terminal to the websocket URL of the application
+         */
+        public Builder open(final String url) {
+            return step(driver -> {
+                driver.get(url);
+                return 0;
+            });
+        }
+
+        public Builder pause(final Duration duration) {
+            final long nanos = duration.toNanos();
+            return step(driver -> nanos);
+        }
+
+        /**
+         * Waits until an element matching the locator has been received
+         */
+        public Builder await(final By by) {
+            return await(by, element -> true);
+        }
+
+        public Builder await(final By by, final Predicate<PonyWebElement> condition) {
+            return step(driver -> {
+                final PonyWebElement element = find(driver, by);
+                return element != null && condition.test(element) ? 0 : ScenarioStep.RETRY;
+            });
+        }
+
+        public Builder click(final By by) {
+            return step(driver -> {
+                final PonyWebElement element = find(driver, by);
+                if (element == null) return ScenarioStep.RETRY;
+                element.click();
+                return 0;
+            });
+        }
+
+        public Builder type(final By by, final CharSequence text) {
+            return step(driver -> {
+                final PonyWebElement element = find(driver, by);
+                if (element == null) return ScenarioStep.RETRY;
+                element.sendKeys(text);
+                return 0;
+            });
+        }
+
+        public Builder step(final ScenarioStep step) {
+            steps.add(step);
+            return this;
+        }
+
+        /**
+         * The steps added after this call are replayed until the end of the test
+         */
+        public Builder loop() {
+            loopIndex = steps.size();
+            return this;
+        }
+
+        /**
+         * Appends the steps added by the body the given number of times
+         */
+        public Builder repeat(final int times, final Consumer<Builder> body) {
+            final Builder repeated = new Builder(name);
+            body.accept(repeated);
+            for (int i = 0; i < times; i++) {
+                steps.addAll(repeated.steps);
+            }
+            return this;
+        }
+
+        public Scenario build() {
+            if (loopIndex == steps.size()) throw new IllegalStateException("No step to loop on in " + name);
+            return new Scenario(name, new ArrayList<>(steps), loopIndex);
+        }
+
+        private static PonyWebElement find(final PonySDKWebDriver driver, final By by) {
+            final List<PonyWebElement> elements = driver.findElementsAsPony(by);
+            return elements.isEmpty() ? null : elements.get(0);
+        }
+
+    }
+
+}
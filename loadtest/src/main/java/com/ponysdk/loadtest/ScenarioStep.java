@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2017 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *  Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *  Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.loadtest;
+
+import com.ponysdk.driver.PonySDKWebDriver;
+
+@FunctionalInterface
+public interface ScenarioStep {
+
+    /**
+     * Returned to execute the step again after the polling interval, e.g. when the element it acts on
+     * has not been received yet
+     */
+    long RETRY = -1;
+
+    /**
+     * @return the nanoseconds to wait before the next step, or {@link #RETRY}
+     */
+    long execute(PonySDKWebDriver driver) throws Exception;
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2017 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *  Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *  Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.loadtest;
+
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.json.JsonObject;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ponysdk.core.model.ClientToServerModel;
+import com.ponysdk.driver.PonyBandwithListener;
+import com.ponysdk.driver.PonyFrame;
+import com.ponysdk.driver.PonyMessageListener;
+import com.ponysdk.driver.PonySDKWebDriver;
+
+/**
+ * A terminal replaying a {@link Scenario}. Its steps run on the shared executor, a pause schedules
+ * the next step instead of blocking a thread.
+ */
+final class VirtualTerminal implements PonyMessageListener, PonyBandwithListener {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualTerminal.class);
+
+    private static final String APPLICATION_INSTRUCTIONS = ClientToServerModel.APPLICATION_INSTRUCTIONS.toStringValue();
+
+    private final int id;
+    private final Scenario scenario;
+    private final ScheduledExecutorService executor;
+    private final long pollIntervalNanos;
+    private final LoadTestMetrics metrics;
+    private final PonySDKWebDriver driver;
+
+    // Time of the first instruction not answered yet, 0 if none
+    private final AtomicLong pendingInstructionNanos = new AtomicLong();
+
+    private int stepIndex;
+    private volatile boolean connected;
+    private volatile boolean stopped;
+
+    VirtualTerminal(final int id, final Scenario scenario, final ScheduledExecutorService executor, final long pollIntervalNanos,
+            final LoadTestMetrics metrics, final ClientManager clientManager) {
+        this.id = id;
+        this.scenario = scenario;
+        this.executor = executor;
+        this.pollIntervalNanos = pollIntervalNanos;
+        this.metrics = metrics;
+        this.driver = new PonySDKWebDriver(this, this, clientManager);
+    }
+
+    void start(final long delayNanos) {
+        executor.schedule(this::executeStep, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void executeStep() {
+        if (stopped) return;
+
+        final List<ScenarioStep> steps = scenario.getSteps();
+        final long delayNanos;
+        try {
+            delayNanos = steps.get(stepIndex).execute(driver);
+        } catch (final Exception e) {
+            log.warn("Terminal #{} failed at step {} of {}, it is stopped", id, stepIndex, scenario, e);
+            metrics.errors.increment();
+            stop();
+            return;
+        }
+
+        if (!connected && driver.getSessionId() != null) onConnected();
+
+        if (delayNanos == ScenarioStep.RETRY) {
+            executor.schedule(this::executeStep, pollIntervalNanos, TimeUnit.NANOSECONDS);
+            return;
+        }
+
+        stepIndex++;
+        if (stepIndex == steps.size()) {
+            if (scenario.getLoopIndex() < 0) return;
+            stepIndex = scenario.getLoopIndex();
+        }
+        executor.schedule(this::executeStep, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private synchronized void onConnected() {
+        if (stopped) return;
+        connected = true;
+        metrics.connectedTerminals.incrementAndGet();
+    }
+
+    synchronized void stop() {
+        if (stopped) return;
+        stopped = true;
+        if (connected) metrics.connectedTerminals.decrementAndGet();
+        driver.close();
+    }
+
+    @Override
+    public void onSendMessage(final JsonObject message) {
+        if (message.containsKey(APPLICATION_INSTRUCTIONS)) {
+            metrics.sentInstructions.add(message.getJsonArray(APPLICATION_INSTRUCTIONS).size());
+            pendingInstructionNanos.compareAndSet(0, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void onReceiveMessage(final List<PonyFrame> message) {
+        metrics.receivedMessages.increment();
+        final long sentNanos = pendingInstructionNanos.getAndSet(0);
+        if (sentNanos != 0) metrics.roundTripLatency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sentNanos));
+    }
+
+    @Override
+    public void onSend(final int bytes) {
+        metrics.sentBytes.add(bytes);
+    }
+
+    @Override
+    public void onReceive(final int bytes) {
+        metrics.receivedBytes.add(bytes);
+    }
+
+}
@@ -23,6 +23,9 @@
 
 package com.ponysdk.core.model;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public enum ClientToServerModel {
 
     HEARTBEAT("0"),
@@ -89,6 +92,15 @@ public enum ClientToServerModel {
     HANDLER_PASTE("O"),
     HANDLER_DESTROY("P");
 
+    private static final ClientToServerModel[] VALUES = ClientToServerModel.values();
+    private static final Map<String, ClientToServerModel> VALUES_BY_KEY = new HashMap<>();
+
+    static {
+        for (final ClientToServerModel model : VALUES) {
+            VALUES_BY_KEY.put(model.key, model);
+        }
+    }
+
     private String key;
 
     private ClientToServerModel(final String key) {
@@ -99,4 +111,24 @@ public enum ClientToServerModel {
         return key;
     }
 
+    public final byte getValue() {
+        return (byte) ordinal();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the raw value is not a model, e.g. read from a malformed
+     *             message
+     */
+    public static ClientToServerModel fromRawValue(final byte rawValue) {
+        if (rawValue < 0 || rawValue >= VALUES.length) throw new IllegalArgumentException("Unknown ClientToServerModel : " + rawValue);
+        return VALUES[rawValue];
+    }
+
+    /**
+     * @return the model whose {@link #toStringValue()} is the key, or null
+     */
+    public static ClientToServerModel fromStringValue(final String key) {
+        return VALUES_BY_KEY.get(key);
+    }
+
 }
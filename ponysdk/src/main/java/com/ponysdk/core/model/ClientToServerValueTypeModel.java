@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2011 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *  Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *  Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.model;
+
+/**
+ * Type tags of the binary messages sent by the terminal. A message is an {@link #OBJECT} value, the
+ * same tree as the JSON text message it replaces, every value being preceded by its one byte tag.
+ */
+public enum ClientToServerValueTypeModel {
+
+    NULL,
+    TRUE,
+    FALSE,
+    /**
+     * A signed int
+     */
+    INTEGER,
+    /**
+     * A big endian IEEE 754 double
+     */
+    DOUBLE,
+    /**
+     * The number of bytes, as an int, followed by the UTF-8 bytes
+     */
+    STRING,
+    /**
+     * The number of elements, as an int, followed by the elements
+     */
+    ARRAY,
+    /**
+     * The number of entries, as an int, followed by the entries. An entry key is the
+     * {@link ClientToServerModel#getValue() value} of a {@link ClientToServerModel}, or
+     * {@link #STRING_KEY} followed by the key as an unsigned short size and its UTF-8 bytes.
+     */
+    OBJECT;
+
+    /**
+     * Key of an object entry which is not a {@link ClientToServerModel}
+     */
+    public static final byte STRING_KEY = (byte) 0xFF;
+
+    private static final ClientToServerValueTypeModel[] VALUES = ClientToServerValueTypeModel.values();
+
+    public final byte getValue() {
+        return (byte) ordinal();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the raw value is not a model, e.g. read from a malformed
+     *             message
+     */
+    public static ClientToServerValueTypeModel fromRawValue(final byte rawValue) {
+        if (rawValue < 0 || rawValue >= VALUES.length) throw new IllegalArgumentException("Unknown ClientToServerValueTypeModel : " + rawValue);
+        return VALUES[rawValue];
+    }
+
+}
@@ -40,21 +40,22 @@ public enum ServerToClientModel {
     TYPE_REMOVE_HANDLER(ValueTypeModel.NULL),
     TYPE_HISTORY(ValueTypeModel.STRING),
     TYPE_GC(ValueTypeModel.INTEGER),
+    TYPE_GC_BATCH(ValueTypeModel.INTEGER_ARRAY),
 
     NATIVE(ValueTypeModel.JSON_OBJECT),
     DATE(ValueTypeModel.LONG),
     VALUE(ValueTypeModel.STRING_UTF8),
     PARENT_OBJECT_ID(ValueTypeModel.INTEGER),
-    PUT_STYLE_KEY(ValueTypeModel.STRING),
+    PUT_STYLE_KEY(ValueTypeModel.STRING_DICTIONARY),
     STYLE_VALUE(ValueTypeModel.STRING),
-    REMOVE_STYLE_KEY(ValueTypeModel.STRING),
-    PUT_PROPERTY_KEY(ValueTypeModel.STRING),
+    REMOVE_STYLE_KEY(ValueTypeModel.STRING_DICTIONARY),
+    PUT_PROPERTY_KEY(ValueTypeModel.STRING_DICTIONARY),
     PROPERTY_VALUE(ValueTypeModel.STRING_UTF8),
-    PUT_ATTRIBUTE_KEY(ValueTypeModel.STRING),
+    PUT_ATTRIBUTE_KEY(ValueTypeModel.STRING_DICTIONARY),
     ATTRIBUTE_VALUE(ValueTypeModel.STRING_UTF8),
-    REMOVE_ATTRIBUTE_KEY(ValueTypeModel.STRING),
-    ADD_STYLE_NAME(ValueTypeModel.STRING),
-    REMOVE_STYLE_NAME(ValueTypeModel.STRING),
+    REMOVE_ATTRIBUTE_KEY(ValueTypeModel.STRING_DICTIONARY),
+    ADD_STYLE_NAME(ValueTypeModel.STRING_DICTIONARY),
+    REMOVE_STYLE_NAME(ValueTypeModel.STRING_DICTIONARY),
     HREF(ValueTypeModel.STRING_UTF8),
     TEXT(ValueTypeModel.STRING_UTF8),
     HTML(ValueTypeModel.STRING_UTF8),
@@ -110,22 +111,22 @@ public enum ServerToClientModel {
     TAG(ValueTypeModel.STRING),
     PICKER(ValueTypeModel.INTEGER),
     ROW(ValueTypeModel.INTEGER),
-    ROW_FORMATTER_ADD_STYLE_NAME(ValueTypeModel.STRING),
-    ROW_FORMATTER_REMOVE_STYLE_NAME(ValueTypeModel.STRING),
-    ROW_FORMATTER_SET_STYLE_NAME(ValueTypeModel.STRING),
+    ROW_FORMATTER_ADD_STYLE_NAME(ValueTypeModel.STRING_DICTIONARY),
+    ROW_FORMATTER_REMOVE_STYLE_NAME(ValueTypeModel.STRING_DICTIONARY),
+    ROW_FORMATTER_SET_STYLE_NAME(ValueTypeModel.STRING_DICTIONARY),
     COLUMN(ValueTypeModel.INTEGER),
-    CELL_FORMATTER_ADD_STYLE_NAME(ValueTypeModel.STRING),
-    CELL_FORMATTER_REMOVE_STYLE_NAME(ValueTypeModel.STRING),
-    CELL_FORMATTER_SET_STYLE_NAME(ValueTypeModel.STRING),
+    CELL_FORMATTER_ADD_STYLE_NAME(ValueTypeModel.STRING_DICTIONARY),
+    CELL_FORMATTER_REMOVE_STYLE_NAME(ValueTypeModel.STRING_DICTIONARY),
+    CELL_FORMATTER_SET_STYLE_NAME(ValueTypeModel.STRING_DICTIONARY),
     COLUMN_FORMATTER_COLUMN_WIDTH(ValueTypeModel.STRING),
-    COLUMN_FORMATTER_ADD_STYLE_NAME(ValueTypeModel.STRING),
-    COLUMN_FORMATTER_REMOVE_STYLE_NAME(ValueTypeModel.STRING),
-    COLUMN_FORMATTER_SET_STYLE_NAME(ValueTypeModel.STRING),
+    COLUMN_FORMATTER_ADD_STYLE_NAME(ValueTypeModel.STRING_DICTIONARY),
+    COLUMN_FORMATTER_REMOVE_STYLE_NAME(ValueTypeModel.STRING_DICTIONARY),
+    COLUMN_FORMATTER_SET_STYLE_NAME(ValueTypeModel.STRING_DICTIONARY),
     PLACEHOLDER(ValueTypeModel.STRING_UTF8),
     DATE_ENABLED(ValueTypeModel.STRING_UTF8),
     ENABLED(ValueTypeModel.BOOLEAN),
     ADD_DATE_STYLE(ValueTypeModel.STRING_UTF8),
-    STYLE_NAME(ValueTypeModel.STRING),
+    STYLE_NAME(ValueTypeModel.STRING_DICTIONARY),
     REMOVE_DATE_STYLE(ValueTypeModel.STRING_UTF8),
     YEAR_ARROWS_VISIBLE(ValueTypeModel.BOOLEAN),
     POPUP_CAPTION(ValueTypeModel.STRING_UTF8),
@@ -135,7 +136,7 @@ public enum ServerToClientModel {
     WIDGET_WIDTH(ValueTypeModel.STRING),
     WIDGET_HEIGHT(ValueTypeModel.STRING),
     WIDGET_TITLE(ValueTypeModel.STRING_UTF8),
-    STYLE_PRIMARY_NAME(ValueTypeModel.STRING),
+    STYLE_PRIMARY_NAME(ValueTypeModel.STRING_DICTIONARY),
     ENSURE_DEBUG_ID(ValueTypeModel.STRING),
     ITEM_INSERTED(ValueTypeModel.STRING_UTF8),
     ITEM_UPDATED(ValueTypeModel.STRING_UTF8),
@@ -195,6 +196,8 @@ public enum ServerToClientModel {
     FOCUS(ValueTypeModel.BOOLEAN),
     HANDLER_TYPE(ValueTypeModel.BYTE),
     DOM_HANDLER_CODE(ValueTypeModel.BYTE),
+    DOM_HANDLER_THROTTLE(ValueTypeModel.INTEGER),
+    DOM_HANDLER_DEBOUNCE(ValueTypeModel.INTEGER),
     HISTORY_FIRE_EVENTS(ValueTypeModel.BOOLEAN),
     LOADING_ON_REQUEST(ValueTypeModel.BOOLEAN),
     SET_COL_SPAN(ValueTypeModel.INTEGER),
@@ -34,7 +34,9 @@ public enum ValueTypeModel {
     DOUBLE(ValueTypeModel.DOUBLE_SIZE),
     STRING(ValueTypeModel.STRING_SIZE),
     STRING_UTF8(ValueTypeModel.STRING_SIZE),
-    JSON_OBJECT(ValueTypeModel.JSON_OBJECT_SIZE);
+    JSON_OBJECT(ValueTypeModel.JSON_OBJECT_SIZE),
+    STRING_DICTIONARY(ValueTypeModel.STRING_SIZE),
+    INTEGER_ARRAY(ValueTypeModel.INTEGER_ARRAY_SIZE);
 
     public static final int NULL_SIZE = 0;
     public static final int BOOLEAN_SIZE = 1;
@@ -42,9 +44,25 @@ public enum ValueTypeModel {
     public static final int SHORT_SIZE = 2;
     public static final int INTEGER_SIZE = 4;
     public static final int LONG_SIZE = 8;
-    public static final int DOUBLE_SIZE = 16;
+    public static final int DOUBLE_SIZE = 8;
     public static final int STRING_SIZE = -1;
     public static final int JSON_OBJECT_SIZE = -1;
+    /**
+     * An {@link #INTEGER_ARRAY} value is the number of elements, as an int, followed by the elements
+     */
+    public static final int INTEGER_ARRAY_SIZE = -1;
+
+    /**
+     * A {@link #STRING_DICTIONARY} value starts with an unsigned short reference. Without this bit, it
+     * is the ID of a string already sent. With it, the ID (reference without the bit) is defined by
+     * the string that follows, encoded like a {@link #STRING_UTF8}.
+     */
+    public static final int DICTIONARY_NEW_ENTRY_MASK = 0x8000;
+    /**
+     * Reference of a string sent inline, without being stored in the dictionary
+     */
+    public static final int DICTIONARY_INLINE_VALUE = 0xFFFF;
+    public static final int DICTIONARY_MAX_SIZE = DICTIONARY_INLINE_VALUE & ~DICTIONARY_NEW_ENTRY_MASK;
 
     private static final ValueTypeModel[] VALUES = ValueTypeModel.values();
 
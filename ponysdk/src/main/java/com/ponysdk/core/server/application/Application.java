@@ -69,10 +69,12 @@ public class Application {
 
     public void registerUIContext(final UIContext uiContext) {
         uiContexts.put(uiContext.getID(), uiContext);
+        SessionManager.get().registerUIContext(uiContext);
     }
 
     public void deregisterUIContext(final int uiContextID) {
         uiContexts.remove(uiContextID);
+        SessionManager.get().unregisterUIContext(uiContextID);
         if (uiContexts.isEmpty()) {
             session.invalidate();
             SessionManager.get().unregisterApplication(this);
@@ -86,6 +88,7 @@ public class Application {
             } catch (final Exception e) {
                 log.error("Can't destroy the UIContext #" + uiContext.getID() + " on Application #" + id, e);
             }
+            SessionManager.get().unregisterUIContext(uiContext.getID());
         });
         uiContexts.clear();
 
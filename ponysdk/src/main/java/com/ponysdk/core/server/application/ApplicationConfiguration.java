@@ -23,6 +23,7 @@
 
 package com.ponysdk.core.server.application;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -62,6 +63,18 @@ public class ApplicationConfiguration {
 
     private boolean tabindexOnlyFormField;
 
+    private boolean coalescingUpdates;
+
+    private boolean actorMode;
+
+    private Duration conflationWindow = Duration.ZERO;
+
+    private boolean lockProfiling;
+
+    private Duration lockHoldThreshold = Duration.ofMillis(100);
+
+    private int webSocketBufferMaxSize = 1 << 20;
+
     public ApplicationConfiguration() {
         applicationID = System.getProperty(APPLICATION_ID);
         applicationName = System.getProperty(APPLICATION_NAME);
@@ -189,6 +202,88 @@ public class ApplicationConfiguration {
         this.tabindexOnlyFormField = tabindexOnlyFormField;
     }
 
+    public boolean isCoalescingUpdates() {
+        return coalescingUpdates;
+    }
+
+    /**
+     * Merges the updates of an object written during a transaction into a single frame
+     *
+     * @see com.ponysdk.core.server.stm.TxnContext#setCoalescingUpdates(boolean)
+     */
+    public void setCoalescingUpdates(final boolean coalescingUpdates) {
+        this.coalescingUpdates = coalescingUpdates;
+    }
+
+    public boolean isActorMode() {
+        return actorMode;
+    }
+
+    /**
+     * Makes the UIContexts process their submitted tasks on a dedicated drainer instead of locking the
+     * calling thread. The executed tasks are still run synchronously.
+     *
+     * @see UIContext#submit(Runnable)
+     */
+    public void setActorMode(final boolean actorMode) {
+        this.actorMode = actorMode;
+    }
+
+    public Duration getConflationWindow() {
+        return conflationWindow;
+    }
+
+    /**
+     * Default conflation window of the UIContexts
+     *
+     * @see UIContext#setConflationWindow(Duration)
+     */
+    public void setConflationWindow(final Duration conflationWindow) {
+        this.conflationWindow = conflationWindow;
+    }
+
+    public boolean isLockProfiling() {
+        return lockProfiling;
+    }
+
+    /**
+     * Instruments the lock of the UIContexts : wait and hold time histograms, current holder and
+     * report of the holds longer than {@link #getLockHoldThreshold()}. Without overhead when
+     * disabled, which is the default.
+     *
+     * @see com.ponysdk.core.server.metrics.LockProfiler
+     */
+    public void setLockProfiling(final boolean lockProfiling) {
+        this.lockProfiling = lockProfiling;
+    }
+
+    public Duration getLockHoldThreshold() {
+        return lockHoldThreshold;
+    }
+
+    /**
+     * Hold time of the lock of an UIContext above which the hold is reported, 100 ms by default
+     *
+     * @see #setLockProfiling(boolean)
+     */
+    public void setLockHoldThreshold(final Duration lockHoldThreshold) {
+        this.lockHoldThreshold = lockHoldThreshold;
+    }
+
+    public int getWebSocketBufferMaxSize() {
+        return webSocketBufferMaxSize;
+    }
+
+    /**
+     * Maximum size of the data waiting to be sent to a terminal. The memory is borrowed from a
+     * shared pool while the data are pending, so an idle UIContext doesn't hold any.
+     *
+     * @see com.ponysdk.core.server.concurrent.SegmentedAutoFlushedBuffer
+     */
+    public void setWebSocketBufferMaxSize(final int webSocketBufferMaxSize) {
+        this.webSocketBufferMaxSize = webSocketBufferMaxSize;
+    }
+
     @Override
     public String toString() {
         return "ApplicationManagerOption [heartBeatPeriod=" + heartBeatPeriod + " " + heartBeatPeriodTimeUnit + "]";
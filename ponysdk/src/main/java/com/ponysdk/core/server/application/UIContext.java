@@ -24,13 +24,23 @@
 package com.ponysdk.core.server.application;
 
 import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
 import javax.json.*;
@@ -46,7 +56,10 @@ import com.ponysdk.core.model.ClientToServerModel;
 import com.ponysdk.core.model.HandlerModel;
 import com.ponysdk.core.model.ServerToClientModel;
 import com.ponysdk.core.server.AlreadyDestroyedApplication;
+import com.ponysdk.core.server.concurrent.PScheduler;
 import com.ponysdk.core.server.context.PObjectWeakHashMap;
+import com.ponysdk.core.server.metrics.LockProfiler;
+import com.ponysdk.core.server.metrics.UIContextMetrics;
 import com.ponysdk.core.server.stm.Txn;
 import com.ponysdk.core.server.stm.TxnContext;
 import com.ponysdk.core.server.websocket.WebSocket;
@@ -83,10 +96,29 @@ public class UIContext {
     private static final ThreadLocal<UIContext> currentContext = new ThreadLocal<>();
     private static final AtomicInteger uiContextCount = new AtomicInteger();
     private static final String DEFAULT_PROVIDER = "org.glassfish.json.JsonProviderImpl";
+    private static final int MAX_DRAIN_BATCH_SIZE = 256;
+    private static final Duration BACK_PRESSURE_RETRY_DELAY = Duration.ofMillis(100);
+
+    private static final Executor drainers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+        new ThreadFactory() {
+
+            private final AtomicInteger i = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread t = new Thread(r);
+                t.setName(UIContext.class.getName() + "-drainer-" + i.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            }
+        });
 
     private final int ID;
 
     private final ReentrantLock lock = new ReentrantLock();
+    private final boolean actorMode;
+    private final Queue<Runnable> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
     private final Map<String, Object> attributes = new HashMap<>();
 
     private final PObjectWeakHashMap pObjectWeakReferences = new PObjectWeakHashMap();
@@ -106,11 +138,21 @@ public class UIContext {
     private final TxnContext context;
     private final Set<DataListener> listeners = new HashSet<>();
 
+    private final Map<Object, Object> conflatedData = new LinkedHashMap<>();
+    private boolean conflationScheduled;
+    private Duration conflationWindow = Duration.ZERO;
+    private final AtomicLong conflatedUpdateCount = new AtomicLong();
+    private final AtomicLong pushedUpdateCount = new AtomicLong();
+    private final AtomicLong droppedTaskCount = new AtomicLong();
+    private final AtomicLong deferredFlushCount = new AtomicLong();
+
     private TerminalDataReceiver terminalDataReceiver;
 
     private boolean alive = true;
 
     private final Latency latency = new Latency(10);
+    private final UIContextMetrics metrics = new UIContextMetrics();
+    private final LockProfiler lockProfiler;
 
     private final ApplicationConfiguration configuration;
     private final WebSocket socket;
@@ -127,6 +169,15 @@ public class UIContext {
         this.configuration = configuration;
         this.request = request;
         this.context = context;
+        this.actorMode = configuration != null && configuration.isActorMode();
+        if (configuration != null && configuration.getConflationWindow() != null) {
+            this.conflationWindow = configuration.getConflationWindow();
+        }
+        if (configuration != null && configuration.isLockProfiling()) {
+            this.lockProfiler = new LockProfiler(ID, lock, configuration.getLockHoldThreshold().toNanos());
+        } else {
+            this.lockProfiler = null;
+        }
 
         JsonProvider provider ;
         try {
@@ -316,34 +367,199 @@ public class UIContext {
     /**
      * Executes a {@link Runnable} that represents a task in a graphical context
      * <p>
-     * This method locks the UIContext
+     * This method locks the UIContext : the task is done when it returns, even in actor mode.
      *
      * @param runnable the tasks
+     * @return true if the task has been executed
+     * @see #submit(Runnable)
      */
     public boolean execute(final Runnable runnable) {
         if (!isAlive()) return false;
         if (log.isDebugEnabled()) log.debug("Pushing to #{}", this);
         if (UIContext.get() != this) {
-            acquire();
+            acquire(runnable);
+            return executeLocked(runnable);
+        } else {
+            runnable.run();
+            return false;
+        }
+    }
+
+    /**
+     * Executes a {@link Runnable}, as {@link #execute(Runnable)}, only if the UIContext is not
+     * locked by another thread : the calling thread never waits for the lock
+     *
+     * @param runnable the tasks
+     * @return true if the task has been executed, false if the UIContext is locked by another
+     *         thread, dead, or if the task has failed
+     */
+    public boolean tryExecute(final Runnable runnable) {
+        if (!isAlive()) return false;
+        if (UIContext.get() == this) {
+            runnable.run();
+            return true;
+        }
+        if (!tryAcquire(runnable)) return false;
+        return executeLocked(runnable);
+    }
+
+    private boolean executeLocked(final Runnable runnable) {
+        final long start = System.nanoTime();
+        try {
+            final Txn txn = Txn.get();
+            txn.begin(context);
+            try {
+                runnable.run();
+                pObjectWeakReferences.expungeStaleEntries();
+                txn.commit();
+                return true;
+            } catch (final Throwable e) {
+                log.error("Cannot process client instruction", e);
+                txn.rollback();
+                return false;
+            }
+        } finally {
+            metrics.onExecute(System.nanoTime() - start);
+            release();
+        }
+    }
+
+    /**
+     * Executes a {@link Runnable} with a priority. A {@link TaskPriority#DROPPABLE} task is skipped
+     * while the UIContext is under pressure.
+     * <p>
+     * A dropped task is not a failure, so true is returned as well : a periodic task is kept for its
+     * next execution. The dropped tasks are counted by {@link #getDroppedTaskCount()}.
+     *
+     * @param runnable the tasks
+     * @param priority the priority of the task
+     * @return true if the task has been executed or dropped, false if the UIContext is dead or the
+     *         task has failed
+     * @see #isUnderPressure()
+     */
+    public boolean execute(final Runnable runnable, final TaskPriority priority) {
+        if (drop(priority)) return true;
+        return execute(runnable);
+    }
+
+    /**
+     * Submits a {@link Runnable} whose caller doesn't need it to be done on return, e.g. data pushed
+     * to the terminal or a scheduled task
+     * <p>
+     * In actor mode, the task is only queued and the calling thread never blocks : the queued tasks
+     * are run later by a drainer thread, in a single transaction by batch. Otherwise, the task is
+     * executed right away, as with {@link #execute(Runnable)}. Submitted from the UIContext itself,
+     * the task is always run right away.
+     *
+     * @param runnable the tasks
+     * @return true if the task has been executed, or queued in actor mode
+     * @see ApplicationConfiguration#setActorMode(boolean)
+     */
+    public boolean submit(final Runnable runnable) {
+        if (!isAlive()) return false;
+        if (UIContext.get() == this) {
+            runnable.run();
+            return true;
+        }
+        if (!actorMode) return execute(runnable);
+        inbox.offer(runnable);
+        scheduleDrain();
+        return true;
+    }
+
+    /**
+     * Submits a {@link Runnable} with a priority, see {@link #submit(Runnable)} and
+     * {@link #execute(Runnable, TaskPriority)}
+     *
+     * @param runnable the tasks
+     * @param priority the priority of the task
+     * @return true if the task has been executed, queued in actor mode, or dropped
+     */
+    public boolean submit(final Runnable runnable, final TaskPriority priority) {
+        if (drop(priority)) return true;
+        return submit(runnable);
+    }
+
+    private boolean drop(final TaskPriority priority) {
+        if (TaskPriority.DROPPABLE != priority || !isAlive() || !isUnderPressure()) return false;
+        droppedTaskCount.incrementAndGet();
+        if (log.isDebugEnabled()) log.debug("UIContext #{} under pressure, task dropped", ID);
+        return true;
+    }
+
+    /**
+     * Tells if the terminal doesn't read its messages fast enough. In that case, only the urgent
+     * messages should be sent : the droppable tasks are skipped and the conflated data are
+     * deferred.
+     *
+     * @return true if the pending data have reached the reserved threshold of the websocket buffer
+     */
+    public boolean isUnderPressure() {
+        return socket != null && socket.isUnderPressure();
+    }
+
+    /**
+     * Gets the number of {@link TaskPriority#DROPPABLE} tasks skipped because of the pressure
+     *
+     * @return the number of dropped tasks
+     */
+    public long getDroppedTaskCount() {
+        return droppedTaskCount.get();
+    }
+
+    /**
+     * Gets the number of times the conflated data have been deferred because of the pressure
+     *
+     * @return the number of deferred flushes
+     */
+    public long getDeferredFlushCount() {
+        return deferredFlushCount.get();
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) drainers.execute(this::drainInbox);
+    }
+
+    /**
+     * Runs the queued tasks in a single transaction, so they are flushed together
+     */
+    private void drainInbox() {
+        try {
+            if (!isAlive()) {
+                inbox.clear();
+                return;
+            }
+            // A drainer never waits for a busy UIContext, the drain is re-armed by its release()
+            if (!tryAcquire(null)) return;
+            final long start = System.nanoTime();
             try {
                 final Txn txn = Txn.get();
                 txn.begin(context);
                 try {
-                    runnable.run();
+                    Runnable runnable;
+                    for (int i = 0; i < MAX_DRAIN_BATCH_SIZE && (runnable = inbox.poll()) != null; i++) {
+                        try {
+                            runnable.run();
+                        } catch (final Throwable e) {
+                            log.error("Cannot process client instruction", e);
+                        }
+                    }
+                    pObjectWeakReferences.expungeStaleEntries();
                     txn.commit();
-                    return true;
                 } catch (final Throwable e) {
-                    log.error("Cannot process client instruction", e);
+                    log.error("Cannot process client instructions", e);
                     txn.rollback();
-                    return false;
                 }
             } finally {
+                metrics.onExecute(System.nanoTime() - start);
                 release();
             }
-        } else {
-            runnable.run();
-            return false;
+        } finally {
+            drainScheduled.set(false);
         }
+        // Remaining or newly queued tasks are drained in another batch, to let the other UIContexts run.
+        // If the UIContext has been released since the failed tryAcquire(), its release() may have missed the drain
+        if (!inbox.isEmpty() && !lock.isLocked()) scheduleDrain();
     }
 
     /**
@@ -353,7 +569,7 @@ public class UIContext {
      */
     public boolean pushToClient(final List<Object> data) {
         if (isAlive() && data != null && !listeners.isEmpty()) {
-            return execute(() -> {
+            return submit(() -> {
                 try {
                     listeners.forEach(listener -> data.forEach(listener::onData));
                 } catch (final Throwable e) {
@@ -372,7 +588,7 @@ public class UIContext {
      */
     public boolean pushToClient(final Object data) {
         if (isAlive() && data != null && !listeners.isEmpty()) {
-            return execute(() -> {
+            return submit(() -> {
                 try {
                     listeners.forEach(listener -> listener.onData(data));
                 } catch (final Throwable e) {
@@ -384,6 +600,119 @@ public class UIContext {
         }
     }
 
+    /**
+     * Stimulates all {@link DataListener} with the latest object pushed for a key
+     * <p>
+     * The objects are conflated : during the conflation window, a new object replaces the pending
+     * one of the same key, and all the pending keys are sent in a single execution. While the
+     * UIContext is under pressure, the pending keys keep being conflated.
+     *
+     * @param key the conflation key, e.g. an instrument
+     * @param data the object
+     * @see #setConflationWindow(Duration)
+     */
+    public boolean pushToClient(final Object key, final Object data) {
+        if (isAlive() && key != null && data != null && !listeners.isEmpty()) {
+            final boolean schedule;
+            synchronized (conflatedData) {
+                if (conflatedData.put(key, data) != null) conflatedUpdateCount.incrementAndGet();
+                schedule = !conflationScheduled;
+                conflationScheduled = true;
+            }
+            if (schedule) {
+                boolean scheduled = false;
+                try {
+                    scheduled = scheduleConflatedData();
+                } finally {
+                    // No flush is pending, the next object has to schedule one
+                    if (!scheduled) resetConflation();
+                }
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    private boolean scheduleConflatedData() {
+        if (!conflationWindow.isZero()) {
+            PScheduler.schedule(this, this::flushConflatedData, conflationWindow);
+            return true;
+        } else if (UIContext.get() == this) {
+            flushConflatedData();
+            return true;
+        } else {
+            return submit(this::flushConflatedData);
+        }
+    }
+
+    private void resetConflation() {
+        synchronized (conflatedData) {
+            conflationScheduled = false;
+        }
+    }
+
+    private void flushConflatedData() {
+        try {
+            if (isUnderPressure()) {
+                // Keep conflating until the terminal catches up
+                deferredFlushCount.incrementAndGet();
+                final Duration delay = conflationWindow.compareTo(BACK_PRESSURE_RETRY_DELAY) > 0 ? conflationWindow
+                        : BACK_PRESSURE_RETRY_DELAY;
+                PScheduler.schedule(this, this::flushConflatedData, delay);
+                return;
+            }
+        } catch (final Throwable e) {
+            // Sent right away rather than left pending forever
+            log.error("Cannot defer the conflated data", e);
+        }
+        final List<Object> data;
+        synchronized (conflatedData) {
+            data = new ArrayList<>(conflatedData.values());
+            conflatedData.clear();
+            conflationScheduled = false;
+        }
+        pushedUpdateCount.addAndGet(data.size());
+        try {
+            listeners.forEach(listener -> data.forEach(listener::onData));
+        } catch (final Throwable e) {
+            log.error("Cannot send data", e);
+        }
+    }
+
+    /**
+     * Sets the window during which the objects pushed with {@link #pushToClient(Object, Object)} are
+     * conflated. By default, the window is zero : the objects are only conflated while the UIContext
+     * is busy.
+     *
+     * @param conflationWindow the conflation window
+     */
+    public void setConflationWindow(final Duration conflationWindow) {
+        this.conflationWindow = Objects.requireNonNull(conflationWindow);
+    }
+
+    public Duration getConflationWindow() {
+        return conflationWindow;
+    }
+
+    /**
+     * Gets the number of objects replaced by a newer one before being sent
+     *
+     * @return the number of conflated objects
+     */
+    public long getConflatedUpdateCount() {
+        return conflatedUpdateCount.get();
+    }
+
+    /**
+     * Gets the number of conflated objects effectively sent to the {@link DataListener}
+     *
+     * @return the number of sent objects
+     */
+    public long getPushedUpdateCount() {
+        return pushedUpdateCount.get();
+    }
+
     /**
      * Sends data to the targeted {@link PObject} from {@link JsonObject} instruction
      * Called from terminal side
@@ -406,29 +735,39 @@ public class UIContext {
                 return;
             }
 
-            //Cookies
-            if (objectID == 0) {
-                cookies.onClientData(jsonObject);
-            } else {
-                final PObject object = getObject(objectID);
+            fireClientData(objectID, jsonObject);
+        }
+    }
 
-                if (object == null) {
-                    log.error("unknown reference from the browser. Unable to execute instruction: {}", jsonObject);
+    /**
+     * Dispatches an instruction of the terminal whose object ID has already been decoded
+     *
+     * @param objectID the object ID, 0 for the cookies
+     * @param jsonObject the instruction
+     */
+    public void fireClientData(final int objectID, final JsonObject jsonObject) {
+        //Cookies
+        if (objectID == 0) {
+            cookies.onClientData(jsonObject);
+        } else {
+            final PObject object = getObject(objectID);
 
-                    if (jsonObject.containsKey(ClientToServerModel.PARENT_OBJECT_ID.toStringValue())) {
-                        final int parentObjectID = jsonObject.getJsonNumber(ClientToServerModel.PARENT_OBJECT_ID.toStringValue())
-                                .intValue();
-                        final PObject gcObject = pObjectWeakReferences.get(parentObjectID);
-                        if (log.isWarnEnabled()) log.warn(String.valueOf(gcObject));
-                    }
+            if (object == null) {
+                log.error("unknown reference from the browser. Unable to execute instruction: {}", jsonObject);
 
-                    return;
+                if (jsonObject.containsKey(ClientToServerModel.PARENT_OBJECT_ID.toStringValue())) {
+                    final int parentObjectID = jsonObject.getJsonNumber(ClientToServerModel.PARENT_OBJECT_ID.toStringValue())
+                        .intValue();
+                    final PObject gcObject = pObjectWeakReferences.get(parentObjectID);
+                    if (log.isWarnEnabled()) log.warn(String.valueOf(gcObject));
                 }
 
-                if (terminalDataReceiver != null) terminalDataReceiver.onDataReceived(object, jsonObject);
-
-                object.onClientData(jsonObject);
+                return;
             }
+
+            if (terminalDataReceiver != null) terminalDataReceiver.onDataReceived(object, jsonObject);
+
+            object.onClientData(jsonObject);
         }
     }
 
@@ -445,8 +784,25 @@ public class UIContext {
      * Locks the current UIContext
      */
     public void acquire() {
-        lock.lock();
+        acquire(null);
+    }
+
+    private void acquire(final Runnable origin) {
+        if (lockProfiler != null) {
+            final long waitNanos = lockProfiler.lock(origin);
+            if (waitNanos > 0) metrics.onLockWait(waitNanos);
+        } else if (!lock.tryLock()) {
+            final long start = System.nanoTime();
+            lock.lock();
+            metrics.onLockWait(System.nanoTime() - start);
+        }
+        currentContext.set(this);
+    }
+
+    private boolean tryAcquire(final Runnable origin) {
+        if (lockProfiler != null ? !lockProfiler.tryLock(origin) : !lock.tryLock()) return false;
         currentContext.set(this);
+        return true;
     }
 
     /**
@@ -454,7 +810,20 @@ public class UIContext {
      */
     public void release() {
         UIContext.remove();
-        lock.unlock();
+        if (lockProfiler != null) lockProfiler.unlock();
+        else lock.unlock();
+        // The tasks queued while the UIContext was locked
+        if (actorMode && !inbox.isEmpty()) scheduleDrain();
+    }
+
+    /**
+     * Gets the profiler of the lock of the UIContext
+     *
+     * @return the profiler, or null if the lock profiling is disabled
+     * @see ApplicationConfiguration#setLockProfiling(boolean)
+     */
+    public LockProfiler getLockProfiler() {
+        return lockProfiler;
     }
 
     /**
@@ -478,6 +847,9 @@ public class UIContext {
 
     /**
      * Gets the {@link PObject} with a specific object ID
+     * <p>
+     * The objects are not stored in a thread safe structure : this method must be called under the
+     * lock of the UIContext, e.g. from {@link #execute(Runnable)}.
      *
      * @param objectID the object ID of the searched {@link PObject}
      * @return the {@link PObject} or null if not found
@@ -487,6 +859,16 @@ public class UIContext {
         return pObjectWeakReferences.get(objectID);
     }
 
+    /**
+     * Gets the number of registered {@link PObject}, the garbage collected ones included until
+     * they are expunged
+     *
+     * @return the number of live objects
+     */
+    public int getObjectCount() {
+        return pObjectWeakReferences.size();
+    }
+
     /**
      * Registers a {@link StreamHandler} that will be called on the terminal side
      *
@@ -803,6 +1185,16 @@ public class UIContext {
         return jsonProvider;
     }
 
+    /**
+     * Gets the metrics of the UIContext, always recorded
+     *
+     * @return the metrics
+     * @see com.ponysdk.core.server.metrics.ServerMetrics
+     */
+    public UIContextMetrics getMetrics() {
+        return metrics;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
@@ -828,6 +1220,7 @@ public class UIContext {
      */
     public void addPingValue(final long pingValue) {
         latency.add(pingValue);
+        metrics.onRoundTrip(pingValue);
     }
 
     /**
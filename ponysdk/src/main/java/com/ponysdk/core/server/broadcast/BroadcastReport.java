@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.broadcast;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of a broadcast, once it has been handed to all the subscribed UIContexts
+ */
+public final class BroadcastReport {
+
+    private final Object topic;
+    private final int recipients;
+    private final int delivered;
+    private final int skipped;
+    private final int failed;
+    private final long latencyNanos;
+
+    BroadcastReport(final Object topic, final int recipients, final int delivered, final int skipped, final int failed,
+                    final long latencyNanos) {
+        this.topic = topic;
+        this.recipients = recipients;
+        this.delivered = delivered;
+        this.skipped = skipped;
+        this.failed = failed;
+        this.latencyNanos = latencyNanos;
+    }
+
+    public Object getTopic() {
+        return topic;
+    }
+
+    /**
+     * @return the number of UIContexts subscribed to the topic when the broadcast started
+     */
+    public int getRecipients() {
+        return recipients;
+    }
+
+    /**
+     * @return the number of UIContexts which have accepted the data
+     */
+    public int getDelivered() {
+        return delivered;
+    }
+
+    /**
+     * @return the number of UIContexts skipped because they were under pressure
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * @return the number of UIContexts which have refused the data, destroyed or without listener
+     */
+    public int getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return the time between the broadcast and the hand-over to the last UIContext
+     */
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "BroadcastReport [topic=" + topic + ", recipients=" + recipients + ", delivered=" + delivered + ", skipped="
+                + skipped + ", failed=" + failed + ", latency=" + TimeUnit.NANOSECONDS.toMicros(latencyNanos) + "us]";
+    }
+
+}
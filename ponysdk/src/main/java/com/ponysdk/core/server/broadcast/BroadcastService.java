@@ -0,0 +1,327 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.broadcast;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ponysdk.core.server.application.UIContext;
+import com.ponysdk.core.server.metrics.LatencyHistogram;
+
+/**
+ * Server-wide publish / subscribe of data to the UIContexts, by topic.<br>
+ * A broadcast returns immediately : it is queued in the mailbox of each subscriber, and the
+ * mailboxes are drained by a bounded set of single-threaded workers. A worker never waits for a
+ * busy UIContext : the mailbox of an UIContext locked by another thread is retried a bit later,
+ * while the other mailboxes of the worker are drained. An UIContext is always served by the same
+ * worker, from its mailbox, so it receives the broadcasts in order.<br>
+ * A mailbox keeps at most {@link #getMaxBacklog()} broadcasts : beyond, the broadcasts are skipped
+ * for that UIContext, as they are for the UIContexts under pressure.<br>
+ * The data are delivered to the {@link com.ponysdk.core.server.application.DataListener} of the
+ * UIContexts, as with {@link UIContext#pushToClient(Object)}.
+ */
+public class BroadcastService {
+
+    private static final Logger log = LoggerFactory.getLogger(BroadcastService.class);
+
+    private static final int DEFAULT_MAX_BACKLOG = 1024;
+    private static final long RETRY_DELAY_MILLIS = 1;
+
+    private static final BroadcastService INSTANCE = new BroadcastService(Runtime.getRuntime().availableProcessors());
+
+    private final ExecutorService[] workers;
+    private final ScheduledExecutorService retrier;
+    private final int maxBacklog;
+    private final Map<Object, Set<UIContext>> subscribersByTopic = new ConcurrentHashMap<>();
+    private final Map<UIContext, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final LatencyHistogram fanOutLatency = new LatencyHistogram();
+
+    /**
+     * @param parallelism the number of workers
+     */
+    public BroadcastService(final int parallelism) {
+        this(parallelism, DEFAULT_MAX_BACKLOG);
+    }
+
+    /**
+     * @param parallelism the number of workers
+     * @param maxBacklog the maximum number of broadcasts waiting for an UIContext
+     */
+    public BroadcastService(final int parallelism, final int maxBacklog) {
+        if (parallelism <= 0) throw new IllegalArgumentException("Parallelism must be positive : " + parallelism);
+        if (maxBacklog <= 0) throw new IllegalArgumentException("Max backlog must be positive : " + maxBacklog);
+        this.maxBacklog = maxBacklog;
+        this.workers = new ExecutorService[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            workers[i] = Executors.newSingleThreadExecutor(newThreadFactory("-" + (i + 1)));
+        }
+        this.retrier = Executors.newSingleThreadScheduledExecutor(newThreadFactory("-retrier"));
+    }
+
+    private static ThreadFactory newThreadFactory(final String suffix) {
+        final String name = BroadcastService.class.getName() + suffix;
+        return r -> {
+            final Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public static BroadcastService get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Subscribes an UIContext to a topic, until it is unsubscribed or destroyed
+     *
+     * @param topic the topic
+     * @param uiContext the UIContext
+     */
+    public void subscribe(final Object topic, final UIContext uiContext) {
+        final Set<UIContext> subscribers = subscribersByTopic.computeIfAbsent(topic,
+            t -> Collections.newSetFromMap(new ConcurrentHashMap<>()));
+        if (subscribers.add(uiContext)) {
+            mailboxes.computeIfAbsent(uiContext, this::newMailbox);
+            uiContext.addContextDestroyListener(context -> unsubscribe(topic, context));
+        }
+    }
+
+    public void unsubscribe(final Object topic, final UIContext uiContext) {
+        subscribersByTopic.computeIfPresent(topic, (t, subscribers) -> {
+            subscribers.remove(uiContext);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    /**
+     * @param topic the topic
+     * @return the number of UIContexts subscribed to the topic
+     */
+    public int countSubscribers(final Object topic) {
+        final Set<UIContext> subscribers = subscribersByTopic.get(topic);
+        return subscribers != null ? subscribers.size() : 0;
+    }
+
+    /**
+     * Broadcasts data to the UIContexts subscribed to a topic
+     *
+     * @param topic the topic
+     * @param data the data
+     * @return the report, completed once all the subscribers have been handed the data
+     */
+    public CompletableFuture<BroadcastReport> broadcast(final Object topic, final Object data) {
+        return fanOut(topic, uiContext -> uiContext.pushToClient(data));
+    }
+
+    /**
+     * Broadcasts data conflated by key to the UIContexts subscribed to a topic : an UIContext which
+     * is busy or within its conflation window only receives the latest data of a key
+     *
+     * @param topic the topic
+     * @param key the conflation key, e.g. an instrument
+     * @param data the data
+     * @return the report, completed once all the subscribers have been handed the data
+     * @see UIContext#pushToClient(Object, Object)
+     */
+    public CompletableFuture<BroadcastReport> broadcast(final Object topic, final Object key, final Object data) {
+        return fanOut(topic, uiContext -> uiContext.pushToClient(key, data));
+    }
+
+    /**
+     * @return the latency of the broadcasts, from their start to the hand-over to the last UIContext
+     */
+    public LatencyHistogram getFanOutLatency() {
+        return fanOutLatency;
+    }
+
+    /**
+     * @return the maximum number of broadcasts waiting for an UIContext
+     */
+    public int getMaxBacklog() {
+        return maxBacklog;
+    }
+
+    private CompletableFuture<BroadcastReport> fanOut(final Object topic, final Predicate<UIContext> delivery) {
+        final long start = System.nanoTime();
+        final Set<UIContext> subscribers = subscribersByTopic.get(topic);
+        final UIContext[] recipients = subscribers != null ? subscribers.toArray(new UIContext[0]) : new UIContext[0];
+        final CompletableFuture<BroadcastReport> future = new CompletableFuture<>();
+        if (recipients.length == 0) {
+            future.complete(new BroadcastReport(topic, 0, 0, 0, 0, System.nanoTime() - start));
+            return future;
+        }
+
+        final Broadcast broadcast = new Broadcast(topic, delivery, recipients.length, start, future);
+        for (final UIContext uiContext : recipients) {
+            final Mailbox mailbox = mailboxes.get(uiContext);
+            // Destroyed meanwhile
+            if (mailbox != null) mailbox.offer(broadcast);
+            else broadcast.onFailed();
+        }
+        return future;
+    }
+
+    private Mailbox newMailbox(final UIContext uiContext) {
+        uiContext.addContextDestroyListener(mailboxes::remove);
+        return new Mailbox(uiContext, workers[Math.floorMod(uiContext.getID(), workers.length)]);
+    }
+
+    /**
+     * The progress of a broadcast, reported once all the recipients have been handed the data
+     */
+    private final class Broadcast {
+
+        private final Object topic;
+        private final Predicate<UIContext> delivery;
+        private final int recipients;
+        private final long start;
+        private final CompletableFuture<BroadcastReport> future;
+        private final AtomicInteger remaining;
+        private final AtomicInteger delivered = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+
+        private Broadcast(final Object topic, final Predicate<UIContext> delivery, final int recipients, final long start,
+                final CompletableFuture<BroadcastReport> future) {
+            this.topic = topic;
+            this.delivery = delivery;
+            this.recipients = recipients;
+            this.start = start;
+            this.future = future;
+            this.remaining = new AtomicInteger(recipients);
+        }
+
+        // Called under the lock of the UIContext
+        private void deliverTo(final UIContext uiContext) {
+            try {
+                if (uiContext.isUnderPressure()) skipped.incrementAndGet();
+                else if (delivery.test(uiContext)) delivered.incrementAndGet();
+                else failed.incrementAndGet();
+            } catch (final Throwable e) {
+                log.error("Cannot broadcast {} to {}", topic, uiContext, e);
+                failed.incrementAndGet();
+            } finally {
+                onHandedOver();
+            }
+        }
+
+        private void onSkipped() {
+            skipped.incrementAndGet();
+            onHandedOver();
+        }
+
+        private void onFailed() {
+            failed.incrementAndGet();
+            onHandedOver();
+        }
+
+        private void onHandedOver() {
+            if (remaining.decrementAndGet() == 0) {
+                final long latencyNanos = System.nanoTime() - start;
+                fanOutLatency.record(latencyNanos);
+                final BroadcastReport report = new BroadcastReport(topic, recipients, delivered.get(), skipped.get(),
+                    failed.get(), latencyNanos);
+                if (log.isDebugEnabled()) log.debug("{}", report);
+                future.complete(report);
+            }
+        }
+    }
+
+    /**
+     * The broadcasts waiting for an UIContext, drained by its worker
+     */
+    private final class Mailbox implements Runnable {
+
+        private final UIContext uiContext;
+        private final ExecutorService worker;
+        private final Queue<Broadcast> broadcasts = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Mailbox(final UIContext uiContext, final ExecutorService worker) {
+            this.uiContext = uiContext;
+            this.worker = worker;
+        }
+
+        private void offer(final Broadcast broadcast) {
+            if (size.incrementAndGet() > maxBacklog) {
+                size.decrementAndGet();
+                broadcast.onSkipped();
+                return;
+            }
+            broadcasts.offer(broadcast);
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) worker.execute(this);
+        }
+
+        @Override
+        public void run() {
+            if (!uiContext.isAlive()) {
+                Broadcast broadcast;
+                while ((broadcast = poll()) != null) {
+                    broadcast.onFailed();
+                }
+            } else if (!uiContext.tryExecute(this::deliver) && uiContext.isAlive() && !broadcasts.isEmpty()) {
+                // Locked by another thread : the worker serves the other mailboxes meanwhile
+                retrier.schedule(() -> worker.execute(this), RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                return;
+            }
+            scheduled.set(false);
+            if (!broadcasts.isEmpty()) schedule();
+        }
+
+        private void deliver() {
+            Broadcast broadcast;
+            while ((broadcast = poll()) != null) {
+                broadcast.deliverTo(uiContext);
+            }
+        }
+
+        private Broadcast poll() {
+            final Broadcast broadcast = broadcasts.poll();
+            if (broadcast != null) size.decrementAndGet();
+            return broadcast;
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2017 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *  Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *  Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.concurrent;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JVM-wide pool of direct buffers of a same size, shared by the {@link SegmentedAutoFlushedBuffer}.
+ * <br>
+ * A released buffer is kept for the next borrower, unless the pool already keeps
+ * {@link #getMaxPooledCount()} buffers : in that case it is left to the garbage collector.<br>
+ * This class is thread safe and lock-free.
+ */
+public final class DirectBufferPool {
+
+    private static final int DEFAULT_MAX_POOLED_SIZE = 64 << 20;
+
+    private static final Map<Integer, DirectBufferPool> poolsBySize = new ConcurrentHashMap<>();
+
+    private final int bufferSize;
+    private final int maxPooledCount;
+    private final Queue<ByteBuffer> pooledBuffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledCount = new AtomicInteger();
+    private final AtomicInteger borrowedCount = new AtomicInteger();
+    private final AtomicLong allocatedCount = new AtomicLong();
+
+    private DirectBufferPool(final int bufferSize, final int maxPooledCount) {
+        this.bufferSize = bufferSize;
+        this.maxPooledCount = maxPooledCount;
+    }
+
+    /**
+     * Gets the pool of the buffers of a size. By default, a pool keeps up to 64MB of free buffers.
+     *
+     * @param bufferSize
+     *            the size of the buffers
+     */
+    public static DirectBufferPool get(final int bufferSize) {
+        return poolsBySize.computeIfAbsent(bufferSize,
+            size -> new DirectBufferPool(size, Math.max(1, DEFAULT_MAX_POOLED_SIZE / size)));
+    }
+
+    /**
+     * @return the pools created so far, one per buffer size
+     */
+    public static Collection<DirectBufferPool> getPools() {
+        return Collections.unmodifiableCollection(poolsBySize.values());
+    }
+
+    /**
+     * Borrows a cleared buffer, allocated if the pool is empty
+     */
+    public ByteBuffer borrow() {
+        ByteBuffer buffer = pooledBuffers.poll();
+        if (buffer != null) {
+            pooledCount.decrementAndGet();
+            buffer.clear();
+        } else {
+            buffer = ByteBuffer.allocateDirect(bufferSize);
+            allocatedCount.incrementAndGet();
+        }
+        borrowedCount.incrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * Gives back a borrowed buffer. The buffer must not be used anymore by the caller.
+     */
+    public void release(final ByteBuffer buffer) {
+        borrowedCount.decrementAndGet();
+        if (pooledCount.incrementAndGet() <= maxPooledCount) {
+            pooledBuffers.offer(buffer);
+        } else {
+            pooledCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Gives back a borrowed buffer which may still be written by a concurrent thread : it is left
+     * to the garbage collector instead of being reused.
+     */
+    public void discard(final ByteBuffer buffer) {
+        borrowedCount.decrementAndGet();
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getMaxPooledCount() {
+        return maxPooledCount;
+    }
+
+    /**
+     * @return the number of free buffers kept by the pool
+     */
+    public int getPooledCount() {
+        return pooledCount.get();
+    }
+
+    /**
+     * @return the number of buffers currently used by the borrowers
+     */
+    public int getBorrowedCount() {
+        return borrowedCount.get();
+    }
+
+    /**
+     * @return the number of buffers allocated since the creation of the pool
+     */
+    public long getAllocatedCount() {
+        return allocatedCount.get();
+    }
+
+}
@@ -24,12 +24,15 @@
 package com.ponysdk.core.server.concurrent;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
@@ -37,36 +40,57 @@ import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.ponysdk.core.server.application.TaskPriority;
 import com.ponysdk.core.server.application.UIContext;
 
+/**
+ * Schedules the tasks of the UIContexts.<br>
+ * The delays are handled by a {@link TimingWheel} with a 10 ms resolution, so scheduling or
+ * cancelling a task is O(1) whatever the number of tasks. The tasks themselves are run by a
+ * pool of threads.<br>
+ * The tasks of an UIContext expiring on the same tick are run together in a single
+ * {@link UIContext#submit(Runnable)}, so they are flushed to the terminal at once. They share
+ * the same transaction : a task throwing an exception is cancelled, but what it has written
+ * before failing is flushed with the other tasks of the group instead of being rolled back on
+ * its own.<br>
+ * The tasks are {@link TaskPriority#URGENT} by default. A periodic task scheduled as
+ * {@link TaskPriority#DROPPABLE} has its executions skipped while the UIContext is under pressure.
+ */
 public class PScheduler {
 
     private static final Logger log = LoggerFactory.getLogger(PScheduler.class);
 
-    private static final PScheduler INSTANCE;
-
-    static {
-        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(Runtime.getRuntime().availableProcessors(),
-            new ThreadFactory() {
+    private static final long TICK_DURATION_MILLIS = 10;
+    private static final int WHEEL_SIZE = 512;
 
-                private int i = 0;
+    private static final PScheduler INSTANCE = new PScheduler();
 
-                @Override
-                public Thread newThread(final Runnable r) {
-                    final Thread t = new Thread(r);
-                    t.setName(PScheduler.class.getName() + "-" + i++);
-                    t.setDaemon(true);
-                    return t;
-                }
-            });
-        INSTANCE = new PScheduler(executor);
+    private final TimingWheel wheel;
+    private final Executor executor;
+    private final Map<UIContext, Set<UIRunnable>> runnablesByUIContexts = new ConcurrentHashMap<>();
+    // Only accessed by the wheel thread
+    private final Map<UIContext, List<UIRunnable>> expiredRunnablesByUIContexts = new HashMap<>();
+
+    private PScheduler() {
+        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), newThreadFactory("-"));
+        // The expired runnables are only grouped by the wheel thread, they are run at the end of the tick
+        this.wheel = new TimingWheel(newThreadFactory("-wheel-"), Runnable::run, TICK_DURATION_MILLIS, TimeUnit.MILLISECONDS,
+            WHEEL_SIZE, this::onTick);
     }
 
-    private final ScheduledThreadPoolExecutor executor;
-    private final Map<UIContext, Set<UIRunnable>> runnablesByUIContexts = new ConcurrentHashMap<>();
+    private static ThreadFactory newThreadFactory(final String prefix) {
+        return new ThreadFactory() {
 
-    private PScheduler(final ScheduledThreadPoolExecutor executor) {
-        this.executor = executor;
+            private int i = 0;
+
+            @Override
+            public synchronized Thread newThread(final Runnable r) {
+                final Thread t = new Thread(r);
+                t.setName(PScheduler.class.getName() + prefix + i++);
+                t.setDaemon(true);
+                return t;
+            }
+        };
     }
 
     public static UIRunnable schedule(final Runnable runnable) {
@@ -99,44 +123,122 @@ public class PScheduler {
 
     public static UIRunnable scheduleAtFixedRate(final UIContext context, final Runnable runnable, final Duration delay,
                                                  final Duration period) {
-        return INSTANCE.scheduleAtFixedRate0(context, runnable, delay, period);
+        return scheduleAtFixedRate(context, runnable, delay, period, TaskPriority.URGENT);
+    }
+
+    /**
+     * Schedules a task at a fixed rate with a priority, e.g. {@link TaskPriority#DROPPABLE} for a refresh whose
+     * executions can be skipped while the UIContext is under pressure
+     */
+    public static UIRunnable scheduleAtFixedRate(final UIContext context, final Runnable runnable, final Duration delay,
+                                                 final Duration period, final TaskPriority priority) {
+        return INSTANCE.scheduleAtFixedRate0(context, runnable, delay, period, priority);
     }
 
     public static UIRunnable scheduleWithFixedDelay(final Runnable runnable, final Duration delay, final Duration period) {
-        return INSTANCE.scheduleWithFixedDelay0(UIContext.get(), runnable, delay.toMillis(), period.toMillis());
+        return scheduleWithFixedDelay(UIContext.get(), runnable, delay, period);
     }
 
     public static UIRunnable scheduleWithFixedDelay(final UIContext context, final Runnable runnable, final Duration delay,
                                                     final Duration period) {
-        return INSTANCE.scheduleWithFixedDelay0(context, runnable, delay.toMillis(), period.toMillis());
+        return scheduleWithFixedDelay(context, runnable, delay, period, TaskPriority.URGENT);
+    }
+
+    /**
+     * Schedules a task with a fixed delay and a priority, e.g. {@link TaskPriority#DROPPABLE} for a refresh whose
+     * executions can be skipped while the UIContext is under pressure
+     */
+    public static UIRunnable scheduleWithFixedDelay(final UIContext context, final Runnable runnable, final Duration delay,
+                                                    final Duration period, final TaskPriority priority) {
+        return INSTANCE.scheduleWithFixedDelay0(context, runnable, delay.toMillis(), period.toMillis(), priority);
+    }
+
+    /**
+     * Gets the number of pending tasks of an UIContext, the periodic ones included
+     *
+     * @param uiContext the UIContext
+     * @return the number of tasks
+     */
+    public static int getTaskCount(final UIContext uiContext) {
+        final Set<UIRunnable> runnables = INSTANCE.runnablesByUIContexts.get(uiContext);
+        return runnables != null ? runnables.size() : 0;
     }
 
     private UIRunnable schedule0(final UIContext context, final Runnable runnable, final Duration duration) {
-        final UIRunnable uiRunnable = new UIRunnable(context, this, runnable, false);
-        uiRunnable.setFuture(executor.schedule(uiRunnable, duration.toMillis(), TimeUnit.MILLISECONDS));
+        final UIRunnable uiRunnable = new UIRunnable(context, this, runnable, 0, false, TaskPriority.URGENT);
         registerTask(uiRunnable);
+        submit(uiRunnable, System.nanoTime() + duration.toNanos());
         return uiRunnable;
     }
 
     private UIRunnable scheduleAtFixedRate0(final UIContext context, final Runnable runnable, final Duration delay,
-                                            final Duration period) {
-        final UIRunnable uiRunnable = new UIRunnable(context, this, runnable, true);
-        uiRunnable.setFuture(executor.scheduleAtFixedRate(uiRunnable, delay.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS));
+                                            final Duration period, final TaskPriority priority) {
+        if (period.isNegative() || period.isZero()) throw new IllegalArgumentException("Period must be positive : " + period);
+        final UIRunnable uiRunnable = new UIRunnable(context, this, runnable, period.toNanos(), true, priority);
         registerTask(uiRunnable);
+        submit(uiRunnable, System.nanoTime() + delay.toNanos());
         return uiRunnable;
     }
 
     private UIRunnable scheduleWithFixedDelay0(final UIContext context, final Runnable runnable, final long delayMillis,
-                                               final long periodMillis) {
-        final UIRunnable uiRunnable = new UIRunnable(context, this, runnable, true);
-        final ScheduledFuture<?> future = executor.scheduleWithFixedDelay(uiRunnable, delayMillis, periodMillis,
-            TimeUnit.MILLISECONDS);
-        uiRunnable.setFuture(future);
+                                               final long periodMillis, final TaskPriority priority) {
+        if (periodMillis <= 0) throw new IllegalArgumentException("Period must be positive : " + periodMillis);
+        final UIRunnable uiRunnable = new UIRunnable(context, this, runnable, TimeUnit.MILLISECONDS.toNanos(periodMillis), false,
+            priority);
         registerTask(uiRunnable);
-
+        submit(uiRunnable, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis));
         return uiRunnable;
     }
 
+    private void submit(final UIRunnable uiRunnable, final long deadline) {
+        uiRunnable.deadline = deadline;
+        if (deadline - System.nanoTime() <= 0) {
+            uiRunnable.setTimeout(null);
+            executor.execute(uiRunnable);
+        } else {
+            uiRunnable.setTimeout(wheel.newTimeout(() -> onExpired(uiRunnable), deadline));
+        }
+    }
+
+    private void onExpired(final UIRunnable uiRunnable) {
+        expiredRunnablesByUIContexts.computeIfAbsent(uiRunnable.getUIContext(), uiContext -> new ArrayList<>()).add(uiRunnable);
+    }
+
+    private void onTick() {
+        if (expiredRunnablesByUIContexts.isEmpty()) return;
+        for (final Map.Entry<UIContext, List<UIRunnable>> entry : expiredRunnablesByUIContexts.entrySet()) {
+            final UIContext uiContext = entry.getKey();
+            final List<UIRunnable> uiRunnables = entry.getValue();
+            if (uiRunnables.size() == 1) executor.execute(uiRunnables.get(0));
+            else executor.execute(() -> runTogether(uiContext, uiRunnables));
+        }
+        expiredRunnablesByUIContexts.clear();
+    }
+
+    private static void runTogether(final UIContext uiContext, final List<UIRunnable> uiRunnables) {
+        boolean submitted = false;
+        try {
+            // Rescheduled once run : in actor mode, the submission only queues the tasks
+            submitted = uiContext.submit(() -> {
+                try {
+                    uiRunnables.forEach(UIRunnable::runInGroup);
+                } finally {
+                    uiRunnables.forEach(UIRunnable::afterRun);
+                }
+            });
+        } catch (final Throwable throwable) {
+            log.error("Error occurred", throwable);
+        } finally {
+            if (!submitted) uiRunnables.forEach(UIRunnable::cancel);
+        }
+    }
+
+    private void reschedule(final UIRunnable uiRunnable) {
+        // At a fixed rate, the next execution doesn't depend on the duration of the previous one
+        final long origin = uiRunnable.fixedRate ? uiRunnable.deadline : System.nanoTime();
+        submit(uiRunnable, origin + uiRunnable.period);
+    }
+
     public static <R> Consumer<R> delegate(final Consumer<R> consumer) {
         return delegate(consumer, UIContext.get());
     }
@@ -152,13 +254,11 @@ public class PScheduler {
     private void destroy(final UIContext uiContext) {
         final Set<UIRunnable> uiRunnables = runnablesByUIContexts.remove(uiContext);
         if (uiRunnables != null) uiRunnables.forEach(UIRunnable::onCancel);
-        executor.purge();
     }
 
     private void purge(final UIRunnable uiRunnable) {
         final Set<UIRunnable> uiRunnables = runnablesByUIContexts.get(uiRunnable.getUIContext());
         if (uiRunnables != null) uiRunnables.remove(uiRunnable);
-        executor.purge();
     }
 
     private void registerTask(final UIRunnable runnable) {
@@ -178,33 +278,62 @@ public class PScheduler {
 
         private final Runnable runnable;
         private final UIContext uiContext;
-        private final boolean repeated;
+        private final long period;
+        private final boolean fixedRate;
         private final PScheduler scheduler;
-        private boolean cancelled;
-        private ScheduledFuture<?> future;
+        private volatile boolean cancelled;
+        private volatile TimingWheel.Timeout timeout;
+        private volatile TaskPriority priority;
+        private long deadline;
 
-        UIRunnable(final UIContext context, final PScheduler scheduler, final Runnable runnable, final boolean repeated) {
+        UIRunnable(final UIContext context, final PScheduler scheduler, final Runnable runnable, final long period,
+                final boolean fixedRate, final TaskPriority priority) {
             this.uiContext = context;
             this.runnable = runnable;
-            this.repeated = repeated;
+            this.period = period;
+            this.fixedRate = fixedRate;
             this.scheduler = scheduler;
+            this.priority = priority;
         }
 
         @Override
         public void run() {
+            if (cancelled) afterRun();
+            else runTogether(uiContext, Collections.singletonList(this));
+        }
+
+        /**
+         * Runs the task inside the transaction of its tick group, a failure only cancels this task
+         */
+        private void runInGroup() {
+            if (cancelled) return;
+            // The failure doesn't roll back the transaction shared by the group, so the other tasks are still flushed
             try {
-                if (cancelled) return;
-                if (!execute()) cancel();
+                uiContext.execute(runnable, priority);
             } catch (final Throwable throwable) {
                 log.error("Error occurred", throwable);
                 cancel();
-            } finally {
-                if (!repeated) scheduler.purge(this);
             }
         }
 
+        private void afterRun() {
+            if (period == 0) scheduler.purge(this);
+            else if (!cancelled) scheduler.reschedule(this);
+        }
+
         public boolean execute() {
-            return uiContext.execute(runnable);
+            return uiContext.submit(runnable, priority);
+        }
+
+        public TaskPriority getPriority() {
+            return priority;
+        }
+
+        /**
+         * Sets the priority of the next executions
+         */
+        public void setPriority(final TaskPriority priority) {
+            this.priority = priority;
         }
 
         public void cancel() {
@@ -214,11 +343,12 @@ public class PScheduler {
 
         public void onCancel() {
             this.cancelled = true;
-            this.future.cancel(false);
+            final TimingWheel.Timeout currentTimeout = timeout;
+            if (currentTimeout != null) currentTimeout.cancel();
         }
 
-        void setFuture(final ScheduledFuture<?> future) {
-            this.future = future;
+        void setTimeout(final TimingWheel.Timeout timeout) {
+            this.timeout = timeout;
         }
 
         public UIContext getUIContext() {
@@ -0,0 +1,444 @@
+/*
+ * Copyright (c) 2017 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *  Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *  Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.concurrent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A buffer that can be asynchronously flushed to another destination, like
+ * {@link AutoFlushedBuffer}, but which only holds memory while it has pending data.<br>
+ * The data are written in fixed-size direct segments borrowed from the JVM-wide
+ * {@link DirectBufferPool}. A full segment is flushed automatically, and each segment goes back to
+ * the pool as soon as it has been flushed : an idle buffer holds no segment at all.<br>
+ * Flushes are serialized: if a flush is already in progress, next flush will occurs when the
+ * current one is finished.<br>
+ * The putXXX() writing methods are allowed to block if the buffer already holds its maximum size
+ * because the flushing logic is not efficient enough.
+ * When the call is blocked for too long, a call to close() is triggered and the buffer is not
+ * available for further writes.
+ * This class is intended to be used by a single writer thread, client code should provide its own
+ * synchronization between writers in a multi-threaded environment.<br>
+ * The buffer usage can be observed by any thread, in order to avoid taking an external lock and
+ * send a non-important message if a usage threshold has been reached.<br>
+ */
+public abstract class SegmentedAutoFlushedBuffer implements Closeable {
+
+    /**
+     * The implementation of the flushing logic. Flushing should be done asynchronously and is
+     * supposed to call the callback methods
+     * {@link SegmentedAutoFlushedBuffer#onFlushCompletion() onFlushCompletion} or
+     * {@link SegmentedAutoFlushedBuffer#onFlushFailure(Exception) onFlushFailed} afterwards.
+     *
+     * @param bufferToFlush
+     *            a ready to read {@link ByteBuffer} that contains the data to flush.
+     */
+    protected abstract void doFlush(ByteBuffer bufferToFlush);
+
+    /**
+     * Release resources associated to the flushing mechanism. Will be called at most once.
+     */
+    protected abstract void closeFlusher() throws IOException;
+
+    private final DirectBufferPool pool;
+    private final int maxSegmentCount;
+    private final int urgentMessageReservedSegmentCount;
+    private final long timeoutNanos; //0 means immediate failure if buffer is full, use Long.MAX_VALUE to implement infinite wait.
+
+    // segments ready to be flushed, in write order
+    private final Queue<ByteBuffer> sealedSegments = new ConcurrentLinkedQueue<>();
+    // segments borrowed from the pool : current, sealed and flushing ones
+    private final AtomicInteger segmentCount = new AtomicInteger();
+    // only one flush at a time
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private volatile ByteBuffer flushingSegment;
+
+    // written by the producer thread only, taken over by close() if the producer is idle
+    private final AtomicReference<ByteBuffer> currentSegment = new AtomicReference<>();
+
+    private volatile Exception asyncException = null;
+    private volatile boolean closed = false;
+    private volatile Thread waiterThread = null;
+
+    /**
+     * @param maxSize
+     *            the maximum size of the pending data, rounded down to a number of segments. Must
+     *            be at least twice the segment size
+     * @param segmentSize
+     *            the size of the segments, which is also the maximum size of a flush. Must be at
+     *            least 8
+     * @param urgentMessageReservedRatio
+     *            used by {@link SegmentedAutoFlushedBuffer#shouldOnlyWriteUrgentMessages()
+     *            shouldOnlyWriteUrgentMessages}.
+     *            If the free space ratio in the buffer is less than this value, that method should
+     *            returns {@code true}
+     * @param timeoutMillis
+     *            the timeout period in millisecond. If write to the buffer are blocked for longer
+     *            than this, it will be automatically closed
+     */
+    protected SegmentedAutoFlushedBuffer(final int maxSize, final int segmentSize, final float urgentMessageReservedRatio,
+            final long timeoutMillis) {
+        if (segmentSize < 8) {
+            throw new IllegalArgumentException("segmentSize must be at least 8");
+        }
+        if (maxSize < 2 * segmentSize) {
+            throw new IllegalArgumentException("maxSize must be at least 2 * segmentSize");
+        }
+        this.pool = DirectBufferPool.get(segmentSize);
+        this.maxSegmentCount = maxSize / segmentSize;
+        this.urgentMessageReservedSegmentCount = (int) (urgentMessageReservedRatio * maxSegmentCount);
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * Writes a {@code byte} in the buffer. This method may block up to the configured timeout
+     * period if the buffer is already full
+     *
+     * @see AutoFlushedBuffer#put(byte)
+     */
+    public final SegmentedAutoFlushedBuffer put(final byte b) throws IOException {
+        ensureCapacity(1).put(b);
+        return this;
+    }
+
+    /**
+     * Writes a {@code short} in the buffer. This method may block up to the configured timeout
+     * period if the buffer is already full
+     *
+     * @see AutoFlushedBuffer#putShort(short)
+     */
+    public final SegmentedAutoFlushedBuffer putShort(final short s) throws IOException {
+        ensureCapacity(2).putShort(s);
+        return this;
+    }
+
+    /**
+     * Writes an {@code int} in the buffer. This method may block up to the configured timeout
+     * period if the buffer is already full
+     *
+     * @see AutoFlushedBuffer#putInt(int)
+     */
+    public final SegmentedAutoFlushedBuffer putInt(final int i) throws IOException {
+        ensureCapacity(4).putInt(i);
+        return this;
+    }
+
+    /**
+     * Writes a {@code long} in the buffer. This method may block up to the configured timeout
+     * period if the buffer is already full
+     *
+     * @see AutoFlushedBuffer#putLong(long)
+     */
+    public final SegmentedAutoFlushedBuffer putLong(final long l) throws IOException {
+        ensureCapacity(8).putLong(l);
+        return this;
+    }
+
+    /**
+     * Writes a {@code char} in the buffer. This method may block up to the configured timeout
+     * period if the buffer is already full
+     *
+     * @see AutoFlushedBuffer#putChar(char)
+     */
+    public final SegmentedAutoFlushedBuffer putChar(final char c) throws IOException {
+        ensureCapacity(2).putChar(c);
+        return this;
+    }
+
+    /**
+     * Writes a {@code float} in the buffer. This method may block up to the configured timeout
+     * period if the buffer is already full
+     *
+     * @see AutoFlushedBuffer#putFloat(float)
+     */
+    public final SegmentedAutoFlushedBuffer putFloat(final float f) throws IOException {
+        ensureCapacity(4).putFloat(f);
+        return this;
+    }
+
+    /**
+     * Writes a {@code double} in the buffer. This method may block up to the configured timeout
+     * period if the buffer is already full
+     *
+     * @see AutoFlushedBuffer#putDouble(double)
+     */
+    public final SegmentedAutoFlushedBuffer putDouble(final double d) throws IOException {
+        ensureCapacity(8).putDouble(d);
+        return this;
+    }
+
+    /**
+     * Writes a {@code byte} array in the buffer. This method may block up to the configured timeout
+     * period if the buffer is already full.
+     *
+     * @see AutoFlushedBuffer#put(byte[])
+     */
+    public final SegmentedAutoFlushedBuffer put(final byte[] bytes) throws IOException {
+        return put(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes a part of a {@code byte} array in the buffer, possibly over several segments. This
+     * method may block up to the configured timeout period if the buffer is already full.
+     *
+     * @see AutoFlushedBuffer#put(byte[], int, int)
+     */
+    public final SegmentedAutoFlushedBuffer put(final byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            final ByteBuffer segment = ensureCapacity(1);
+            final int chunkLength = Math.min(length, segment.remaining());
+            segment.put(bytes, offset, chunkLength);
+            length -= chunkLength;
+            offset += chunkLength;
+        }
+        return this;
+    }
+
+    /**
+     * Indicate if the buffer usage has reach the configured threshold.
+     * This method can be called by any thread without any additional synchronization.
+     *
+     * @see AutoFlushedBuffer#shouldOnlyWriteUrgentMessages()
+     */
+    public final boolean shouldOnlyWriteUrgentMessages() {
+        //if there is an exception that is still not notified to the producer, we want it to try to write ASAP so we can notify it
+        return asyncException == null && maxSegmentCount - segmentCount.get() < urgentMessageReservedSegmentCount;
+    }
+
+    /**
+     * Trigger an asynchronous flush of the pending data. This method does not block. If there is
+     * already a flush in progress, the actual flush will occurs on current flush completion.
+     *
+     * @throws IOException
+     *             if already closed or if the flushing logic already reported an issue
+     */
+    public void flush() throws IOException {
+        checkLiveness();
+        final ByteBuffer segment = currentSegment.get();
+        if (segment != null) {
+            if (segment.position() > 0) sealCurrentSegment();
+            else releaseCurrentSegment();
+        }
+        tryStartFlush();
+    }
+
+    /**
+     * Close this buffer and the underlying flushing mechanism. Any further attempt to write or
+     * flush will cause an {@link IOException} to be thrown.
+     * This method can be invoked at any time by any thread, and has no effect if the buffer is
+     * already closed.
+     */
+    @Override
+    public synchronized final void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            LockSupport.unpark(waiterThread);
+            // The producer may still be writing in its current segment, so it is not given back for reuse
+            final ByteBuffer segment = currentSegment.getAndSet(null);
+            if (segment != null) {
+                segmentCount.decrementAndGet();
+                pool.discard(segment);
+            }
+            releaseSealedSegments();
+            closeFlusher();
+        }
+    }
+
+    /**
+     * Tells whether or not this buffer is closed.
+     *
+     * @return <tt>true</tt> if, and only if, this buffer is closed
+     */
+    public final boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return the number of segments currently borrowed by this buffer
+     */
+    public final int getSegmentCount() {
+        return segmentCount.get();
+    }
+
+    /**
+     * Callback that should be called by the flushing logic when it successfully flushed the data.
+     * We expect {@code bufferToFlush.hasRemaining()} to return <tt>false</tt>.
+     *
+     * @see SegmentedAutoFlushedBuffer#doFlush(ByteBuffer)
+     */
+    protected final void onFlushCompletion() {
+        final ByteBuffer segment = flushingSegment;
+        if (segment == null) return;
+        if (segment.hasRemaining()) {
+            //bug in the underlying flush system such as a bad handling of interruptions
+            onFlushFailure(new IOException("flush completed without exception, but flushBuffer still have remaining data"));
+            return;
+        }
+
+        flushingSegment = null;
+        release(segment);
+        flushing.set(false);
+        LockSupport.unpark(waiterThread);
+
+        if (!closed) tryStartFlush();
+    }
+
+    /**
+     * Callback that should be called by the flushing logic did not successfully flushed.
+     * After invoking this method, the buffer is closed and any further try to write or flush the
+     * buffer will cause an {@link IOException} to be thrown
+     *
+     * @see SegmentedAutoFlushedBuffer#doFlush(ByteBuffer)
+     */
+    protected final void onFlushFailure(final Exception ex) {
+        asyncException = ex == null ? new IOException() : ex;
+        // The flushing flag is never reset, so nothing else will be flushed
+        final ByteBuffer segment = flushingSegment;
+        flushingSegment = null;
+        if (segment != null) release(segment);
+        LockSupport.unpark(waiterThread);
+    }
+
+    private void checkLiveness() throws IOException {
+        final Throwable t = asyncException;
+        if (t != null) {
+            releaseCurrentSegment();
+            close();
+            asyncException = null;
+            throw new IOException("Asynchronous flush failed", t);
+        } else if (isClosed()) {
+            releaseCurrentSegment();
+            // A segment sealed while closing
+            releaseSealedSegments();
+            throw new IOException("Already closed");
+        }
+    }
+
+    // returns a segment with at least length bytes available, length must not be greater than the segment size
+    private ByteBuffer ensureCapacity(final int length) throws IOException {
+        if (Thread.interrupted()) {
+            throw new InterruptedIOException();
+        }
+        checkLiveness();
+
+        ByteBuffer segment = currentSegment.get();
+        if (segment == null || segment.remaining() < length) {
+            if (segment != null) {
+                //auto-flush of the full segment
+                sealCurrentSegment();
+                tryStartFlush();
+            }
+            waitForSegment();
+            segment = pool.borrow();
+            currentSegment.set(segment);
+            //a concurrent close has not seen the new segment, it is released by the producer
+            if (closed) checkLiveness();
+        }
+        return segment;
+    }
+
+    private void sealCurrentSegment() {
+        final ByteBuffer segment = currentSegment.getAndSet(null);
+        if (segment != null) {
+            segment.flip();
+            sealedSegments.offer(segment);
+        }
+    }
+
+    private void releaseCurrentSegment() {
+        final ByteBuffer segment = currentSegment.getAndSet(null);
+        if (segment != null) release(segment);
+    }
+
+    private void releaseSealedSegments() {
+        ByteBuffer segment;
+        while ((segment = sealedSegments.poll()) != null) {
+            release(segment);
+        }
+    }
+
+    // reserve a segment, waiting for the flushing logic if the buffer already holds its maximum size
+    private void waitForSegment() throws IOException {
+        if (tryReserveSegment()) return;
+
+        final long initialNanos = System.nanoTime();
+        waiterThread = Thread.currentThread();
+        try {
+            while (!tryReserveSegment()) {
+                checkLiveness();
+                final long remainingNanos = initialNanos + timeoutNanos - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    close();
+                    throw new IOException("Timeout: flushing mechanism didn't succeed to catchup in the required "
+                            + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms time budget");
+                }
+                LockSupport.parkNanos(remainingNanos);
+                if (Thread.interrupted()) {
+                    close();
+                    throw new InterruptedIOException();
+                }
+            }
+        } finally {
+            waiterThread = null;
+        }
+    }
+
+    private boolean tryReserveSegment() {
+        int count;
+        do {
+            count = segmentCount.get();
+            if (count >= maxSegmentCount) return false;
+        } while (!segmentCount.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    private void release(final ByteBuffer segment) {
+        segmentCount.decrementAndGet();
+        pool.release(segment);
+    }
+
+    //called by producer or flushing thread to trigger a new flush if there is no flush in progress
+    private void tryStartFlush() {
+        while (!sealedSegments.isEmpty() && flushing.compareAndSet(false, true)) {
+            final ByteBuffer segment = sealedSegments.poll();
+            if (segment != null) {
+                flushingSegment = segment;
+                doFlush(segment);
+                return;
+            }
+            //the segment has been released by a concurrent close
+            flushing.set(false);
+        }
+    }
+
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2011 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *  Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *  Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.concurrent;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashed timing wheel : the timeouts are stored in a circular array of buckets, each bucket
+ * covering one tick. A timeout further than one turn of the wheel keeps the number of remaining
+ * rounds before its expiration.<br>
+ * Adding or cancelling a timeout is O(1) and never blocks, the buckets are only handled by the
+ * worker thread of the wheel. The expired tasks are run by the given executor, so a long task
+ * does not delay the next ticks. An optional listener is called by the worker thread once all the
+ * timeouts of a tick have expired.
+ */
+final class TimingWheel {
+
+    private static final Logger log = LoggerFactory.getLogger(TimingWheel.class);
+
+    private static final int MAX_TRANSFERRED_TIMEOUTS_BY_TICK = 100_000;
+
+    private final Executor executor;
+    private final Runnable tickListener;
+    private final long tickNanos;
+    private final Bucket[] buckets;
+    private final int mask;
+    private final long startTime;
+
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+    // Only accessed by the worker thread
+    private long tick;
+
+    TimingWheel(final ThreadFactory threadFactory, final Executor executor, final long tickDuration, final TimeUnit unit,
+            final int wheelSize) {
+        this(threadFactory, executor, tickDuration, unit, wheelSize, null);
+    }
+
+    TimingWheel(final ThreadFactory threadFactory, final Executor executor, final long tickDuration, final TimeUnit unit,
+            final int wheelSize, final Runnable tickListener) {
+        if (tickDuration <= 0) throw new IllegalArgumentException("Tick duration must be positive : " + tickDuration);
+        if (wheelSize <= 0) throw new IllegalArgumentException("Wheel size must be positive : " + wheelSize);
+        this.executor = executor;
+        this.tickListener = tickListener;
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.buckets = new Bucket[size];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.mask = buckets.length - 1;
+        this.startTime = System.nanoTime();
+
+        final Thread worker = threadFactory.newThread(this::work);
+        worker.start();
+    }
+
+    /**
+     * Schedules a task
+     *
+     * @param task the task, run by the executor of the wheel
+     * @param deadline the expiration time, in the {@link System#nanoTime()} referential
+     * @return the timeout, to be able to cancel the task
+     */
+    Timeout newTimeout(final Runnable task, final long deadline) {
+        final Timeout timeout = new Timeout(this, task, deadline);
+        pendingTimeouts.offer(timeout);
+        return timeout;
+    }
+
+    private void work() {
+        while (true) {
+            try {
+                waitForNextTick();
+                transferPendingTimeouts();
+                removeCancelledTimeouts();
+                buckets[(int) (tick & mask)].expire();
+                tick++;
+                if (tickListener != null) tickListener.run();
+            } catch (final Throwable e) {
+                log.error("Error in the timing wheel", e);
+            }
+        }
+    }
+
+    private void waitForNextTick() {
+        final long tickDeadline = startTime + tickNanos * (tick + 1);
+        while (true) {
+            final long currentTime = System.nanoTime();
+            final long sleepMillis = TimeUnit.NANOSECONDS.toMillis(tickDeadline - currentTime + 999_999);
+            if (sleepMillis <= 0) return;
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (final InterruptedException e) {
+                // The worker never stops, the wheel lives as long as the application
+            }
+        }
+    }
+
+    private void transferPendingTimeouts() {
+        Timeout timeout;
+        for (int i = 0; i < MAX_TRANSFERRED_TIMEOUTS_BY_TICK && (timeout = pendingTimeouts.poll()) != null; i++) {
+            if (timeout.isCancelled()) continue;
+            final long expirationTick = Math.max(0, timeout.deadline - startTime) / tickNanos;
+            timeout.remainingRounds = (expirationTick - tick) / buckets.length;
+            // An already expired timeout is run on the current tick
+            buckets[(int) (Math.max(expirationTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelledTimeouts() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) timeout.bucket.remove(timeout);
+        }
+    }
+
+    private void execute(final Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (final RejectedExecutionException e) {
+            log.error("Cannot run the expired task {}", task, e);
+        }
+    }
+
+    static final class Timeout {
+
+        private static final int INIT = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(INIT);
+
+        // Only accessed by the worker thread
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(final TimingWheel wheel, final Runnable task, final long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the task if it has not been run yet
+         *
+         * @return true if the task has been cancelled by this call
+         */
+        boolean cancel() {
+            if (!state.compareAndSet(INIT, CANCELLED)) return false;
+            wheel.cancelledTimeouts.offer(this);
+            return true;
+        }
+
+        boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        private void expire() {
+            if (state.compareAndSet(INIT, EXPIRED)) wheel.execute(task);
+        }
+
+    }
+
+    /**
+     * Doubly linked list of the timeouts of a tick, to remove a cancelled timeout in O(1)
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(final Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        private void remove(final Timeout timeout) {
+            if (timeout.previous != null) timeout.previous.next = timeout.next;
+            else head = timeout.next;
+            if (timeout.next != null) timeout.next.previous = timeout.previous;
+            else tail = timeout.previous;
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        private void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                final Timeout next = timeout.next;
+                if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+    }
+
+}
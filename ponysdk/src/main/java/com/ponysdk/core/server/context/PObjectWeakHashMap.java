@@ -26,11 +26,11 @@ package com.ponysdk.core.server.context;
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,60 +41,86 @@ import com.ponysdk.core.ui.basic.PObject;
 import com.ponysdk.core.ui.basic.PWindow;
 import com.ponysdk.core.writer.ModelWriter;
 
+/**
+ * Weak registry of the {@link PObject} of an UIContext, by object ID.<br>
+ * The objects are stored in a single open-addressing table (linear probing) of
+ * {@link WeakReference} which also carry the window and frame IDs needed to notify the terminal
+ * when an object has been garbage collected.<br>
+ * Lookups never drain the collected references : the drain is amortized on
+ * {@link #put(int, PObject)} and completed by {@link #expungeStaleEntries()}. The collected objects
+ * of a same window and frame are notified to the terminal with a single instruction.<br>
+ * This class is not thread safe : every access, lookups included, must be done under the UIContext
+ * lock, since a concurrent resize or deletion moves the entries of the table.
+ */
 public class PObjectWeakHashMap implements Map<Integer, PObject> {
 
     private static final Logger log = LoggerFactory.getLogger(PObjectWeakHashMap.class);
 
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final int DRAIN_BATCH_SIZE = 32;
+    private static final int NO_FRAME = -1;
+
     private final ReferenceQueue<PObject> queue = new ReferenceQueue<>();
-    private final Map<Integer, WeakReference<PObject>> referenceByObjectID = new ConcurrentHashMap<>();
-    private final Map<Integer, Integer> windowIDbyObjectID = new ConcurrentHashMap<>();
-    private final Map<Integer, Integer> frameIDbyObjectID = new ConcurrentHashMap<>();
-    private final Map<WeakReference<PObject>, Integer> objectIDByReferences = new ConcurrentHashMap<>();
+
+    private PObjectReference[] table = new PObjectReference[DEFAULT_CAPACITY];
+    private int size;
 
     @Override
     public int size() {
-        expungeStaleEntries();
-        return referenceByObjectID.size();
+        return size;
     }
 
     @Override
     public boolean isEmpty() {
-        expungeStaleEntries();
-        return referenceByObjectID.isEmpty();
+        return size == 0;
     }
 
     @Override
     public boolean containsKey(final Object key) {
-        expungeStaleEntries();
-        return referenceByObjectID.containsKey(key);
+        return key instanceof Integer && indexOf((Integer) key) != -1;
     }
 
     @Override
     public boolean containsValue(final Object value) {
-        expungeStaleEntries();
-        return referenceByObjectID.containsValue(new WeakReference<>(value));
+        if (value == null) return false;
+        for (final PObjectReference reference : table) {
+            if (reference != null && reference.get() == value) return true;
+        }
+        return false;
     }
 
     @Override
     public PObject get(final Object key) {
-        expungeStaleEntries();
-        final Reference<PObject> value = referenceByObjectID.get(key);
-        if (value == null) return null;
-        return value.get();
+        return key instanceof Integer ? get(((Integer) key).intValue()) : null;
+    }
+
+    public PObject get(final int objectID) {
+        final int index = indexOf(objectID);
+        return index != -1 ? table[index].get() : null;
     }
 
     @Override
     public PObject put(final Integer objectID, final PObject value) {
-        expungeStaleEntries();
-        final WeakReference<PObject> weakReference = new WeakReference<>(value, queue);
-        referenceByObjectID.put(objectID, weakReference);
-        windowIDbyObjectID.put(objectID, value.getWindow().getID());
+        return put(objectID.intValue(), value);
+    }
 
-        if (value.getFrame() != null) {
-            frameIDbyObjectID.put(objectID, value.getFrame().getID());
-        }
+    public PObject put(final int objectID, final PObject value) {
+        expungeStaleEntries(DRAIN_BATCH_SIZE);
 
-        objectIDByReferences.put(weakReference, objectID);
+        final PObjectReference reference = new PObjectReference(value, queue, objectID);
+        final int mask = table.length - 1;
+        int index = indexFor(objectID, mask);
+        PObjectReference current;
+        while ((current = table[index]) != null) {
+            if (current.objectID == objectID) {
+                current.clear();
+                table[index] = reference;
+                return value;
+            }
+            index = index + 1 & mask;
+        }
+        table[index] = reference;
+        if (++size > table.length >> 1) resize(table.length << 1);
 
         if (log.isDebugEnabled()) log.debug("Registering object: {}", value);
 
@@ -103,15 +129,23 @@ public class PObjectWeakHashMap implements Map<Integer, PObject> {
 
     @Override
     public PObject remove(final Object key) {
-        expungeStaleEntries();
-        final Reference<PObject> reference = referenceByObjectID.remove(key);
+        if (!(key instanceof Integer)) return null;
+        return remove(((Integer) key).intValue());
+    }
 
-        if (log.isDebugEnabled()) log.debug("Removing reference on object #{}", key);
-        if (reference == null) return null;
+    public PObject remove(final int objectID) {
+        final int index = indexOf(objectID);
 
-        objectIDByReferences.remove(reference);
+        if (log.isDebugEnabled()) log.debug("Removing reference on object #{}", objectID);
+        if (index == -1) return null;
 
-        return reference.get();
+        final PObjectReference reference = table[index];
+        delete(index);
+        shrinkIfNeeded();
+        final PObject value = reference.get();
+        // A cleared reference is never enqueued, so no GC instruction will be sent for it
+        reference.clear();
+        return value;
     }
 
     @Override
@@ -142,22 +176,136 @@ public class PObjectWeakHashMap implements Map<Integer, PObject> {
         return null;
     }
 
-    private void expungeStaleEntries() {
-        Reference<? extends PObject> reference;
-        while ((reference = queue.poll()) != null) {
-            final Integer objectID = objectIDByReferences.remove(reference);
-            final Integer windowID = windowIDbyObjectID.remove(objectID);
-            final Integer frameID = frameIDbyObjectID.remove(objectID);
-            referenceByObjectID.remove(objectID);
-            if (log.isDebugEnabled()) log.debug("Removing reference on object #{}", objectID);
+    /**
+     * Removes all the garbage collected objects and notifies the terminal
+     */
+    public void expungeStaleEntries() {
+        expungeStaleEntries(Integer.MAX_VALUE);
+    }
+
+    private void expungeStaleEntries(final int maxEntries) {
+        // Collected objects are grouped by window and frame, to send one instruction by group
+        Map<Long, GCBatch> batches = null;
+        Reference<? extends PObject> polled;
+        for (int i = 0; i < maxEntries && (polled = queue.poll()) != null; i++) {
+            final PObjectReference reference = (PObjectReference) polled;
+            final int index = indexOf(reference.objectID);
+            // The object ID may have been removed or registered again in the meantime
+            if (index == -1 || table[index] != reference) continue;
+            delete(index);
+
+            if (log.isDebugEnabled()) log.debug("Removing reference on object #{}", reference.objectID);
+
+            if (batches == null) batches = new LinkedHashMap<>();
+            final Long batchKey = (long) reference.windowID << 32 | reference.frameID & 0xFFFFFFFFL;
+            GCBatch batch = batches.get(batchKey);
+            if (batch == null) {
+                batch = new GCBatch(reference.windowID, reference.frameID);
+                batches.put(batchKey, batch);
+            }
+            batch.add(reference.objectID);
+        }
+        shrinkIfNeeded();
 
-            final ModelWriter writer = Txn.get().getWriter();
+        if (batches == null) return;
+        final ModelWriter writer = Txn.get().getWriter();
+        final int mainWindowID = PWindow.getMain().getID();
+        for (final GCBatch batch : batches.values()) {
             writer.beginObject();
-            if (windowID != PWindow.getMain().getID()) writer.write(ServerToClientModel.WINDOW_ID, windowID);
-            if (frameID != null) writer.write(ServerToClientModel.FRAME_ID, frameID);
-            writer.write(ServerToClientModel.TYPE_GC, objectID);
+            if (batch.windowID != mainWindowID) writer.write(ServerToClientModel.WINDOW_ID, batch.windowID);
+            if (batch.frameID != NO_FRAME) writer.write(ServerToClientModel.FRAME_ID, batch.frameID);
+            if (batch.size == 1) writer.write(ServerToClientModel.TYPE_GC, batch.objectIDs[0]);
+            else writer.write(ServerToClientModel.TYPE_GC_BATCH, Arrays.copyOf(batch.objectIDs, batch.size));
             writer.endObject();
         }
     }
 
+    private int indexOf(final int objectID) {
+        final int mask = table.length - 1;
+        int index = indexFor(objectID, mask);
+        PObjectReference reference;
+        while ((reference = table[index]) != null) {
+            if (reference.objectID == objectID) return index;
+            index = index + 1 & mask;
+        }
+        return -1;
+    }
+
+    // Backward shift deletion : keep the probe sequences without tombstones
+    private void delete(final int index) {
+        final int mask = table.length - 1;
+        int hole = index;
+        table[hole] = null;
+        int i = hole + 1 & mask;
+        PObjectReference reference;
+        while ((reference = table[i]) != null) {
+            final int ideal = indexFor(reference.objectID, mask);
+            if ((i - ideal & mask) >= (i - hole & mask)) {
+                table[hole] = reference;
+                table[i] = null;
+                hole = i;
+            }
+            i = i + 1 & mask;
+        }
+        size--;
+    }
+
+    private void shrinkIfNeeded() {
+        if (table.length > DEFAULT_CAPACITY && size < table.length >> 3) resize(table.length >> 1);
+    }
+
+    private void resize(final int capacity) {
+        final PObjectReference[] oldTable = table;
+        final int mask = capacity - 1;
+        table = new PObjectReference[capacity];
+        for (final PObjectReference reference : oldTable) {
+            if (reference == null) continue;
+            int index = indexFor(reference.objectID, mask);
+            while (table[index] != null) {
+                index = index + 1 & mask;
+            }
+            table[index] = reference;
+        }
+    }
+
+    private static int indexFor(final int objectID, final int mask) {
+        // Object IDs are sequential, spread them to avoid long probe sequences
+        final int hash = objectID * 0x9E3779B9;
+        return (hash ^ hash >>> 16) & mask;
+    }
+
+    private static final class GCBatch {
+
+        private final int windowID;
+        private final int frameID;
+        private int[] objectIDs = new int[8];
+        private int size;
+
+        private GCBatch(final int windowID, final int frameID) {
+            this.windowID = windowID;
+            this.frameID = frameID;
+        }
+
+        private void add(final int objectID) {
+            if (size == objectIDs.length) objectIDs = Arrays.copyOf(objectIDs, size << 1);
+            objectIDs[size++] = objectID;
+        }
+
+    }
+
+    private static final class PObjectReference extends WeakReference<PObject> {
+
+        private final int objectID;
+        private final int windowID;
+        private final int frameID;
+
+        private PObjectReference(final PObject referent, final ReferenceQueue<PObject> queue, final int objectID) {
+            super(referent, queue);
+            this.objectID = objectID;
+            this.windowID = referent.getWindow().getID();
+            this.frameID = referent.getFrame() != null ? referent.getFrame().getID() : NO_FRAME;
+        }
+
+    }
+
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.context;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.ponysdk.core.server.application.UIContext;
+
+/**
+ * JVM-wide index of the live {@link UIContext}, by UIContext ID.<br>
+ * The UIContexts are stored in a single open-addressing table (linear probing) keyed by their
+ * primitive ID, so there is no boxing. The lookups and the count never lock : they read a
+ * published table, whereas the registrations are serialized and publish a new table when it grows.
+ * A removed UIContext leaves a tombstone, so the probe sequences of the other ones stay intact;
+ * the tombstones are purged when the table is rebuilt.
+ */
+public final class UIContextIndex {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final Object TOMBSTONE = new Object();
+
+    private volatile AtomicReferenceArray<Object> table = new AtomicReferenceArray<>(DEFAULT_CAPACITY);
+    private volatile int size;
+    // Guarded by this
+    private int tombstones;
+
+    /**
+     * Gets a live UIContext
+     *
+     * @param uiContextID the UIContext ID
+     * @return the UIContext, or null if not registered
+     */
+    public UIContext get(final int uiContextID) {
+        final AtomicReferenceArray<Object> table = this.table;
+        final int mask = table.length() - 1;
+        for (int i = indexFor(uiContextID, mask);; i = i + 1 & mask) {
+            final Object slot = table.get(i);
+            if (slot == null) return null;
+            if (slot != TOMBSTONE && ((UIContext) slot).getID() == uiContextID) return (UIContext) slot;
+        }
+    }
+
+    /**
+     * @return the number of live UIContexts
+     */
+    public int size() {
+        return size;
+    }
+
+    public synchronized void put(final UIContext uiContext) {
+        AtomicReferenceArray<Object> table = this.table;
+        if (indexOf(table, uiContext.getID()) != -1) return;
+        // At most half full, tombstones included, so a probe always ends on an empty slot
+        if (size + tombstones + 1 > table.length() >> 1) {
+            rebuild();
+            table = this.table;
+        }
+        final int mask = table.length() - 1;
+        for (int i = indexFor(uiContext.getID(), mask);; i = i + 1 & mask) {
+            final Object slot = table.get(i);
+            if (slot == null || slot == TOMBSTONE) {
+                if (slot == TOMBSTONE) tombstones--;
+                table.set(i, uiContext);
+                size++;
+                return;
+            }
+        }
+    }
+
+    public synchronized void remove(final int uiContextID) {
+        final int index = indexOf(table, uiContextID);
+        if (index == -1) return;
+        table.set(index, TOMBSTONE);
+        tombstones++;
+        size--;
+    }
+
+    private static int indexOf(final AtomicReferenceArray<Object> table, final int uiContextID) {
+        final int mask = table.length() - 1;
+        for (int i = indexFor(uiContextID, mask);; i = i + 1 & mask) {
+            final Object slot = table.get(i);
+            if (slot == null) return -1;
+            if (slot != TOMBSTONE && ((UIContext) slot).getID() == uiContextID) return i;
+        }
+    }
+
+    /**
+     * Copies the live UIContexts in a new table, doubled if they fill more than a quarter of the
+     * current one. The readers of the previous table are not disturbed, it is not modified anymore.
+     */
+    private void rebuild() {
+        final AtomicReferenceArray<Object> oldTable = table;
+        final int capacity = size + 1 > oldTable.length() >> 2 ? oldTable.length() << 1 : oldTable.length();
+        final AtomicReferenceArray<Object> newTable = new AtomicReferenceArray<>(capacity);
+        final int mask = capacity - 1;
+        for (int i = 0; i < oldTable.length(); i++) {
+            final Object slot = oldTable.get(i);
+            if (slot == null || slot == TOMBSTONE) continue;
+            int index = indexFor(((UIContext) slot).getID(), mask);
+            while (newTable.get(index) != null) {
+                index = index + 1 & mask;
+            }
+            newTable.set(index, slot);
+        }
+        tombstones = 0;
+        table = newTable;
+    }
+
+    private static int indexFor(final int uiContextID, final int mask) {
+        // UIContext IDs are sequential, spread them to avoid long probe sequences
+        final int hash = uiContextID * 0x9E3779B9;
+        return (hash ^ hash >>> 16) & mask;
+    }
+
+}
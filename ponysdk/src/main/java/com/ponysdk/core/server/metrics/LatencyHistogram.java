@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * A histogram of durations in nanoseconds, with a bucket per power of two.<br>
+ * Recording never locks, the percentiles are the upper bound of their bucket so
+ * they are accurate within a factor of two.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKET_COUNT = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(final long nanos) {
+        final long value = Math.max(0, nanos);
+        // The bucket i holds the values from 2^i to 2^(i+1) - 1
+        buckets.incrementAndGet(value == 0 ? 0 : 63 - Long.numberOfLeadingZeros(value));
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Gets an upper bound of a percentile
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the duration in nanoseconds, 0 if nothing has been recorded
+     */
+    public long getPercentile(final double percentile) {
+        final long count = getCount();
+        if (count == 0) return 0;
+        final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        final long max = getMax();
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT - 1; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) return Math.min((1L << (i + 1)) - 1, max);
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + ", p50=" + toMicros(getPercentile(50)) + "us, p99=" + toMicros(getPercentile(99))
+                + "us, max=" + toMicros(getMax()) + "us";
+    }
+
+    private static long toMicros(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A hold of the lock of an UIContext longer than the threshold of its {@link LockProfiler}
+ */
+public final class LockHoldEvent {
+
+    private final int uiContextID;
+    private final String threadName;
+    private final String callSite;
+    private final String origin;
+    private final long waitNanos;
+    private final long holdNanos;
+    private final long time;
+
+    LockHoldEvent(final int uiContextID, final String threadName, final String callSite, final String origin, final long waitNanos,
+                  final long holdNanos) {
+        this.uiContextID = uiContextID;
+        this.threadName = threadName;
+        this.callSite = callSite;
+        this.origin = origin;
+        this.waitNanos = waitNanos;
+        this.holdNanos = holdNanos;
+        this.time = System.currentTimeMillis();
+    }
+
+    public int getUIContextID() {
+        return uiContextID;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    /**
+     * @return the method which has locked the UIContext, such as {@code AjaxServlet.process:50}
+     */
+    public String getCallSite() {
+        return callSite;
+    }
+
+    /**
+     * @return the class of the runnable given to {@link com.ponysdk.core.server.application.UIContext#execute(Runnable)},
+     *         null if the UIContext has been locked directly
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    public long getWaitNanos() {
+        return waitNanos;
+    }
+
+    public long getHoldNanos() {
+        return holdNanos;
+    }
+
+    /**
+     * @return the time of the release, in milliseconds since the epoch
+     */
+    public long getTime() {
+        return time;
+    }
+
+    @Override
+    public String toString() {
+        return "UIContext #" + uiContextID + " locked for " + TimeUnit.NANOSECONDS.toMillis(holdNanos) + " ms by " + threadName
+                + " at " + callSite + (origin != null ? " running " + origin : "") + " (waited "
+                + TimeUnit.NANOSECONDS.toMillis(waitNanos) + " ms)";
+    }
+
+}
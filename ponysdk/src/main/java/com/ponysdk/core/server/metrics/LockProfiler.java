@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.metrics;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ponysdk.core.server.application.UIContext;
+
+/**
+ * Profiles the lock of an UIContext : the wait and hold time histograms, the current holder, and
+ * the holds longer than a threshold, reported with their thread, call site and runnable.<br>
+ * Only created when {@link com.ponysdk.core.server.application.ApplicationConfiguration#setLockProfiling(boolean)}
+ * is enabled. The call site is only resolved for the long holds, once released, from the frame which
+ * has locked the UIContext.
+ */
+public final class LockProfiler {
+
+    private static final Logger log = LoggerFactory.getLogger(LockProfiler.class);
+
+    private static final int MAX_LONG_HOLDS = 16;
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    private final int uiContextID;
+    private final ReentrantLock lock;
+    private final long thresholdNanos;
+
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    private final LatencyHistogram holdTimes = new LatencyHistogram();
+    private final Deque<LockHoldEvent> longHolds = new ConcurrentLinkedDeque<>();
+
+    // Written by the holder, read by the monitoring threads
+    private volatile Thread holder;
+    private volatile Object holderOrigin;
+    private volatile long acquiredTime;
+    private long holderWaitNanos;
+
+    public LockProfiler(final int uiContextID, final ReentrantLock lock, final long thresholdNanos) {
+        this.uiContextID = uiContextID;
+        this.lock = lock;
+        this.thresholdNanos = thresholdNanos;
+    }
+
+    /**
+     * Locks the UIContext
+     *
+     * @param origin the runnable which will be executed, or null
+     * @return the time spent waiting for the lock, in nanoseconds
+     */
+    public long lock(final Object origin) {
+        final long start = System.nanoTime();
+        if (!lock.tryLock()) lock.lock();
+        final long now = System.nanoTime();
+        final long waitNanos = now - start;
+        onLocked(origin, waitNanos, now);
+        return waitNanos;
+    }
+
+    /**
+     * Locks the UIContext only if it is not held by another thread
+     *
+     * @param origin the runnable which will be executed, or null
+     * @return true if the UIContext has been locked
+     */
+    public boolean tryLock(final Object origin) {
+        if (!lock.tryLock()) return false;
+        onLocked(origin, 0, System.nanoTime());
+        return true;
+    }
+
+    private void onLocked(final Object origin, final long waitNanos, final long now) {
+        waitTimes.record(waitNanos);
+        if (lock.getHoldCount() == 1) {
+            holderOrigin = origin;
+            holderWaitNanos = waitNanos;
+            acquiredTime = now;
+            holder = Thread.currentThread();
+        }
+    }
+
+    /**
+     * Unlocks the UIContext, and reports the hold if it has exceeded the threshold
+     */
+    public void unlock() {
+        boolean longHold = false;
+        long longHoldNanos = 0;
+        long longHoldWaitNanos = 0;
+        Object longHoldOrigin = null;
+        if (lock.getHoldCount() == 1) {
+            final long holdNanos = System.nanoTime() - acquiredTime;
+            holdTimes.record(holdNanos);
+            final Object origin = holderOrigin;
+            holder = null;
+            holderOrigin = null;
+            if (holdNanos >= thresholdNanos) {
+                longHold = true;
+                longHoldNanos = holdNanos;
+                longHoldWaitNanos = holderWaitNanos;
+                longHoldOrigin = origin;
+            }
+        }
+        lock.unlock();
+        // Reported once unlocked, the stack walk and the log don't lengthen the hold. The caller frames are unchanged
+        if (longHold) onLongHold(longHoldOrigin, longHoldWaitNanos, longHoldNanos);
+    }
+
+    private void onLongHold(final Object origin, final long waitNanos, final long holdNanos) {
+        final LockHoldEvent event = new LockHoldEvent(uiContextID, Thread.currentThread().getName(), findCallSite(),
+            origin != null ? getOriginName(origin) : null, waitNanos, holdNanos);
+        log.warn("{}", event);
+        longHolds.addFirst(event);
+        while (longHolds.size() > MAX_LONG_HOLDS) {
+            longHolds.pollLast();
+        }
+    }
+
+    private static String findCallSite() {
+        return STACK_WALKER.walk(frames -> frames
+            .filter(frame -> frame.getDeclaringClass() != LockProfiler.class && frame.getDeclaringClass() != UIContext.class)
+            .findFirst().map(frame -> frame.getClassName() + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+            .orElse("unknown"));
+    }
+
+    private static String getOriginName(final Object origin) {
+        final String name = origin.getClass().getName();
+        final int lambdaIndex = name.indexOf("$$Lambda$");
+        return lambdaIndex != -1 ? name.substring(0, lambdaIndex) + " (lambda)" : name;
+    }
+
+    public int getUIContextID() {
+        return uiContextID;
+    }
+
+    public long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    public LatencyHistogram getHoldTimes() {
+        return holdTimes;
+    }
+
+    /**
+     * @return the thread holding the lock, or null
+     */
+    public Thread getHolder() {
+        return holder;
+    }
+
+    /**
+     * @return the time since the current holder has locked the UIContext, 0 if not locked
+     */
+    public long getCurrentHoldNanos() {
+        return holder != null ? System.nanoTime() - acquiredTime : 0;
+    }
+
+    /**
+     * Describes the current hold if it has already exceeded the threshold, with the stack of the
+     * holder, to find out where an UIContext is stuck
+     *
+     * @return the description, or null if the UIContext is not locked for too long
+     */
+    public String describeCurrentHold() {
+        final Thread thread = holder;
+        final Object origin = holderOrigin;
+        final long holdNanos = getCurrentHoldNanos();
+        if (thread == null || holdNanos < thresholdNanos) return null;
+        final StringBuilder description = new StringBuilder("UIContext #").append(uiContextID).append(" locked for ")
+            .append(TimeUnit.NANOSECONDS.toMillis(holdNanos)).append(" ms by ").append(thread.getName());
+        if (origin != null) description.append(" running ").append(getOriginName(origin));
+        for (final StackTraceElement element : thread.getStackTrace()) {
+            description.append("\n\tat ").append(element);
+        }
+        return description.toString();
+    }
+
+    /**
+     * @return the last holds longer than the threshold, the newest first
+     */
+    public List<LockHoldEvent> getLongHolds() {
+        return new ArrayList<>(longHolds);
+    }
+
+    @Override
+    public String toString() {
+        return "UIContext #" + uiContextID + " lock wait [" + waitTimes + "], hold [" + holdTimes + "]";
+    }
+
+}
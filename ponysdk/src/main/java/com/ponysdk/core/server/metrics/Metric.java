@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.metrics;
+
+/**
+ * The metrics tracked for each UIContext.<br>
+ * The counters and the gauges are summed when aggregated over several UIContexts, whereas the
+ * maximums and the high-water marks keep the worst value.
+ *
+ * @see UIContextMetrics
+ * @see MetricsSnapshot
+ */
+public enum Metric {
+
+    BYTES_SENT("bytesSent", Aggregation.SUM),
+    FRAMES_SENT("framesSent", Aggregation.SUM),
+    BYTES_RECEIVED("bytesReceived", Aggregation.SUM),
+    FRAMES_RECEIVED("framesReceived", Aggregation.SUM),
+    FLUSH_COUNT("flushCount", Aggregation.SUM),
+    FLUSH_LATENCY_NANOS("flushLatencyNanos", Aggregation.SUM),
+    MAX_FLUSH_LATENCY_NANOS("maxFlushLatencyNanos", Aggregation.MAX),
+    BUFFER_HIGH_WATER_MARK("bufferHighWaterMark", Aggregation.MAX),
+    LOCK_WAIT_NANOS("lockWaitNanos", Aggregation.SUM),
+    MAX_LOCK_WAIT_NANOS("maxLockWaitNanos", Aggregation.MAX),
+    EXECUTE_COUNT("executeCount", Aggregation.SUM),
+    EXECUTE_NANOS("executeNanos", Aggregation.SUM),
+    MAX_EXECUTE_NANOS("maxExecuteNanos", Aggregation.MAX),
+    ROUND_TRIP_MILLIS("roundTripMillis", Aggregation.MAX),
+    LIVE_OBJECTS("liveObjects", Aggregation.SUM),
+    SCHEDULED_TASKS("scheduledTasks", Aggregation.SUM);
+
+    enum Aggregation {
+        SUM,
+        MAX
+    }
+
+    private static final Metric[] VALUES = values();
+
+    private final String key;
+    private final Aggregation aggregation;
+
+    Metric(final String key, final Aggregation aggregation) {
+        this.key = key;
+        this.aggregation = aggregation;
+    }
+
+    /**
+     * @return the name of the metric, as exposed by JMX and by the metrics endpoint
+     */
+    public String getKey() {
+        return key;
+    }
+
+    long aggregate(final long value1, final long value2) {
+        return aggregation == Aggregation.SUM ? value1 + value2 : Math.max(value1, value2);
+    }
+
+    /**
+     * Gets a metric from its key
+     *
+     * @param key the key, such as {@code bytesSent}
+     * @return the metric
+     * @throws IllegalArgumentException if no metric has this key
+     */
+    public static Metric fromKey(final String key) {
+        for (final Metric metric : VALUES) {
+            if (metric.key.equals(key)) return metric;
+        }
+        throw new IllegalArgumentException("Unknown metric : " + key);
+    }
+
+    static Metric[] all() {
+        return VALUES;
+    }
+
+}
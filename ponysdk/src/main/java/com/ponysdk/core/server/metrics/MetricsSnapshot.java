@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.metrics;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable view of the {@link Metric}s of an UIContext, or of an aggregate of several
+ * UIContexts
+ */
+public final class MetricsSnapshot {
+
+    /**
+     * The UIContext ID of an aggregate
+     */
+    public static final int AGGREGATE_ID = -1;
+
+    private final int uiContextID;
+    private final long[] values;
+
+    MetricsSnapshot(final int uiContextID, final long[] values) {
+        this.uiContextID = uiContextID;
+        this.values = values;
+    }
+
+    /**
+     * Aggregates several snapshots
+     *
+     * @param snapshots the snapshots
+     * @return the aggregate, with {@link #AGGREGATE_ID} as UIContext ID
+     */
+    public static MetricsSnapshot aggregate(final Collection<MetricsSnapshot> snapshots) {
+        final Metric[] metrics = Metric.all();
+        final long[] values = new long[metrics.length];
+        for (final MetricsSnapshot snapshot : snapshots) {
+            for (final Metric metric : metrics) {
+                values[metric.ordinal()] = metric.aggregate(values[metric.ordinal()], snapshot.values[metric.ordinal()]);
+            }
+        }
+        return new MetricsSnapshot(AGGREGATE_ID, values);
+    }
+
+    /**
+     * Selects the snapshots with the highest values of a metric
+     *
+     * @param snapshots the snapshots
+     * @param metric the metric to sort by
+     * @param count the maximum number of snapshots
+     * @return the snapshots, the highest value first
+     */
+    public static List<MetricsSnapshot> top(final Collection<MetricsSnapshot> snapshots, final Metric metric, final int count) {
+        return snapshots.stream()
+            .sorted(Comparator.comparingLong((final MetricsSnapshot snapshot) -> snapshot.get(metric)).reversed())
+            .limit(count).collect(Collectors.toList());
+    }
+
+    public int getUIContextID() {
+        return uiContextID;
+    }
+
+    public long get(final Metric metric) {
+        return values[metric.ordinal()];
+    }
+
+    /**
+     * @return the values by metric key, in the {@link Metric} order
+     */
+    public Map<String, Long> toMap() {
+        final Map<String, Long> map = new LinkedHashMap<>();
+        for (final Metric metric : Metric.all()) {
+            map.put(metric.getKey(), values[metric.ordinal()]);
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsSnapshot [uiContextID=" + uiContextID + ", " + toMap() + "]";
+    }
+
+}
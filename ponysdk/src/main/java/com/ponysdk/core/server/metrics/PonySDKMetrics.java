@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.ponysdk.core.server.application.UIContext;
+import com.ponysdk.core.server.servlet.SessionManager;
+
+class PonySDKMetrics implements PonySDKMetricsMXBean {
+
+    @Override
+    public int getUIContextCount() {
+        return SessionManager.get().countUIContexts();
+    }
+
+    @Override
+    public Map<String, Long> getMetrics() {
+        return ServerMetrics.snapshot().toMap();
+    }
+
+    @Override
+    public List<Map<String, Long>> top(final String metric, final int count) {
+        return ServerMetrics.top(Metric.fromKey(metric), count).stream().map(snapshot -> {
+            final Map<String, Long> map = new LinkedHashMap<>();
+            map.put("uiContextID", (long) snapshot.getUIContextID());
+            map.putAll(snapshot.toMap());
+            return map;
+        }).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<String> getLongLockHolds() {
+        return ServerMetrics.getLongLockHolds().stream().map(LockHoldEvent::toString).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<String> getCurrentLongLockHolds() {
+        return ServerMetrics.getCurrentLongLockHolds();
+    }
+
+    @Override
+    public List<Map<String, Long>> getDirectBufferPools() {
+        return ServerMetrics.getDirectBufferPools();
+    }
+
+    @Override
+    public String lockProfile(final int uiContextID) {
+        final UIContext uiContext = SessionManager.get().getUIContext(uiContextID);
+        final LockProfiler profiler = uiContext != null ? uiContext.getLockProfiler() : null;
+        return profiler != null ? profiler.toString() : null;
+    }
+
+}
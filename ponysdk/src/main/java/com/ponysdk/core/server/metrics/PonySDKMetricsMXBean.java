@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The JMX view of the {@link ServerMetrics}
+ */
+public interface PonySDKMetricsMXBean {
+
+    int getUIContextCount();
+
+    /**
+     * @return the aggregated metrics of all the UIContexts, by metric key
+     */
+    Map<String, Long> getMetrics();
+
+    /**
+     * Gets the UIContexts with the highest values of a metric
+     *
+     * @param metric the key of the metric, such as {@code bytesSent}
+     * @param count the maximum number of UIContexts
+     * @return the metrics of each UIContext, with its {@code uiContextID}
+     */
+    List<Map<String, Long>> top(String metric, int count);
+
+    /**
+     * @return the last long holds of the lock of the UIContexts, when the lock profiling is enabled
+     */
+    List<String> getLongLockHolds();
+
+    /**
+     * @return the UIContexts currently locked for too long, with the stack of their holder
+     */
+    List<String> getCurrentLongLockHolds();
+
+    /**
+     * @return the occupancy of each pool of direct buffers, with its {@code bufferSize}
+     */
+    List<Map<String, Long>> getDirectBufferPools();
+
+    /**
+     * Gets the wait and hold time histograms of the lock of an UIContext
+     *
+     * @param uiContextID the UIContext ID
+     * @return the histograms, or null if the UIContext doesn't exist or isn't profiled
+     */
+    String lockProfile(int uiContextID);
+
+}
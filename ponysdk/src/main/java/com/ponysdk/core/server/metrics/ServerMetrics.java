@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ponysdk.core.server.application.Application;
+import com.ponysdk.core.server.application.UIContext;
+import com.ponysdk.core.server.concurrent.DirectBufferPool;
+import com.ponysdk.core.server.servlet.SessionManager;
+
+/**
+ * Aggregates the {@link UIContextMetrics} of all the UIContexts of the {@link SessionManager},
+ * along with the occupancy of the JVM-wide {@link DirectBufferPool}.<br>
+ * The same figures are exposed by JMX under {@value #OBJECT_NAME} and by the
+ * {@link com.ponysdk.core.server.servlet.MetricsServlet}.
+ */
+public final class ServerMetrics {
+
+    public static final String OBJECT_NAME = "com.ponysdk:type=Metrics";
+
+    private static final Logger log = LoggerFactory.getLogger(ServerMetrics.class);
+
+    private ServerMetrics() {
+    }
+
+    /**
+     * @return a snapshot of each UIContext
+     */
+    public static List<MetricsSnapshot> getUIContextSnapshots() {
+        final List<MetricsSnapshot> snapshots = new ArrayList<>();
+        for (final UIContext uiContext : getUIContexts()) {
+            snapshots.add(uiContext.getMetrics().snapshot(uiContext));
+        }
+        return snapshots;
+    }
+
+    private static List<UIContext> getUIContexts() {
+        final List<UIContext> uiContexts = new ArrayList<>();
+        for (final Application application : SessionManager.get().getApplications()) {
+            uiContexts.addAll(application.getUIContexts());
+        }
+        return uiContexts;
+    }
+
+    /**
+     * @return the aggregate of all the UIContexts
+     */
+    public static MetricsSnapshot snapshot() {
+        return MetricsSnapshot.aggregate(getUIContextSnapshots());
+    }
+
+    /**
+     * Gets the UIContexts with the highest values of a metric
+     *
+     * @param metric the metric to sort by
+     * @param count the maximum number of UIContexts
+     * @return the snapshots, the highest value first
+     */
+    public static List<MetricsSnapshot> top(final Metric metric, final int count) {
+        return MetricsSnapshot.top(getUIContextSnapshots(), metric, count);
+    }
+
+    /**
+     * Gets the last long holds of the lock of the UIContexts, when the lock profiling is enabled
+     *
+     * @return the holds, the newest first
+     * @see LockProfiler
+     */
+    public static List<LockHoldEvent> getLongLockHolds() {
+        final List<LockHoldEvent> events = new ArrayList<>();
+        for (final UIContext uiContext : getUIContexts()) {
+            final LockProfiler profiler = uiContext.getLockProfiler();
+            if (profiler != null) events.addAll(profiler.getLongHolds());
+        }
+        events.sort(Comparator.comparingLong(LockHoldEvent::getTime).reversed());
+        return events;
+    }
+
+    /**
+     * Describes the UIContexts currently locked for longer than the threshold, with the stack of
+     * their holder
+     *
+     * @return the descriptions
+     * @see LockProfiler#describeCurrentHold()
+     */
+    public static List<String> getCurrentLongLockHolds() {
+        final List<String> holds = new ArrayList<>();
+        for (final UIContext uiContext : getUIContexts()) {
+            final LockProfiler profiler = uiContext.getLockProfiler();
+            final String hold = profiler != null ? profiler.describeCurrentHold() : null;
+            if (hold != null) holds.add(hold);
+        }
+        return holds;
+    }
+
+    /**
+     * Gets the occupancy of the pools of direct buffers shared by the websockets
+     *
+     * @return the {@code bufferSize}, {@code pooledCount}, {@code borrowedCount} and
+     *         {@code allocatedCount} of each pool
+     */
+    public static List<Map<String, Long>> getDirectBufferPools() {
+        final List<Map<String, Long>> pools = new ArrayList<>();
+        for (final DirectBufferPool pool : DirectBufferPool.getPools()) {
+            final Map<String, Long> map = new LinkedHashMap<>();
+            map.put("bufferSize", (long) pool.getBufferSize());
+            map.put("pooledCount", (long) pool.getPooledCount());
+            map.put("borrowedCount", (long) pool.getBorrowedCount());
+            map.put("allocatedCount", pool.getAllocatedCount());
+            pools.add(map);
+        }
+        return pools;
+    }
+
+    /**
+     * Registers the metrics in the platform MBean server, if not already done
+     */
+    public static synchronized void registerMBean() {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) server.registerMBean(new PonySDKMetrics(), name);
+        } catch (final JMException e) {
+            log.error("Cannot register the metrics MBean", e);
+        }
+    }
+
+}
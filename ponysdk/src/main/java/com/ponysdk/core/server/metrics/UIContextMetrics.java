@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.ponysdk.core.server.application.UIContext;
+import com.ponysdk.core.server.concurrent.PScheduler;
+
+/**
+ * The metrics of an {@link UIContext}.<br>
+ * The recording methods are called on the hot paths of the websocket and of the UIContext, by
+ * several threads : they only use striped counters, so they never lock and stay cheap enough to
+ * be always on. A consistent view is taken with {@link #snapshot(UIContext)}.
+ *
+ * @see ServerMetrics
+ */
+public final class UIContextMetrics {
+
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder framesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder framesReceived = new LongAdder();
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder flushLatencyNanos = new LongAdder();
+    private final LongAccumulator maxFlushLatencyNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator bufferHighWaterMark = new LongAccumulator(Math::max, 0);
+    private final LongAdder lockWaitNanos = new LongAdder();
+    private final LongAccumulator maxLockWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder executeCount = new LongAdder();
+    private final LongAdder executeNanos = new LongAdder();
+    private final LongAccumulator maxExecuteNanos = new LongAccumulator(Math::max, 0);
+    private volatile long roundTripMillis;
+
+    /**
+     * Records a websocket frame sent to the terminal
+     *
+     * @param bytes the size of the frame
+     */
+    public void onFrameSent(final int bytes) {
+        framesSent.increment();
+        bytesSent.add(bytes);
+    }
+
+    /**
+     * Records a websocket message received from the terminal
+     *
+     * @param bytes the size of the message
+     */
+    public void onFrameReceived(final int bytes) {
+        framesReceived.increment();
+        bytesReceived.add(bytes);
+    }
+
+    /**
+     * Records a flush of the pending data, i.e. the end of a transaction
+     */
+    public void onFlush() {
+        flushCount.increment();
+    }
+
+    /**
+     * Records the time taken by the websocket to write a frame
+     *
+     * @param nanos the elapsed time between the write and its completion
+     */
+    public void onFrameWritten(final long nanos) {
+        flushLatencyNanos.add(nanos);
+        maxFlushLatencyNanos.accumulate(nanos);
+    }
+
+    /**
+     * Records the size of the data pending in the websocket buffer
+     *
+     * @param bytes the pending bytes
+     */
+    public void onBufferUsage(final long bytes) {
+        bufferHighWaterMark.accumulate(bytes);
+    }
+
+    /**
+     * Records the time spent waiting for the lock of the UIContext
+     *
+     * @param nanos the wait time
+     */
+    public void onLockWait(final long nanos) {
+        lockWaitNanos.add(nanos);
+        maxLockWaitNanos.accumulate(nanos);
+    }
+
+    /**
+     * Records the duration of a task run in the UIContext
+     *
+     * @param nanos the duration, including the commit of the transaction
+     */
+    public void onExecute(final long nanos) {
+        executeCount.increment();
+        executeNanos.add(nanos);
+        maxExecuteNanos.accumulate(nanos);
+    }
+
+    /**
+     * Records the last round trip measured with the terminal
+     *
+     * @param millis the round trip
+     */
+    public void onRoundTrip(final long millis) {
+        roundTripMillis = millis;
+    }
+
+    /**
+     * Takes a snapshot of the metrics. The live objects and the scheduled tasks are read from the
+     * UIContext without locking it, so they may be slightly stale.
+     *
+     * @param uiContext the UIContext owning these metrics
+     * @return the snapshot
+     */
+    public MetricsSnapshot snapshot(final UIContext uiContext) {
+        final long[] values = new long[Metric.all().length];
+        values[Metric.BYTES_SENT.ordinal()] = bytesSent.sum();
+        values[Metric.FRAMES_SENT.ordinal()] = framesSent.sum();
+        values[Metric.BYTES_RECEIVED.ordinal()] = bytesReceived.sum();
+        values[Metric.FRAMES_RECEIVED.ordinal()] = framesReceived.sum();
+        values[Metric.FLUSH_COUNT.ordinal()] = flushCount.sum();
+        values[Metric.FLUSH_LATENCY_NANOS.ordinal()] = flushLatencyNanos.sum();
+        values[Metric.MAX_FLUSH_LATENCY_NANOS.ordinal()] = maxFlushLatencyNanos.get();
+        values[Metric.BUFFER_HIGH_WATER_MARK.ordinal()] = bufferHighWaterMark.get();
+        values[Metric.LOCK_WAIT_NANOS.ordinal()] = lockWaitNanos.sum();
+        values[Metric.MAX_LOCK_WAIT_NANOS.ordinal()] = maxLockWaitNanos.get();
+        values[Metric.EXECUTE_COUNT.ordinal()] = executeCount.sum();
+        values[Metric.EXECUTE_NANOS.ordinal()] = executeNanos.sum();
+        values[Metric.MAX_EXECUTE_NANOS.ordinal()] = maxExecuteNanos.get();
+        values[Metric.ROUND_TRIP_MILLIS.ordinal()] = roundTripMillis;
+        values[Metric.LIVE_OBJECTS.ordinal()] = uiContext.getObjectCount();
+        values[Metric.SCHEDULED_TASKS.ordinal()] = PScheduler.getTaskCount(uiContext);
+        return new MetricsSnapshot(uiContext.getID(), values);
+    }
+
+}
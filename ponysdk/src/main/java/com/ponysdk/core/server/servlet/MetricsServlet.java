@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.servlet;
+
+import java.io.IOException;
+import java.util.Map;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonWriter;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.ponysdk.core.server.metrics.LockHoldEvent;
+import com.ponysdk.core.server.metrics.Metric;
+import com.ponysdk.core.server.metrics.MetricsSnapshot;
+import com.ponysdk.core.server.metrics.ServerMetrics;
+
+/**
+ * Pull endpoint of the {@link ServerMetrics}, in JSON.<br>
+ * The optional {@value #PARAMETER_METRIC} and {@value #PARAMETER_TOP} parameters select the
+ * offending UIContexts listed with the aggregate, e.g. {@code ?metric=lockWaitNanos&top=5}.
+ */
+public class MetricsServlet extends HttpServlet {
+
+    private static final long serialVersionUID = -3178645342051529465L;
+
+    public static final String PARAMETER_METRIC = "metric";
+    public static final String PARAMETER_TOP = "top";
+
+    private static final int DEFAULT_TOP = 10;
+
+    @Override
+    protected void doGet(final HttpServletRequest req, final HttpServletResponse resp) throws ServletException, IOException {
+        final Metric metric;
+        final int top;
+        try {
+            final String metricKey = req.getParameter(PARAMETER_METRIC);
+            metric = metricKey != null ? Metric.fromKey(metricKey) : Metric.BYTES_SENT;
+            final String topValue = req.getParameter(PARAMETER_TOP);
+            top = topValue != null ? Math.max(0, Integer.parseInt(topValue)) : DEFAULT_TOP;
+        } catch (final IllegalArgumentException e) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        final JsonArrayBuilder offenders = Json.createArrayBuilder();
+        for (final MetricsSnapshot snapshot : ServerMetrics.top(metric, top)) {
+            offenders.add(toJson(snapshot).add("uiContextID", snapshot.getUIContextID()));
+        }
+        final JsonObjectBuilder json = Json.createObjectBuilder() //
+            .add("uiContexts", SessionManager.get().countUIContexts()) //
+            .add("metrics", toJson(ServerMetrics.snapshot())) //
+            .add("sortedBy", metric.getKey()) //
+            .add("top", offenders);
+
+        final JsonArrayBuilder longLockHolds = Json.createArrayBuilder();
+        for (final LockHoldEvent event : ServerMetrics.getLongLockHolds()) {
+            longLockHolds.add(event.toString());
+        }
+        final JsonArrayBuilder currentLongLockHolds = Json.createArrayBuilder();
+        for (final String hold : ServerMetrics.getCurrentLongLockHolds()) {
+            currentLongLockHolds.add(hold);
+        }
+        json.add("longLockHolds", longLockHolds).add("currentLongLockHolds", currentLongLockHolds);
+
+        final JsonArrayBuilder directBufferPools = Json.createArrayBuilder();
+        for (final Map<String, Long> pool : ServerMetrics.getDirectBufferPools()) {
+            directBufferPools.add(toJson(pool));
+        }
+        json.add("directBufferPools", directBufferPools);
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        try (JsonWriter writer = Json.createWriter(resp.getWriter())) {
+            writer.writeObject(json.build());
+        }
+    }
+
+    private static JsonObjectBuilder toJson(final MetricsSnapshot snapshot) {
+        return toJson(snapshot.toMap());
+    }
+
+    private static JsonObjectBuilder toJson(final Map<String, Long> metrics) {
+        final JsonObjectBuilder builder = Json.createObjectBuilder();
+        for (final Map.Entry<String, Long> entry : metrics.entrySet()) {
+            builder.add(entry.getKey(), entry.getValue());
+        }
+        return builder;
+    }
+
+}
@@ -27,11 +27,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.ponysdk.core.server.application.Application;
 import com.ponysdk.core.server.application.UIContext;
+import com.ponysdk.core.server.context.UIContextIndex;
 
 public class SessionManager {
 
@@ -39,6 +39,8 @@ public class SessionManager {
 
     private final Map<String, Application> applications = new ConcurrentHashMap<>();
 
+    private final UIContextIndex uiContexts = new UIContextIndex();
+
     private final List<ApplicationListener> listeners = new ArrayList<>();
 
     public static SessionManager get() {
@@ -67,12 +69,31 @@ public class SessionManager {
         listeners.add(listener);
     }
 
+    /**
+     * Indexes an UIContext, called by its {@link Application}
+     *
+     * @see #getUIContext(int)
+     */
+    public void registerUIContext(final UIContext uiContext) {
+        uiContexts.put(uiContext);
+    }
+
+    public void unregisterUIContext(final int id) {
+        uiContexts.remove(id);
+    }
+
+    /**
+     * Gets a live UIContext whatever its application, without locking
+     *
+     * @param id the UIContext ID
+     * @return the UIContext, or null if not found
+     */
     public UIContext getUIContext(final int id) {
-        return applications.values().stream().map(app -> app.getUIContext(id)).filter(Objects::nonNull).findFirst().orElse(null);
+        return uiContexts.get(id);
     }
 
     public int countUIContexts() {
-        return applications.values().stream().mapToInt(Application::countUIContexts).sum();
+        return uiContexts.size();
     }
 
 }
@@ -27,11 +27,17 @@ import java.util.Collections;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.ponysdk.core.server.AlreadyDestroyedApplication;
 import com.ponysdk.core.writer.ModelWriter;
+import com.ponysdk.core.writer.ModelWriterCallback;
 
 public class Txn {
 
+    private static final Logger log = LoggerFactory.getLogger(Txn.class);
+
     private static final ThreadLocal<Txn> transactions = new ThreadLocal<>();
 
     private final Set<TxnListener> txnListeners = Collections.newSetFromMap(new ConcurrentHashMap<>());
@@ -53,6 +59,19 @@ public class Txn {
         else throw new AlreadyDestroyedApplication("TxnContext destroyed");
     }
 
+    public final boolean isCoalescingUpdates() {
+        return txnContext != null && txnContext.isCoalescingUpdates();
+    }
+
+    /**
+     * @see TxnContext#stackUpdate(int, ModelWriterCallback, int, ModelWriterCallback)
+     */
+    public final void stackUpdate(final int objectID, final ModelWriterCallback header, final int key,
+                                  final ModelWriterCallback callback) {
+        if (txnContext != null) txnContext.stackUpdate(objectID, header, key, callback);
+        else throw new AlreadyDestroyedApplication("TxnContext destroyed");
+    }
+
     public void begin(final TxnContext txnContext) {
         this.txnContext = txnContext;
     }
@@ -69,6 +88,12 @@ public class Txn {
     public void rollback() {
         final Txn txn = transactions.get();
         if (txn.txnContext == null) throw new RuntimeException("Call begin() before rollback() a transaction.");
+        try {
+            // The server side objects are already modified, so the terminal still has to receive their updates
+            txn.txnContext.writePendingUpdates();
+        } catch (final Throwable e) {
+            log.error("Cannot write pending updates during rollback", e);
+        }
         fireBeforeRollback();
         transactions.remove();
     }
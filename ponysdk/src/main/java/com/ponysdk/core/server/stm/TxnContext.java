@@ -23,10 +23,16 @@
 
 package com.ponysdk.core.server.stm;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import com.ponysdk.core.server.application.Application;
 import com.ponysdk.core.server.application.UIContext;
 import com.ponysdk.core.server.websocket.WebSocket;
 import com.ponysdk.core.writer.ModelWriter;
+import com.ponysdk.core.writer.ModelWriterCallback;
 
 public class TxnContext implements TxnListener {
 
@@ -36,9 +42,14 @@ public class TxnContext implements TxnListener {
     private boolean flushNow = false;
     private Application application;
 
+    // Updates waiting for the end of the transaction, by object ID
+    private final Map<Integer, PendingUpdate> pendingUpdates = new LinkedHashMap<>();
+    private boolean coalescingUpdates = false;
+    private boolean writingPendingUpdates = false;
+
     public TxnContext(final WebSocket socket) {
         this.socket = socket;
-        this.modelWriter = new ModelWriter(socket);
+        this.modelWriter = new ModelWriter(socket, this::writePendingUpdates);
     }
 
     public ModelWriter getWriter() {
@@ -46,9 +57,71 @@ public class TxnContext implements TxnListener {
     }
 
     void flush() {
+        writePendingUpdates();
         socket.flush();
     }
 
+    /**
+     * When enabled, the updates of an object are not written immediately but merged into a single
+     * {@link com.ponysdk.core.model.ServerToClientModel#TYPE_UPDATE} frame, written before the next
+     * instruction of another type or at the end of the transaction. An update stacked with a key
+     * already pending replaces the previous one.
+     */
+    public void setCoalescingUpdates(final boolean coalescingUpdates) {
+        if (!coalescingUpdates) writePendingUpdates();
+        this.coalescingUpdates = coalescingUpdates;
+    }
+
+    public boolean isCoalescingUpdates() {
+        return coalescingUpdates;
+    }
+
+    /**
+     * Stacks an update of an object until the pending updates are written
+     *
+     * @param objectID
+     *            the object ID
+     * @param header
+     *            writes the header of the update frame, used only if no update is pending for this
+     *            object
+     * @param key
+     *            the update key, a pending update with the same key is superseded and the new one is
+     *            written after the other pending updates
+     * @param callback
+     *            writes the update
+     */
+    public void stackUpdate(final int objectID, final ModelWriterCallback header, final int key, final ModelWriterCallback callback) {
+        PendingUpdate pendingUpdate = pendingUpdates.get(objectID);
+        if (pendingUpdate == null) {
+            pendingUpdate = new PendingUpdate(header);
+            pendingUpdates.put(objectID, pendingUpdate);
+        }
+        // A superseded update is moved after the later ones, the terminal applies them in this order
+        pendingUpdate.callbacks.remove(key);
+        pendingUpdate.callbacks.put(key, callback);
+    }
+
+    void writePendingUpdates() {
+        if (writingPendingUpdates || pendingUpdates.isEmpty()) return;
+
+        final List<PendingUpdate> updates = new ArrayList<>(pendingUpdates.values());
+        pendingUpdates.clear();
+
+        writingPendingUpdates = true;
+        try {
+            for (final PendingUpdate update : updates) {
+                modelWriter.beginObject();
+                update.header.doWrite(modelWriter);
+                for (final ModelWriterCallback callback : update.callbacks.values()) {
+                    callback.doWrite(modelWriter);
+                }
+                modelWriter.endObject();
+            }
+        } finally {
+            writingPendingUpdates = false;
+        }
+    }
+
     @Override
     public void beforeFlush(final TxnContext txnContext) {
         if (!flushNow) return;
@@ -100,6 +173,17 @@ public class TxnContext implements TxnListener {
         if (application != null) application.deregisterUIContext(ID);
     }
 
+    private static final class PendingUpdate {
+
+        private final ModelWriterCallback header;
+        private final Map<Integer, ModelWriterCallback> callbacks = new LinkedHashMap<>(8);
+
+        private PendingUpdate(final ModelWriterCallback header) {
+            this.header = header;
+        }
+
+    }
+
     @Override
     public String toString() {
         return "TxnContext{" + "flushNow=" + flushNow + ", modelWriter=" + modelWriter + '}';
@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2017 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *  Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *  Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.websocket;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.spi.JsonProvider;
+
+import com.ponysdk.core.model.ClientToServerModel;
+import com.ponysdk.core.model.ClientToServerValueTypeModel;
+
+/**
+ * Decodes the binary messages of the terminal, described by {@link ClientToServerValueTypeModel}.<br>
+ * {@link #decodeMessage(ByteBuffer)} dispatches the entries of a message on their typed
+ * {@link ClientToServerModel} keys : the ping, the logs and the object IDs of the instructions are read
+ * as primitives, and only the instructions themselves are materialized as the {@link JsonObject} the
+ * {@link com.ponysdk.core.ui.basic.PObject#onClientData(JsonObject)} consume.<br>
+ * {@link #decode(ByteBuffer)} builds the {@link JsonObject} of the whole message, as the JSON text
+ * messages are parsed into.<br>
+ * It is public to be measured out of a server, e.g. by the benchmarks.
+ */
+public final class ClientMessageDecoder {
+
+    /**
+     * Object ID of an instruction which is not dispatched by ID, e.g. an history change
+     */
+    public static final int NO_OBJECT_ID = -1;
+
+    private final JsonProvider jsonProvider;
+
+    public ClientMessageDecoder(final JsonProvider jsonProvider) {
+        this.jsonProvider = jsonProvider;
+    }
+
+    public JsonObject decode(final ByteBuffer buffer) {
+        readObjectType(buffer);
+        final JsonObject jsonObject = readObject(buffer).build();
+        checkFullyRead(buffer);
+        return jsonObject;
+    }
+
+    public ClientMessage decodeMessage(final ByteBuffer buffer) {
+        readObjectType(buffer);
+        final ClientMessage message = new ClientMessage();
+        final int size = buffer.getInt();
+        for (int i = 0; i < size; i++) {
+            final byte key = buffer.get();
+            if (key == ClientToServerValueTypeModel.STRING_KEY) {
+                skip(buffer, buffer.getShort() & 0xFFFF);
+                skipValue(buffer, ClientToServerValueTypeModel.fromRawValue(buffer.get()));
+                continue;
+            }
+            final ClientToServerModel model = ClientToServerModel.fromRawValue(key);
+            final ClientToServerValueTypeModel type = ClientToServerValueTypeModel.fromRawValue(buffer.get());
+            switch (model) {
+                case PING_SERVER:
+                    message.type = model;
+                    message.ping = readLong(buffer, type);
+                    break;
+                case APPLICATION_INSTRUCTIONS:
+                    message.type = model;
+                    readInstructions(buffer, type, message);
+                    break;
+                case ERROR_MSG:
+                case WARN_MSG:
+                case INFO_MSG:
+                    message.type = model;
+                    message.logMessage = type == ClientToServerValueTypeModel.STRING ? readString(buffer, buffer.getInt()) : null;
+                    if (message.logMessage == null) skipValue(buffer, type);
+                    break;
+                case OBJECT_ID:
+                    if (type == ClientToServerValueTypeModel.INTEGER) message.objectID = buffer.getInt();
+                    else skipValue(buffer, type);
+                    break;
+                default:
+                    skipValue(buffer, type);
+            }
+        }
+        checkFullyRead(buffer);
+        return message;
+    }
+
+    private void readInstructions(final ByteBuffer buffer, final ClientToServerValueTypeModel type, final ClientMessage message) {
+        if (type != ClientToServerValueTypeModel.ARRAY) throw new IllegalArgumentException("Instructions must be an array, not " + type);
+        final int size = buffer.getInt();
+        message.objectIDs = new int[size];
+        message.instructions = new JsonObject[size];
+        for (int i = 0; i < size; i++) {
+            readObjectType(buffer);
+            message.instructions[i] = readInstruction(buffer, message.objectIDs, i);
+        }
+    }
+
+    private JsonObject readInstruction(final ByteBuffer buffer, final int[] objectIDs, final int index) {
+        final JsonObjectBuilder builder = jsonProvider.createObjectBuilder();
+        int objectID = NO_OBJECT_ID;
+        boolean history = false;
+        final int size = buffer.getInt();
+        for (int i = 0; i < size; i++) {
+            final byte rawKey = buffer.get();
+            final ClientToServerModel model = rawKey != ClientToServerValueTypeModel.STRING_KEY ? ClientToServerModel.fromRawValue(rawKey)
+                    : null;
+            final String key = model != null ? model.toStringValue() : readString(buffer, buffer.getShort() & 0xFFFF);
+            final ClientToServerValueTypeModel type = ClientToServerValueTypeModel.fromRawValue(buffer.get());
+            if (model == ClientToServerModel.OBJECT_ID && type == ClientToServerValueTypeModel.INTEGER) {
+                objectID = buffer.getInt();
+                builder.add(key, objectID);
+            } else {
+                if (model == ClientToServerModel.TYPE_HISTORY) history = true;
+                addValue(builder, key, type, buffer);
+            }
+        }
+        objectIDs[index] = history ? NO_OBJECT_ID : objectID;
+        return builder.build();
+    }
+
+    private JsonObjectBuilder readObject(final ByteBuffer buffer) {
+        final JsonObjectBuilder builder = jsonProvider.createObjectBuilder();
+        final int size = buffer.getInt();
+        for (int i = 0; i < size; i++) {
+            final String key = readKey(buffer);
+            addValue(builder, key, ClientToServerValueTypeModel.fromRawValue(buffer.get()), buffer);
+        }
+        return builder;
+    }
+
+    private void addValue(final JsonObjectBuilder builder, final String key, final ClientToServerValueTypeModel type,
+                          final ByteBuffer buffer) {
+        switch (type) {
+            case NULL:
+                builder.addNull(key);
+                break;
+            case TRUE:
+                builder.add(key, true);
+                break;
+            case FALSE:
+                builder.add(key, false);
+                break;
+            case INTEGER:
+                builder.add(key, buffer.getInt());
+                break;
+            case DOUBLE:
+                builder.add(key, buffer.getDouble());
+                break;
+            case STRING:
+                builder.add(key, readString(buffer, buffer.getInt()));
+                break;
+            case ARRAY:
+                builder.add(key, readArray(buffer));
+                break;
+            case OBJECT:
+                builder.add(key, readObject(buffer));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown value type " + type);
+        }
+    }
+
+    private JsonArrayBuilder readArray(final ByteBuffer buffer) {
+        final JsonArrayBuilder builder = jsonProvider.createArrayBuilder();
+        final int size = buffer.getInt();
+        for (int i = 0; i < size; i++) {
+            final ClientToServerValueTypeModel type = ClientToServerValueTypeModel.fromRawValue(buffer.get());
+            switch (type) {
+                case NULL:
+                    builder.addNull();
+                    break;
+                case TRUE:
+                    builder.add(true);
+                    break;
+                case FALSE:
+                    builder.add(false);
+                    break;
+                case INTEGER:
+                    builder.add(buffer.getInt());
+                    break;
+                case DOUBLE:
+                    builder.add(buffer.getDouble());
+                    break;
+                case STRING:
+                    builder.add(readString(buffer, buffer.getInt()));
+                    break;
+                case ARRAY:
+                    builder.add(readArray(buffer));
+                    break;
+                case OBJECT:
+                    builder.add(readObject(buffer));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown value type " + type);
+            }
+        }
+        return builder;
+    }
+
+    private static void skipValue(final ByteBuffer buffer, final ClientToServerValueTypeModel type) {
+        switch (type) {
+            case NULL:
+            case TRUE:
+            case FALSE:
+                break;
+            case INTEGER:
+                skip(buffer, Integer.BYTES);
+                break;
+            case DOUBLE:
+                skip(buffer, Double.BYTES);
+                break;
+            case STRING:
+                skip(buffer, buffer.getInt());
+                break;
+            case ARRAY:
+                for (int i = buffer.getInt(); i > 0; i--) {
+                    skipValue(buffer, ClientToServerValueTypeModel.fromRawValue(buffer.get()));
+                }
+                break;
+            case OBJECT:
+                for (int i = buffer.getInt(); i > 0; i--) {
+                    if (buffer.get() == ClientToServerValueTypeModel.STRING_KEY) skip(buffer, buffer.getShort() & 0xFFFF);
+                    skipValue(buffer, ClientToServerValueTypeModel.fromRawValue(buffer.get()));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown value type " + type);
+        }
+    }
+
+    private static long readLong(final ByteBuffer buffer, final ClientToServerValueTypeModel type) {
+        if (type == ClientToServerValueTypeModel.DOUBLE) return (long) buffer.getDouble();
+        else if (type == ClientToServerValueTypeModel.INTEGER) return buffer.getInt();
+        else throw new IllegalArgumentException("A number was expected, not " + type);
+    }
+
+    private static void readObjectType(final ByteBuffer buffer) {
+        final ClientToServerValueTypeModel type = ClientToServerValueTypeModel.fromRawValue(buffer.get());
+        if (type != ClientToServerValueTypeModel.OBJECT) throw new IllegalArgumentException("A message must be an object, not " + type);
+    }
+
+    private static void checkFullyRead(final ByteBuffer buffer) {
+        if (buffer.hasRemaining()) throw new IllegalArgumentException(buffer.remaining() + " unexpected trailing bytes");
+    }
+
+    private static void skip(final ByteBuffer buffer, final int size) {
+        if (size > buffer.remaining()) throw new BufferUnderflowException();
+        buffer.position(buffer.position() + size);
+    }
+
+    private static String readKey(final ByteBuffer buffer) {
+        final byte key = buffer.get();
+        if (key == ClientToServerValueTypeModel.STRING_KEY) return readString(buffer, buffer.getShort() & 0xFFFF);
+        else return ClientToServerModel.fromRawValue(key).toStringValue();
+    }
+
+    private static String readString(final ByteBuffer buffer, final int size) {
+        if (size > buffer.remaining()) throw new BufferUnderflowException();
+        final String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), size, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + size);
+        return value;
+    }
+
+    /**
+     * A message of the terminal decoded on its typed keys
+     */
+    public static final class ClientMessage {
+
+        private ClientToServerModel type;
+        private long ping;
+        private String logMessage;
+        private int objectID = NO_OBJECT_ID;
+        private int[] objectIDs;
+        private JsonObject[] instructions;
+
+        /**
+         * @return {@link ClientToServerModel#PING_SERVER}, {@link ClientToServerModel#APPLICATION_INSTRUCTIONS}, one
+         *         of the log levels, or null if the message is unknown
+         */
+        public ClientToServerModel getType() {
+            return type;
+        }
+
+        public long getPing() {
+            return ping;
+        }
+
+        public String getLogMessage() {
+            return logMessage;
+        }
+
+        /**
+         * @return the object ID of a log, or {@link ClientMessageDecoder#NO_OBJECT_ID}
+         */
+        public int getObjectID() {
+            return objectID;
+        }
+
+        /**
+         * @return the object ID of each instruction, or {@link ClientMessageDecoder#NO_OBJECT_ID}
+         */
+        public int[] getObjectIDs() {
+            return objectIDs;
+        }
+
+        public JsonObject[] getInstructions() {
+            return instructions;
+        }
+
+    }
+
+}
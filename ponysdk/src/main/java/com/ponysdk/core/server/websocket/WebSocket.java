@@ -24,6 +24,7 @@
 package com.ponysdk.core.server.websocket;
 
 import java.io.StringReader;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -45,8 +46,10 @@ import com.ponysdk.core.model.ServerToClientModel;
 import com.ponysdk.core.server.application.ApplicationManager;
 import com.ponysdk.core.server.application.UIContext;
 import com.ponysdk.core.server.context.CommunicationSanityChecker;
+import com.ponysdk.core.server.websocket.ClientMessageDecoder.ClientMessage;
 import com.ponysdk.core.server.stm.TxnContext;
 import com.ponysdk.core.ui.basic.PObject;
+import com.ponysdk.core.writer.SharedFrame;
 
 public class WebSocket implements WebSocketListener, WebsocketEncoder {
 
@@ -60,20 +63,43 @@ public class WebSocket implements WebSocketListener, WebsocketEncoder {
     private TxnContext context;
     private Session session;
     private UIContext uiContext;
+    private ClientMessageDecoder clientMessageDecoder;
 
     public WebSocket() {
     }
 
+    /**
+     * Creates a WebSocket writing in a {@link WebSocketPusher} on the session, without UIContext :
+     * it encodes and flushes as on a server, e.g. to be measured out of a server by the benchmarks
+     *
+     * @param bufferSize the maximum size of the pending data
+     */
+    public static WebSocket newDetached(final Session session, final int bufferSize) {
+        final WebSocketPusher pusher = new WebSocketPusher(session, bufferSize, 1 << 12, TimeUnit.SECONDS.toMillis(60));
+        final WebSocket webSocket = new WebSocket() {
+
+            @Override
+            public void flush() {
+                // No UIContext to be alive
+                if (session.isOpen()) pusher.flush();
+            }
+        };
+        webSocket.session = session;
+        webSocket.websocketPusher = pusher;
+        return webSocket;
+    }
+
     @Override
     public void onWebSocketConnect(final Session session) {
         this.session = session;
 
-        // 1K for max chunk size and 1M for total buffer size
-        // Don't set max chunk size > 8K because when using Jetty Websocket compression, the chunks are limited to 8K
-        this.websocketPusher = new WebSocketPusher(session, 1 << 20, 1 << 12, TimeUnit.SECONDS.toMillis(60));
-
         try {
             uiContext = new UIContext(this, context, applicationManager.getConfiguration(), request);
+            // 4K for max chunk size, the pending data are limited by the configuration (1M by default)
+            // Don't set max chunk size > 8K because when using Jetty Websocket compression, the chunks are limited to 8K
+            this.websocketPusher = new WebSocketPusher(session, applicationManager.getConfiguration().getWebSocketBufferMaxSize(),
+                1 << 12, TimeUnit.SECONDS.toMillis(60), uiContext.getMetrics());
+            clientMessageDecoder = new ClientMessageDecoder(uiContext.getJsonProvider());
             log.info("Creating a new {}", uiContext);
 
             final CommunicationSanityChecker communicationSanityChecker = new CommunicationSanityChecker(uiContext);
@@ -120,6 +146,7 @@ public class WebSocket implements WebSocketListener, WebsocketEncoder {
         if (isAlive()) {
             try {
                 uiContext.onMessageReceived();
+                uiContext.getMetrics().onFrameReceived(utf8Length(message));
                 if (monitor != null) monitor.onMessageReceived(WebSocket.this, message);
 
                 if (ClientToServerModel.HEARTBEAT.toStringValue().equals(message)) {
@@ -131,19 +158,7 @@ public class WebSocket implements WebSocketListener, WebsocketEncoder {
                         jsonObject = reader.readObject();
                     }
 
-                    if (jsonObject.containsKey(ClientToServerModel.PING_SERVER.toStringValue())) {
-                        processPing(jsonObject);
-                    } else if (jsonObject.containsKey(ClientToServerModel.APPLICATION_INSTRUCTIONS.toStringValue())) {
-                        processInstructions(jsonObject);
-                    } else if (jsonObject.containsKey(ClientToServerModel.ERROR_MSG.toStringValue())) {
-                        processTerminalLog(jsonObject, ClientToServerModel.ERROR_MSG);
-                    } else if (jsonObject.containsKey(ClientToServerModel.WARN_MSG.toStringValue())) {
-                        processTerminalLog(jsonObject, ClientToServerModel.WARN_MSG);
-                    } else if (jsonObject.containsKey(ClientToServerModel.INFO_MSG.toStringValue())) {
-                        processTerminalLog(jsonObject, ClientToServerModel.INFO_MSG);
-                    } else {
-                        log.error("Unknow message from terminal #{} : {}", uiContext.getID(), message);
-                    }
+                    processMessage(jsonObject);
                 }
                 if (monitor != null) monitor.onMessageProcessed(this, message);
             } catch (final Throwable e) {
@@ -156,12 +171,48 @@ public class WebSocket implements WebSocketListener, WebsocketEncoder {
         }
     }
 
+    private void processMessage(final JsonObject jsonObject) {
+        if (jsonObject.containsKey(ClientToServerModel.PING_SERVER.toStringValue())) {
+            processPing(jsonObject);
+        } else if (jsonObject.containsKey(ClientToServerModel.APPLICATION_INSTRUCTIONS.toStringValue())) {
+            processInstructions(jsonObject);
+        } else if (jsonObject.containsKey(ClientToServerModel.ERROR_MSG.toStringValue())) {
+            processTerminalLog(jsonObject, ClientToServerModel.ERROR_MSG);
+        } else if (jsonObject.containsKey(ClientToServerModel.WARN_MSG.toStringValue())) {
+            processTerminalLog(jsonObject, ClientToServerModel.WARN_MSG);
+        } else if (jsonObject.containsKey(ClientToServerModel.INFO_MSG.toStringValue())) {
+            processTerminalLog(jsonObject, ClientToServerModel.INFO_MSG);
+        } else {
+            log.error("Unknow message from terminal #{} : {}", uiContext.getID(), jsonObject);
+        }
+    }
+
+    /**
+     * Dispatches a binary message on its typed keys, see {@link ClientMessageDecoder#decodeMessage(ByteBuffer)}
+     */
+    private void processMessage(final ClientMessage message) {
+        final ClientToServerModel type = message.getType();
+        if (ClientToServerModel.PING_SERVER == type) {
+            processPing(message.getPing());
+        } else if (ClientToServerModel.APPLICATION_INSTRUCTIONS == type) {
+            processInstructions(message.getObjectIDs(), message.getInstructions());
+        } else if (ClientToServerModel.ERROR_MSG == type || ClientToServerModel.WARN_MSG == type
+                || ClientToServerModel.INFO_MSG == type) {
+            processTerminalLog(message.getObjectID(), message.getLogMessage(), type);
+        } else {
+            log.error("Unknow binary message from terminal #{}", uiContext.getID());
+        }
+    }
+
     private void processHeartbeat() {
         if (log.isDebugEnabled()) log.debug("Heartbeat received from terminal #{}", uiContext.getID());
     }
 
     private void processPing(final JsonObject jsonObject) {
-        final long start = jsonObject.getJsonNumber(ClientToServerModel.PING_SERVER.toStringValue()).longValue();
+        processPing(jsonObject.getJsonNumber(ClientToServerModel.PING_SERVER.toStringValue()).longValue());
+    }
+
+    private void processPing(final long start) {
         final long end = System.currentTimeMillis();
         if (log.isDebugEnabled()) log.debug("Ping measurement : {} ms from terminal #{}", end - start, uiContext.getID());
         uiContext.addPingValue(end - start);
@@ -177,13 +228,34 @@ public class WebSocket implements WebSocketListener, WebsocketEncoder {
         });
     }
 
+    private void processInstructions(final int[] objectIDs, final JsonObject[] instructions) {
+        uiContext.execute(() -> {
+            for (int i = 0; i < instructions.length; i++) {
+                if (objectIDs[i] != ClientMessageDecoder.NO_OBJECT_ID) uiContext.fireClientData(objectIDs[i], instructions[i]);
+                else uiContext.fireClientData(instructions[i]);
+            }
+        });
+    }
+
     private void processTerminalLog(final JsonObject json, final ClientToServerModel level) {
-        final String message = json.getJsonString(level.toStringValue()).getString();
+        final String objectIDKey = ClientToServerModel.OBJECT_ID.toStringValue();
+        final int objectID = json.containsKey(objectIDKey) ? json.getJsonNumber(objectIDKey).intValue()
+                : ClientMessageDecoder.NO_OBJECT_ID;
+        processTerminalLog(objectID, json.getJsonString(level.toStringValue()).getString(), level);
+    }
+
+    private void processTerminalLog(final int objectID, final String message, final ClientToServerModel level) {
         String objectInformation = "";
 
-        if (json.containsKey(ClientToServerModel.OBJECT_ID.toStringValue())) {
-            final PObject object = uiContext.getObject(json.getJsonNumber(ClientToServerModel.OBJECT_ID.toStringValue()).intValue());
-            objectInformation = object == null ? "NA" : object.toString();
+        if (objectID != ClientMessageDecoder.NO_OBJECT_ID) {
+            // The objects of the UIContext are only readable under its lock
+            uiContext.acquire();
+            try {
+                final PObject object = uiContext.getObject(objectID);
+                objectInformation = object == null ? "NA" : object.toString();
+            } finally {
+                uiContext.release();
+            }
         }
 
         switch (level) {
@@ -202,11 +274,35 @@ public class WebSocket implements WebSocketListener, WebsocketEncoder {
     }
 
     /**
-     * Receive from the terminal
+     * Receive from the terminal, the binary equivalent of the JSON text messages
+     *
+     * @see ClientMessageDecoder
      */
     @Override
     public void onWebSocketBinary(final byte[] payload, final int offset, final int len) {
-        // Can't receive binary data from terminal (GWT limitation)
+        if (isAlive()) {
+            String message = null;
+            try {
+                uiContext.onMessageReceived();
+                uiContext.getMetrics().onFrameReceived(len);
+                final ByteBuffer buffer = ByteBuffer.wrap(payload, offset, len);
+                if (monitor != null) {
+                    // Only monitored messages are decoded as a whole
+                    message = clientMessageDecoder.decode(buffer.duplicate()).toString();
+                    monitor.onMessageReceived(WebSocket.this, message);
+                }
+
+                processMessage(clientMessageDecoder.decodeMessage(buffer));
+
+                if (monitor != null) monitor.onMessageProcessed(this, message);
+            } catch (final Throwable e) {
+                log.error("Cannot process binary message of " + len + " bytes from terminal #" + uiContext.getID(), e);
+            } finally {
+                if (monitor != null) monitor.onMessageUnprocessed(this, message);
+            }
+        } else {
+            log.info("UI Context #{} is destroyed, binary message of {} bytes dropped from terminal", uiContext.getID(), len);
+        }
     }
 
     /**
@@ -241,6 +337,15 @@ public class WebSocket implements WebSocketListener, WebsocketEncoder {
         websocketPusher.flush();
     }
 
+    /**
+     * Tells if the pending data have reached the threshold above which only urgent messages
+     * should be written, because the terminal doesn't read them fast enough
+     */
+    public boolean isUnderPressure() {
+        final WebSocketPusher pusher = websocketPusher;
+        return pusher != null && pusher.shouldOnlyWriteUrgentMessages();
+    }
+
     public void close() {
         if (isSessionOpen()) {
             log.info("Closing websocket programmatically");
@@ -256,6 +361,20 @@ public class WebSocket implements WebSocketListener, WebsocketEncoder {
         return session != null && session.isOpen();
     }
 
+    /**
+     * Size of the UTF-8 frame a text message was decoded from, without encoding it again
+     */
+    static int utf8Length(final String message) {
+        int length = 0;
+        for (int i = 0; i < message.length(); i++) {
+            final char c = message.charAt(i);
+            if (c < 0x80) length++;
+            else if (c < 0x800 || Character.isSurrogate(c)) length += 2; // A surrogate pair is 4 bytes
+            else length += 3;
+        }
+        return length;
+    }
+
     @Override
     public void beginObject() {
         // Nothing to do
@@ -271,6 +390,41 @@ public class WebSocket implements WebSocketListener, WebsocketEncoder {
         websocketPusher.encode(model, value);
     }
 
+    @Override
+    public void encode(final ServerToClientModel model, final boolean value) {
+        websocketPusher.encode(model, value);
+    }
+
+    @Override
+    public void encode(final ServerToClientModel model, final byte value) {
+        websocketPusher.encode(model, value);
+    }
+
+    @Override
+    public void encode(final ServerToClientModel model, final short value) {
+        websocketPusher.encode(model, value);
+    }
+
+    @Override
+    public void encode(final ServerToClientModel model, final int value) {
+        websocketPusher.encode(model, value);
+    }
+
+    @Override
+    public void encode(final ServerToClientModel model, final long value) {
+        websocketPusher.encode(model, value);
+    }
+
+    @Override
+    public void encode(final ServerToClientModel model, final double value) {
+        websocketPusher.encode(model, value);
+    }
+
+    @Override
+    public void encode(final SharedFrame frame, final int[] slotValues) {
+        websocketPusher.encode(frame, slotValues);
+    }
+
     private static enum NiceStatusCode {
 
         NORMAL(StatusCode.NORMAL, "Normal closure"),
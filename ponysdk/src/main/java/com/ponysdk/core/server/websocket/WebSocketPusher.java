@@ -27,6 +27,8 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.json.JsonObject;
 
@@ -36,10 +38,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.ponysdk.core.model.ServerToClientModel;
+import com.ponysdk.core.model.ValueTypeModel;
 import com.ponysdk.core.server.application.UIContext;
-import com.ponysdk.core.server.concurrent.AutoFlushedBuffer;
+import com.ponysdk.core.server.concurrent.SegmentedAutoFlushedBuffer;
+import com.ponysdk.core.server.metrics.UIContextMetrics;
+import com.ponysdk.core.writer.SharedFrame;
 
-public class WebSocketPusher extends AutoFlushedBuffer implements WriteCallback {
+public class WebSocketPusher extends SegmentedAutoFlushedBuffer implements WriteCallback {
 
     private static final Logger log = LoggerFactory.getLogger(WebSocketPusher.class);
 
@@ -49,19 +54,36 @@ public class WebSocketPusher extends AutoFlushedBuffer implements WriteCallback
     private static final Charset STANDARD_CHARSET = Charset.forName("ISO-8859-1");
     private static final Charset UTF8_CHARSET = Charset.forName("UTF-8");
 
-    private static final int MAX_UNSIGNED_BYTE_VALUE = Byte.MAX_VALUE * 2 + 1;
     private static final int MAX_UNSIGNED_SHORT_VALUE = Short.MAX_VALUE * 2 + 1;
 
     private final Session session;
+    private final int segmentSize;
+    private final UIContextMetrics metrics;
+    // Only one segment is written at a time
+    private long writeStartTime;
+
+    // Strings already sent to the terminal, by dictionary ID
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private boolean inlineDictionaryValues;
 
     public WebSocketPusher(final Session session, final int bufferSize, final int maxChunkSize, final long timeoutMillis) {
-        super(bufferSize, true, maxChunkSize, 0.25f, timeoutMillis);
+        this(session, bufferSize, maxChunkSize, timeoutMillis, new UIContextMetrics());
+    }
+
+    public WebSocketPusher(final Session session, final int bufferSize, final int maxChunkSize, final long timeoutMillis,
+                           final UIContextMetrics metrics) {
+        super(bufferSize, maxChunkSize, 0.25f, timeoutMillis);
         this.session = session;
+        this.segmentSize = maxChunkSize;
+        this.metrics = metrics;
     }
 
     @Override
     public void flush() {
         try {
+            // The pending data are at their highest once the transaction is written
+            metrics.onBufferUsage((long) getSegmentCount() * segmentSize);
+            metrics.onFlush();
             super.flush();
         } catch (final IOException e) {
             log.error("Can't write on the websocket, so we destroy the application", e);
@@ -71,6 +93,8 @@ public class WebSocketPusher extends AutoFlushedBuffer implements WriteCallback
 
     @Override
     protected void doFlush(final ByteBuffer bufferToFlush) {
+        metrics.onFrameSent(bufferToFlush.remaining());
+        writeStartTime = System.nanoTime();
         session.getRemote().sendBytes(bufferToFlush, this);
     }
 
@@ -92,6 +116,7 @@ public class WebSocketPusher extends AutoFlushedBuffer implements WriteCallback
 
     @Override
     public void writeSuccess() {
+        metrics.onFrameWritten(System.nanoTime() - writeStartTime);
         onFlushCompletion();
     }
 
@@ -129,16 +154,144 @@ public class WebSocketPusher extends AutoFlushedBuffer implements WriteCallback
                 case JSON_OBJECT:
                     write(model, (JsonObject) value);
                     break;
+                case STRING_DICTIONARY:
+                    writeDictionaryValue(model, (String) value);
+                    break;
+                case INTEGER_ARRAY:
+                    write(model, (int[]) value);
+                    break;
                 default:
                     log.error("Unknow model type : {}", model.getTypeModel());
                     break;
             }
         } catch (final IOException e) {
-            log.error("Can't write on the websocket, so we destroy the application", e);
-            UIContext.get().onDestroy();
+            onEncodeFailure(e);
+        }
+    }
+
+    protected void encode(final ServerToClientModel model, final boolean value) {
+        if (log.isDebugEnabled()) log.debug("Writing in the buffer : {} => {}", model, value);
+        if (model.getTypeModel() != ValueTypeModel.BOOLEAN) {
+            encode(model, (Object) value);
+            return;
+        }
+        try {
+            write(model, value);
+        } catch (final IOException e) {
+            onEncodeFailure(e);
+        }
+    }
+
+    protected void encode(final ServerToClientModel model, final byte value) {
+        if (log.isDebugEnabled()) log.debug("Writing in the buffer : {} => {}", model, value);
+        if (model.getTypeModel() != ValueTypeModel.BYTE) {
+            encode(model, (Object) value);
+            return;
+        }
+        try {
+            write(model, value);
+        } catch (final IOException e) {
+            onEncodeFailure(e);
+        }
+    }
+
+    protected void encode(final ServerToClientModel model, final short value) {
+        if (log.isDebugEnabled()) log.debug("Writing in the buffer : {} => {}", model, value);
+        if (model.getTypeModel() != ValueTypeModel.SHORT) {
+            encode(model, (Object) value);
+            return;
+        }
+        try {
+            write(model, value);
+        } catch (final IOException e) {
+            onEncodeFailure(e);
+        }
+    }
+
+    protected void encode(final ServerToClientModel model, final int value) {
+        if (log.isDebugEnabled()) log.debug("Writing in the buffer : {} => {}", model, value);
+        try {
+            switch (model.getTypeModel()) {
+                case INTEGER:
+                    write(model, value);
+                    break;
+                case LONG:
+                    write(model, (long) value);
+                    break;
+                case DOUBLE:
+                    write(model, (double) value);
+                    break;
+                default:
+                    encode(model, (Object) value);
+                    break;
+            }
+        } catch (final IOException e) {
+            onEncodeFailure(e);
+        }
+    }
+
+    protected void encode(final ServerToClientModel model, final long value) {
+        if (log.isDebugEnabled()) log.debug("Writing in the buffer : {} => {}", model, value);
+        try {
+            switch (model.getTypeModel()) {
+                case LONG:
+                    write(model, value);
+                    break;
+                case DOUBLE:
+                    write(model, (double) value);
+                    break;
+                default:
+                    encode(model, (Object) value);
+                    break;
+            }
+        } catch (final IOException e) {
+            onEncodeFailure(e);
+        }
+    }
+
+    protected void encode(final ServerToClientModel model, final double value) {
+        if (log.isDebugEnabled()) log.debug("Writing in the buffer : {} => {}", model, value);
+        if (model.getTypeModel() != ValueTypeModel.DOUBLE) {
+            encode(model, (Object) value);
+            return;
+        }
+        try {
+            write(model, value);
+        } catch (final IOException e) {
+            onEncodeFailure(e);
+        }
+    }
+
+    /**
+     * Copies a pre-encoded fragment, its slots being filled with their values
+     */
+    protected void encode(final SharedFrame frame, final int[] slotValues) {
+        if (log.isDebugEnabled()) log.debug("Writing in the buffer : shared frame of {} bytes", frame.size());
+        try {
+            frame.splice(slotValues, new SharedFrame.SpliceConsumer<IOException>() {
+
+                @Override
+                public void putBytes(final byte[] bytes, final int offset, final int length) throws IOException {
+                    put(bytes, offset, length);
+                }
+
+                @Override
+                public void putInt(final int value) throws IOException {
+                    WebSocketPusher.this.putInt(value);
+                }
+            });
+            // The fragment is made of complete objects
+            inlineDictionaryValues = false;
+        } catch (final IOException e) {
+            onEncodeFailure(e);
         }
     }
 
+    private void onEncodeFailure(final IOException e) {
+        log.error("Can't write on the websocket, so we destroy the application", e);
+        UIContext.get().onDestroy();
+    }
+
     private void write(final ServerToClientModel model) throws IOException {
         putModelKey(model);
     }
@@ -162,49 +315,52 @@ public class WebSocketPusher extends AutoFlushedBuffer implements WriteCallback
         putInt(value);
     }
 
-    private void write(final ServerToClientModel model, final long longValue) throws IOException {
-        final String value = String.valueOf(longValue);
+    private void write(final ServerToClientModel model, final long value) throws IOException {
+        putModelKey(model);
+        putLong(value);
+    }
 
+    private void write(final ServerToClientModel model, final double value) throws IOException {
         putModelKey(model);
+        putDouble(value);
+    }
 
-        try {
-            final byte[] bytes = value.getBytes(STANDARD_CHARSET);
-            final int length = bytes.length;
-            if (length <= MAX_UNSIGNED_BYTE_VALUE) {
-                putUnsignedByte((short) length);
-                put(bytes);
-            } else {
-                throw new IllegalArgumentException("Message too big (" + value.length() + " > " + MAX_UNSIGNED_BYTE_VALUE
-                        + "), use a String instead : " + value.substring(0, Math.min(value.length(), 100)) + "...");
-            }
-        } catch (final UnsupportedEncodingException e) {
-            throw new IllegalArgumentException("Cannot convert message : " + value);
-        }
+    private void write(final ServerToClientModel model, final String value, final Charset encodingCharset) throws IOException {
+        putModelKey(model);
+        putString(value, encodingCharset);
     }
 
-    private void write(final ServerToClientModel model, final double doubleValue) throws IOException {
-        final String value = String.valueOf(doubleValue);
+    private void write(final ServerToClientModel model, final int[] values) throws IOException {
+        putModelKey(model);
+        putInt(values.length);
+        for (final int value : values) {
+            putInt(value);
+        }
+    }
 
+    private void writeDictionaryValue(final ServerToClientModel model, final String value) throws IOException {
         putModelKey(model);
 
-        try {
-            final byte[] bytes = value.getBytes(STANDARD_CHARSET);
-            final int length = bytes.length;
-            if (length <= MAX_UNSIGNED_BYTE_VALUE) {
-                putUnsignedByte((short) length);
-                put(bytes);
+        if (value == null || inlineDictionaryValues) {
+            putUnsignedShort(ValueTypeModel.DICTIONARY_INLINE_VALUE);
+            putString(value, UTF8_CHARSET);
+        } else {
+            final Integer id = dictionary.get(value);
+            if (id != null) {
+                putUnsignedShort(id);
+            } else if (dictionary.size() < ValueTypeModel.DICTIONARY_MAX_SIZE) {
+                final int newId = dictionary.size();
+                putUnsignedShort(newId | ValueTypeModel.DICTIONARY_NEW_ENTRY_MASK);
+                putString(value, UTF8_CHARSET);
+                dictionary.put(value, newId);
             } else {
-                throw new IllegalArgumentException("Message too big (" + value.length() + " > " + MAX_UNSIGNED_BYTE_VALUE
-                        + "), use a String instead : " + value.substring(0, Math.min(value.length(), 100)) + "...");
+                putUnsignedShort(ValueTypeModel.DICTIONARY_INLINE_VALUE);
+                putString(value, UTF8_CHARSET);
             }
-        } catch (final UnsupportedEncodingException e) {
-            throw new IllegalArgumentException("Cannot convert message : " + value);
         }
     }
 
-    private void write(final ServerToClientModel model, final String value, final Charset encodingCharset) throws IOException {
-        putModelKey(model);
-
+    private void putString(final String value, final Charset encodingCharset) throws IOException {
         try {
             if (value != null) {
                 final byte[] bytes = value.getBytes(encodingCharset);
@@ -243,6 +399,9 @@ public class WebSocketPusher extends AutoFlushedBuffer implements WriteCallback
     }
 
     private void putModelKey(final ServerToClientModel model) throws IOException {
+        // Dictionary entries are only known by the main terminal, so blocks forwarded to a window or a frame are sent inline
+        if (ServerToClientModel.WINDOW_ID == model || ServerToClientModel.FRAME_ID == model) inlineDictionaryValues = true;
+        else if (ServerToClientModel.END == model) inlineDictionaryValues = false;
         putUnsignedByte(model.getValue());
     }
 
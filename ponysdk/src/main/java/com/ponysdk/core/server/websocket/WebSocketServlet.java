@@ -58,6 +58,7 @@ public class WebSocketServlet extends org.eclipse.jetty.websocket.servlet.WebSoc
             webSocket.setMonitor(monitor);
 
             final TxnContext context = new TxnContext(webSocket);
+            context.setCoalescingUpdates(applicationManager.getConfiguration().isCoalescingUpdates());
             webSocket.setContext(context);
 
             if (request.getHttpServletRequest().getServletContext().getSessionCookieConfig() != null) {
@@ -24,6 +24,7 @@
 package com.ponysdk.core.server.websocket;
 
 import com.ponysdk.core.model.ServerToClientModel;
+import com.ponysdk.core.writer.SharedFrame;
 
 public interface WebsocketEncoder {
 
@@ -31,6 +32,28 @@ public interface WebsocketEncoder {
 
     void encode(final ServerToClientModel model, final Object value);
 
+    void encode(final ServerToClientModel model, final boolean value);
+
+    void encode(final ServerToClientModel model, final byte value);
+
+    void encode(final ServerToClientModel model, final short value);
+
+    void encode(final ServerToClientModel model, final int value);
+
+    void encode(final ServerToClientModel model, final long value);
+
+    void encode(final ServerToClientModel model, final double value);
+
     void endObject();
 
+    /**
+     * Writes a pre-encoded fragment. By default, its instructions are encoded one by one.
+     *
+     * @param frame the fragment
+     * @param slotValues the values of its slots
+     */
+    default void encode(final SharedFrame frame, final int[] slotValues) {
+        frame.replay(this, slotValues);
+    }
+
 }
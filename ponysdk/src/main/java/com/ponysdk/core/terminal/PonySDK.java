@@ -176,6 +176,8 @@ public class PonySDK implements UncaughtExceptionHandler {
     }
 
     public void close() {
+        // The instructions batched for the next animation frame would be lost
+        uiBuilder.sendPendingInstructions();
         socketClient.close();
         PTWindowManager.closeAll();
     }
@@ -29,11 +29,16 @@ import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.json.client.JSONArray;
 import com.google.gwt.json.client.JSONObject;
 import com.google.gwt.json.client.JSONValue;
 import com.google.gwt.user.client.History;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.RootPanel;
 import com.google.gwt.user.client.ui.UIObject;
 import com.google.gwt.user.client.ui.Widget;
@@ -62,6 +67,11 @@ public class UIBuilder {
 
     private static final Logger log = Logger.getLogger(UIBuilder.class.getName());
 
+    // Animation frames are paused in hidden pages, the pending instructions are sent after this delay anyway
+    private static final int PENDING_INSTRUCTIONS_MAX_DELAY_MILLIS = 100;
+    // Time spent decoding the server messages before giving the hand back to the browser
+    private static final double UPDATE_TIME_BUDGET_MILLIS = 8;
+
     private final UIFactory uiFactory = new UIFactory();
     private final JsMapFromIntTo<PTObject> objectByID = JsMapFromIntTo.create();
     private final Map<UIObject, Integer> objectIDByWidget = new HashMap<>();
@@ -72,6 +82,17 @@ public class UIBuilder {
 
     private RequestBuilder requestBuilder;
 
+    private boolean updateScheduled;
+
+    private JSONArray pendingInstructions;
+    private final Timer pendingInstructionsTimer = new Timer() {
+
+        @Override
+        public void run() {
+            sendPendingInstructions();
+        }
+    };
+
     public void init(final RequestBuilder requestBuilder) {
         if (log.isLoggable(Level.INFO)) log.info("Init graphical system");
 
@@ -92,10 +113,24 @@ public class UIBuilder {
         }
     }
 
+    /**
+     * Process the blocks of the buffer until the time budget is spent, the remaining blocks are
+     * processed in the next animation frames. Blocks received in the meantime are appended to them.
+     */
     public void updateMainTerminal(final Uint8Array buffer) {
         readerBuffer.init(buffer);
+        if (!updateScheduled) updateMainTerminal();
+    }
+
+    private void updateMainTerminal() {
+        final double deadline = Duration.currentTimeMillis() + UPDATE_TIME_BUDGET_MILLIS;
 
         while (readerBuffer.hasEnoughKeyBytes()) {
+            if (Duration.currentTimeMillis() > deadline) {
+                scheduleUpdate();
+                return;
+            }
+
             final int nextBlockPosition = readerBuffer.shiftNextBlock(true);
             if (nextBlockPosition == ReaderBuffer.NOT_FULL_BUFFER_POSITION) return;
 
@@ -159,6 +194,25 @@ public class UIBuilder {
         }
     }
 
+    private void scheduleUpdate() {
+        updateScheduled = true;
+        final ScheduledCommand command = () -> {
+            updateScheduled = false;
+            try {
+                updateMainTerminal();
+            } catch (final Exception e) {
+                log.log(Level.SEVERE, "Error while processing the " + readerBuffer, e);
+            }
+        };
+        // Animation frames are paused in hidden pages, the heartbeats and pings still have to be answered
+        if (isDocumentHidden()) Scheduler.get().scheduleDeferred(command);
+        else AnimationScheduler.get().requestAnimationFrame(timestamp -> command.execute());
+    }
+
+    private static final native boolean isDocumentHidden() /*-{
+                                                           return $doc.hidden === true;
+                                                           }-*/;
+
     public void updateWindowTerminal(final Uint8Array buffer) {
         readerBuffer.init(buffer);
 
@@ -197,6 +251,8 @@ public class UIBuilder {
                 processAdd(buffer, binaryModel.getIntValue());
             } else if (ServerToClientModel.TYPE_GC == model) {
                 processGC(buffer, binaryModel.getIntValue());
+            } else if (ServerToClientModel.TYPE_GC_BATCH == model) {
+                processGCBatch(buffer, binaryModel.getIntArrayValue());
             } else if (ServerToClientModel.TYPE_REMOVE == model) {
                 processRemove(buffer, binaryModel.getIntValue());
             } else if (ServerToClientModel.TYPE_ADD_HANDLER == model) {
@@ -348,6 +404,15 @@ public class UIBuilder {
         }
     }
 
+    private void processGCBatch(final ReaderBuffer buffer, final int[] objectIDs) {
+        for (final int objectID : objectIDs) {
+            final PTObject ptObject = unregisterObject(objectID);
+            if (ptObject != null) ptObject.destroy();
+            else log.warning("Cannot GC a garbaged PTObject #" + objectID);
+        }
+        buffer.readBinaryModel(); // Read ServerToClientModel.END element
+    }
+
     private PTObject unregisterObject(final int objectID) {
         final PTObject ptObject = objectByID.get(objectID);
         objectByID.remove(objectID);
@@ -376,11 +441,26 @@ public class UIBuilder {
         requestBuilder.send(instruction);
     }
 
+    /**
+     * Queues the instruction, all the instructions queued during the same animation frame are sent in
+     * a single message
+     */
     public void sendDataToServer(final JSONObject instruction) {
+        if (pendingInstructions == null) {
+            pendingInstructions = new JSONArray();
+            AnimationScheduler.get().requestAnimationFrame(timestamp -> sendPendingInstructions());
+            pendingInstructionsTimer.schedule(PENDING_INSTRUCTIONS_MAX_DELAY_MILLIS);
+        }
+        pendingInstructions.set(pendingInstructions.size(), instruction);
+    }
+
+    public void sendPendingInstructions() {
+        if (pendingInstructions == null) return;
+
         final PTInstruction requestData = new PTInstruction();
-        final JSONArray jsonArray = new JSONArray();
-        jsonArray.set(0, instruction);
-        requestData.put(ClientToServerModel.APPLICATION_INSTRUCTIONS, jsonArray);
+        requestData.put(ClientToServerModel.APPLICATION_INSTRUCTIONS, pendingInstructions);
+        pendingInstructions = null;
+        pendingInstructionsTimer.cancel();
 
         if (log.isLoggable(Level.FINE)) log.log(Level.FINE, "Data to send " + requestData.toString());
 
@@ -23,6 +23,8 @@
 
 package com.ponysdk.core.terminal.model;
 
+import java.util.Arrays;
+
 import com.google.gwt.json.client.JSONObject;
 import com.ponysdk.core.model.ServerToClientModel;
 import com.ponysdk.core.model.ValueTypeModel;
@@ -40,6 +42,7 @@ public class BinaryModel {
     private double doubleValue;
     private String stringValue;
     private JSONObject jsonObject;
+    private int[] intArrayValue;
 
     protected BinaryModel() {
     }
@@ -84,6 +87,11 @@ public class BinaryModel {
         this.jsonObject = value;
     }
 
+    public void init(final ServerToClientModel key, final int[] value, final int size) {
+        init(key, size);
+        this.intArrayValue = value;
+    }
+
     public void init(final ServerToClientModel key, final int value) {
         this.model = key;
         this.size = value;
@@ -125,6 +133,10 @@ public class BinaryModel {
         return jsonObject;
     }
 
+    public int[] getIntArrayValue() {
+        return intArrayValue;
+    }
+
     public int getSize() {
         return size;
     }
@@ -143,7 +155,9 @@ public class BinaryModel {
         else if (ValueTypeModel.DOUBLE == typeModel) return model + " => " + doubleValue;
         else if (ValueTypeModel.STRING == typeModel) return model + " => " + stringValue;
         else if (ValueTypeModel.STRING_UTF8 == typeModel) return model + " => " + stringValue;
+        else if (ValueTypeModel.STRING_DICTIONARY == typeModel) return model + " => " + stringValue;
         else if (ValueTypeModel.JSON_OBJECT == typeModel) return model + " => " + jsonObject;
+        else if (ValueTypeModel.INTEGER_ARRAY == typeModel) return model + " => " + Arrays.toString(intArrayValue);
         else throw new IllegalArgumentException("No model type configured : " + typeModel);
     }
 
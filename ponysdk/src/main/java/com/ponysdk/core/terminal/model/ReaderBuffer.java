@@ -23,6 +23,7 @@
 
 package com.ponysdk.core.terminal.model;
 
+import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.json.client.JSONException;
 import com.google.gwt.json.client.JSONObject;
 import com.google.gwt.json.client.JSONParser;
@@ -39,9 +40,16 @@ public class ReaderBuffer {
     public static final int NOT_FULL_BUFFER_POSITION = -1;
     private static final byte TRUE = 1;
 
+    // Null if the browser has no TextDecoder, the UTF-8 strings are decoded by $wnd.decode
+    private static final JavaScriptObject UTF8_DECODER = newTextDecoder("utf-8");
+
     private final BinaryModel currentBinaryModel;
 
+    private final String[] dictionary = new String[ValueTypeModel.DICTIONARY_MAX_SIZE];
+
     private Uint8Array buffer;
+    // DataView on the same bytes as buffer, the numbers are read without being rebuilt byte by byte
+    private JavaScriptObject view;
 
     private int position;
 
@@ -71,6 +79,7 @@ public class ReaderBuffer {
 
         this.position = 0;
         this.size = this.buffer.getByteLength();
+        this.view = newDataView(this.buffer);
     }
 
     // WORKAROUND : No setElements on Uint8Array but Elemental need it, create a passthrough
@@ -82,6 +91,35 @@ public class ReaderBuffer {
                                                                                                     return $wnd.decode(buffer, position, size);
                                                                                                     }-*/;
 
+    private static final native String decode(JavaScriptObject decoder, Uint8Array buffer, int position, int endPosition) /*-{
+                                                                                                                      return decoder.decode(buffer.subarray(position, endPosition));
+                                                                                                                      }-*/;
+
+    private static final native JavaScriptObject newTextDecoder(String charset) /*-{
+                                                                               return typeof $wnd.TextDecoder === 'function' ? new $wnd.TextDecoder(charset) : null;
+                                                                               }-*/;
+
+    private static final native JavaScriptObject newDataView(Uint8Array buffer) /*-{
+                                                                                return new DataView(buffer.buffer, buffer.byteOffset, buffer.byteLength);
+                                                                                }-*/;
+
+    // Big endian reads, same byte order as the server ByteBuffer
+    private static final native byte getInt8(JavaScriptObject view, int position) /*-{
+                                                                                  return view.getInt8(position);
+                                                                                  }-*/;
+
+    private static final native short getInt16(JavaScriptObject view, int position) /*-{
+                                                                                    return view.getInt16(position);
+                                                                                    }-*/;
+
+    private static final native int getInt32(JavaScriptObject view, int position) /*-{
+                                                                                  return view.getInt32(position);
+                                                                                  }-*/;
+
+    private static final native double getFloat64(JavaScriptObject view, int position) /*-{
+                                                                                       return view.getFloat64(position);
+                                                                                       }-*/;
+
     private static final native String fromCharCode(Uint8Array buffer) /*-{
                                                                        return String.fromCharCode.apply(null, buffer);
                                                                        }-*/;
@@ -112,11 +150,27 @@ public class ReaderBuffer {
             final int messageSize = getUnsignedShort();
             size += messageSize;
             currentBinaryModel.init(key, getStringUTF8(messageSize), size);
+        } else if (ValueTypeModel.STRING_DICTIONARY == typeModel) {
+            size += ValueTypeModel.SHORT_SIZE;
+            final int reference = getUnsignedShort();
+            if ((reference & ValueTypeModel.DICTIONARY_NEW_ENTRY_MASK) == 0) {
+                currentBinaryModel.init(key, dictionary[reference], size);
+            } else {
+                size += ValueTypeModel.SHORT_SIZE;
+                final int messageSize = getUnsignedShort();
+                size += messageSize;
+                currentBinaryModel.init(key, getDictionaryEntry(reference, messageSize), size);
+            }
         } else if (ValueTypeModel.JSON_OBJECT == typeModel) {
             size += ValueTypeModel.INTEGER_SIZE;
             final int jsonSize = getInt();
             size += jsonSize;
             currentBinaryModel.init(key, getJson(jsonSize), size);
+        } else if (ValueTypeModel.INTEGER_ARRAY == typeModel) {
+            size += ValueTypeModel.INTEGER_SIZE;
+            final int length = getInt();
+            size += length * ValueTypeModel.INTEGER_SIZE;
+            currentBinaryModel.init(key, getIntArray(length), size);
         } else if (ValueTypeModel.NULL == typeModel) {
             currentBinaryModel.init(key, size);
         } else if (ValueTypeModel.BOOLEAN == typeModel) {
@@ -126,19 +180,11 @@ public class ReaderBuffer {
             size += ValueTypeModel.BYTE_SIZE;
             currentBinaryModel.init(key, getByte(), size);
         } else if (ValueTypeModel.DOUBLE == typeModel) {
-            // TODO Read really a double
-            // return new BinaryModel(key, getDouble(), size);
-            size += ValueTypeModel.BYTE_SIZE;
-            final short messageDoubleSize = getUnsignedByte();
-            size += messageDoubleSize;
-            currentBinaryModel.init(key, Double.parseDouble(getString(messageDoubleSize)), size);
+            size += ValueTypeModel.DOUBLE_SIZE;
+            currentBinaryModel.init(key, getDouble(), size);
         } else if (ValueTypeModel.LONG == typeModel) {
-            // TODO Read really a long
-            // return new BinaryModel(key, getLong(), size);
-            size += ValueTypeModel.BYTE_SIZE;
-            final short messageLongSize = getUnsignedByte();
-            size += messageLongSize;
-            currentBinaryModel.init(key, Long.parseLong(getString(messageLongSize)), size);
+            size += ValueTypeModel.LONG_SIZE;
+            currentBinaryModel.init(key, getLong(), size);
         } else if (ValueTypeModel.SHORT == typeModel) {
             size += ValueTypeModel.SHORT_SIZE;
             currentBinaryModel.init(key, getShort(), size);
@@ -151,12 +197,12 @@ public class ReaderBuffer {
     }
 
     private boolean getBoolean() {
-        if (hasEnoughRemainingBytes(ValueTypeModel.BOOLEAN_SIZE)) return buffer.intAt(position++) == TRUE;
+        if (hasEnoughRemainingBytes(ValueTypeModel.BOOLEAN_SIZE)) return getInt8(view, position++) == TRUE;
         else throw new ArrayIndexOutOfBoundsException();
     }
 
     private byte getByte() {
-        if (hasEnoughRemainingBytes(ValueTypeModel.BYTE_SIZE)) return (byte) buffer.intAt(position++);
+        if (hasEnoughRemainingBytes(ValueTypeModel.BYTE_SIZE)) return getInt8(view, position++);
         else throw new ArrayIndexOutOfBoundsException();
     }
 
@@ -166,9 +212,9 @@ public class ReaderBuffer {
 
     private short getShort() {
         if (hasEnoughRemainingBytes(ValueTypeModel.SHORT_SIZE)) {
-            int result = buffer.intAt(position++);
-            result = (result << 8) + buffer.intAt(position++);
-            return (short) result;
+            final short result = getInt16(view, position);
+            position += ValueTypeModel.SHORT_SIZE;
+            return result;
         } else {
             throw new ArrayIndexOutOfBoundsException();
         }
@@ -180,10 +226,41 @@ public class ReaderBuffer {
 
     private int getInt() {
         if (hasEnoughRemainingBytes(ValueTypeModel.INTEGER_SIZE)) {
-            int result = buffer.intAt(position++);
-            result = (result << 8) + buffer.intAt(position++);
-            result = (result << 8) + buffer.intAt(position++);
-            result = (result << 8) + buffer.intAt(position++);
+            final int result = getInt32(view, position);
+            position += ValueTypeModel.INTEGER_SIZE;
+            return result;
+        } else {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+    }
+
+    private long getLong() {
+        if (hasEnoughRemainingBytes(ValueTypeModel.LONG_SIZE)) {
+            final long high = getInt();
+            final long low = getInt() & 0xFFFFFFFFL;
+            return high << 32 | low;
+        } else {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+    }
+
+    private double getDouble() {
+        if (hasEnoughRemainingBytes(ValueTypeModel.DOUBLE_SIZE)) {
+            final double result = getFloat64(view, position);
+            position += ValueTypeModel.DOUBLE_SIZE;
+            return result;
+        } else {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+    }
+
+    private int[] getIntArray(final int length) {
+        if (hasEnoughRemainingBytes(length * ValueTypeModel.INTEGER_SIZE)) {
+            final int[] result = new int[length];
+            for (int i = 0; i < length; i++) {
+                result[i] = getInt32(view, position);
+                position += ValueTypeModel.INTEGER_SIZE;
+            }
             return result;
         } else {
             throw new ArrayIndexOutOfBoundsException();
@@ -211,7 +288,8 @@ public class ReaderBuffer {
     private String getStringUTF8(final int size) {
         if (size != 0) {
             if (hasEnoughRemainingBytes(size)) {
-                final String result = decode(buffer, position, position + size);
+                final String result = UTF8_DECODER != null ? decode(UTF8_DECODER, buffer, position, position + size)
+                        : decode(buffer, position, position + size);
                 position += size;
                 return result;
             } else {
@@ -222,6 +300,24 @@ public class ReaderBuffer {
         }
     }
 
+    /**
+     * Read an inline or new dictionary value. A new entry can already be known if its block has been
+     * shifted before, in that case the string is not decoded again.
+     */
+    private String getDictionaryEntry(final int reference, final int size) {
+        if (ValueTypeModel.DICTIONARY_INLINE_VALUE == reference) return getStringUTF8(size);
+
+        final int id = reference & ~ValueTypeModel.DICTIONARY_NEW_ENTRY_MASK;
+        String value = dictionary[id];
+        if (value == null) {
+            value = getStringUTF8(size);
+            dictionary[id] = value;
+        } else {
+            position += size;
+        }
+        return value;
+    }
+
     private JSONObject getJson(final int msgSize) {
         final String s = getStringUTF8(msgSize);
         try {
@@ -286,9 +382,20 @@ public class ReaderBuffer {
         } else if (ValueTypeModel.STRING_UTF8 == typeModel) {
             final int stringSize = getUnsignedShort();
             position += stringSize;
+        } else if (ValueTypeModel.STRING_DICTIONARY == typeModel) {
+            final int reference = getUnsignedShort();
+            if ((reference & ValueTypeModel.DICTIONARY_NEW_ENTRY_MASK) != 0) {
+                final int stringSize = getUnsignedShort();
+                // Register the new entries even when the block is skipped, next blocks can refer to them
+                if (ValueTypeModel.DICTIONARY_INLINE_VALUE != reference) getDictionaryEntry(reference, stringSize);
+                else position += stringSize;
+            }
         } else if (ValueTypeModel.JSON_OBJECT == typeModel) {
             final int jsonSize = getInt();
             position += jsonSize;
+        } else if (ValueTypeModel.INTEGER_ARRAY == typeModel) {
+            final int length = getInt();
+            position += length * ValueTypeModel.INTEGER_SIZE;
         } else if (ValueTypeModel.NULL == typeModel) {
             // Nothing to do
         } else if (ValueTypeModel.BOOLEAN == typeModel) {
@@ -296,11 +403,9 @@ public class ReaderBuffer {
         } else if (ValueTypeModel.BYTE == typeModel) {
             position += ValueTypeModel.BYTE_SIZE;
         } else if (ValueTypeModel.DOUBLE == typeModel) {
-            final short doubleSize = getUnsignedByte();
-            position += doubleSize;
+            position += ValueTypeModel.DOUBLE_SIZE;
         } else if (ValueTypeModel.LONG == typeModel) {
-            final short longSize = getUnsignedByte();
-            position += longSize;
+            position += ValueTypeModel.LONG_SIZE;
         } else if (ValueTypeModel.SHORT == typeModel) {
             position += ValueTypeModel.SHORT_SIZE;
         } else {
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2011 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *  Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *  Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.terminal.request;
+
+import java.util.Set;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.json.client.JSONArray;
+import com.google.gwt.json.client.JSONBoolean;
+import com.google.gwt.json.client.JSONNumber;
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.json.client.JSONString;
+import com.google.gwt.json.client.JSONValue;
+import com.ponysdk.core.model.ClientToServerModel;
+import com.ponysdk.core.model.ClientToServerValueTypeModel;
+import com.ponysdk.core.model.ValueTypeModel;
+
+/**
+ * Encodes the JSON messages to the server as described by {@link ClientToServerValueTypeModel}
+ */
+public class BinaryRequestEncoder {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final int MAX_UNSIGNED_SHORT = 0xFFFF;
+
+    // DataView on the reused ArrayBuffer
+    private JavaScriptObject view;
+
+    private int position;
+
+    public static final native boolean isSupported() /*-{
+                                                     return typeof $wnd.DataView === 'function' && typeof $wnd.encode === 'function';
+                                                     }-*/;
+
+    /**
+     * @return an ArrayBuffer holding only the encoded message
+     */
+    public JavaScriptObject encode(final JSONObject message) {
+        if (view == null) view = newDataView(INITIAL_CAPACITY);
+        position = 0;
+        writeObject(message);
+        return slice(view, position);
+    }
+
+    private void writeValue(final JSONValue value) {
+        if (value == null || value.isNull() != null) {
+            writeType(ClientToServerValueTypeModel.NULL);
+            return;
+        }
+
+        final JSONObject object = value.isObject();
+        if (object != null) {
+            writeObject(object);
+            return;
+        }
+
+        final JSONArray array = value.isArray();
+        if (array != null) {
+            writeType(ClientToServerValueTypeModel.ARRAY);
+            final int size = array.size();
+            writeInt(size);
+            for (int i = 0; i < size; i++) {
+                writeValue(array.get(i));
+            }
+            return;
+        }
+
+        final JSONString string = value.isString();
+        if (string != null) {
+            writeType(ClientToServerValueTypeModel.STRING);
+            final JavaScriptObject bytes = encodeUTF8(string.stringValue());
+            writeInt(byteLength(bytes));
+            writeBytes(bytes);
+            return;
+        }
+
+        final JSONNumber number = value.isNumber();
+        if (number != null) {
+            final double doubleValue = number.doubleValue();
+            final int intValue = (int) doubleValue;
+            if (intValue == doubleValue) {
+                writeType(ClientToServerValueTypeModel.INTEGER);
+                writeInt(intValue);
+            } else {
+                writeType(ClientToServerValueTypeModel.DOUBLE);
+                ensureCapacity(ValueTypeModel.DOUBLE_SIZE);
+                setFloat64(view, position, doubleValue);
+                position += ValueTypeModel.DOUBLE_SIZE;
+            }
+            return;
+        }
+
+        final JSONBoolean bool = value.isBoolean();
+        if (bool != null) {
+            writeType(bool.booleanValue() ? ClientToServerValueTypeModel.TRUE : ClientToServerValueTypeModel.FALSE);
+            return;
+        }
+
+        throw new IllegalArgumentException("Unsupported JSON value : " + value);
+    }
+
+    private void writeObject(final JSONObject object) {
+        writeType(ClientToServerValueTypeModel.OBJECT);
+        final Set<String> keys = object.keySet();
+        writeInt(keys.size());
+        for (final String key : keys) {
+            final ClientToServerModel model = ClientToServerModel.fromStringValue(key);
+            if (model != null) {
+                writeByte(model.getValue());
+            } else {
+                final JavaScriptObject bytes = encodeUTF8(key);
+                final int length = byteLength(bytes);
+                if (length > MAX_UNSIGNED_SHORT) throw new IllegalArgumentException("Key too long : " + length + " bytes");
+                writeByte(ClientToServerValueTypeModel.STRING_KEY);
+                ensureCapacity(ValueTypeModel.SHORT_SIZE);
+                setUint16(view, position, length);
+                position += ValueTypeModel.SHORT_SIZE;
+                writeBytes(bytes);
+            }
+            writeValue(object.get(key));
+        }
+    }
+
+    private void writeType(final ClientToServerValueTypeModel type) {
+        writeByte(type.getValue());
+    }
+
+    private void writeByte(final byte value) {
+        ensureCapacity(ValueTypeModel.BYTE_SIZE);
+        setInt8(view, position, value);
+        position += ValueTypeModel.BYTE_SIZE;
+    }
+
+    private void writeInt(final int value) {
+        ensureCapacity(ValueTypeModel.INTEGER_SIZE);
+        setInt32(view, position, value);
+        position += ValueTypeModel.INTEGER_SIZE;
+    }
+
+    private void writeBytes(final JavaScriptObject bytes) {
+        final int length = byteLength(bytes);
+        ensureCapacity(length);
+        setBytes(view, position, bytes);
+        position += length;
+    }
+
+    private void ensureCapacity(final int size) {
+        final int capacity = byteLength(view);
+        if (position + size > capacity) view = grow(view, position, Math.max(capacity << 1, position + size));
+    }
+
+    private static final native JavaScriptObject newDataView(int capacity) /*-{
+                                                                           return new DataView(new ArrayBuffer(capacity));
+                                                                           }-*/;
+
+    private static final native JavaScriptObject grow(JavaScriptObject view, int size, int capacity) /*-{
+                                                                                                     var buffer = new ArrayBuffer(capacity);
+                                                                                                     new Uint8Array(buffer).set(new Uint8Array(view.buffer, 0, size));
+                                                                                                     return new DataView(buffer);
+                                                                                                     }-*/;
+
+    private static final native JavaScriptObject slice(JavaScriptObject view, int size) /*-{
+                                                                                        return view.buffer.slice(0, size);
+                                                                                        }-*/;
+
+    private static final native int byteLength(JavaScriptObject bytes) /*-{
+                                                                       return bytes.byteLength;
+                                                                       }-*/;
+
+    private static final native JavaScriptObject encodeUTF8(String value) /*-{
+                                                                          return $wnd.encode(value);
+                                                                          }-*/;
+
+    private static final native void setBytes(JavaScriptObject view, int position, JavaScriptObject bytes) /*-{
+                                                                                                           new Uint8Array(view.buffer).set(bytes, position);
+                                                                                                           }-*/;
+
+    private static final native void setInt8(JavaScriptObject view, int position, byte value) /*-{
+                                                                                              view.setInt8(position, value);
+                                                                                              }-*/;
+
+    // Big endian, same byte order as the server ByteBuffer
+    private static final native void setUint16(JavaScriptObject view, int position, int value) /*-{
+                                                                                               view.setUint16(position, value);
+                                                                                               }-*/;
+
+    private static final native void setInt32(JavaScriptObject view, int position, int value) /*-{
+                                                                                              view.setInt32(position, value);
+                                                                                              }-*/;
+
+    private static final native void setFloat64(JavaScriptObject view, int position, double value) /*-{
+                                                                                                   view.setFloat64(position, value);
+                                                                                                   }-*/;
+
+}
@@ -23,19 +23,39 @@
 
 package com.ponysdk.core.terminal.request;
 
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.gwt.json.client.JSONObject;
 import com.google.gwt.json.client.JSONValue;
 import com.ponysdk.core.terminal.socket.WebSocketClient;
 
 public class WebSocketRequestBuilder implements RequestBuilder {
 
+    private static final Logger log = Logger.getLogger(WebSocketRequestBuilder.class.getName());
+
     private final WebSocketClient webSocketClient;
 
+    // Null when the browser can't encode binary messages, the JSON text messages are sent instead
+    private BinaryRequestEncoder binaryEncoder;
+
     public WebSocketRequestBuilder(final WebSocketClient webSocketClient) {
         this.webSocketClient = webSocketClient;
+        if (BinaryRequestEncoder.isSupported()) binaryEncoder = new BinaryRequestEncoder();
     }
 
     @Override
     public void send(final JSONValue value) {
+        final JSONObject object = value.isObject();
+        if (binaryEncoder != null && object != null) {
+            try {
+                webSocketClient.send(binaryEncoder.encode(object));
+                return;
+            } catch (final Exception e) {
+                log.log(Level.WARNING, "Cannot send a binary message, falling back to JSON text messages", e);
+                binaryEncoder = null;
+            }
+        }
         webSocketClient.send(value.toString());
     }
 
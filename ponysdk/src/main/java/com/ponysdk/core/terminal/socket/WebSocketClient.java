@@ -26,6 +26,7 @@ package com.ponysdk.core.terminal.socket;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.core.client.Scheduler;
 import com.ponysdk.core.model.ClientToServerModel;
 import com.ponysdk.core.terminal.ReconnectionChecker;
@@ -96,6 +97,15 @@ public class WebSocketClient {
         webSocket.send(message);
     }
 
+    public void send(final JavaScriptObject arrayBuffer) {
+        send(webSocket, arrayBuffer);
+    }
+
+    // Elemental WebSocket only declares send(String)
+    private static final native void send(WebSocket webSocket, JavaScriptObject arrayBuffer) /*-{
+                                                                                             webSocket.send(arrayBuffer);
+                                                                                             }-*/;
+
     public void close() {
         webSocket.close();
     }
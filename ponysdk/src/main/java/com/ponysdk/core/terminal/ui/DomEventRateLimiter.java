@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2011 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.terminal.ui;
+
+import com.google.gwt.user.client.Timer;
+import com.ponysdk.core.model.ServerToClientModel;
+
+/**
+ * Throttles or debounces the sending of the events of a DOM handler, as configured by
+ * {@link ServerToClientModel#DOM_HANDLER_THROTTLE} or {@link ServerToClientModel#DOM_HANDLER_DEBOUNCE}
+ */
+final class DomEventRateLimiter {
+
+    private final boolean debounce;
+    private final int delayMillis;
+
+    private final Timer timer = new Timer() {
+
+        @Override
+        public void run() {
+            onDelayElapsed();
+        }
+    };
+
+    private Runnable pendingSender;
+
+    DomEventRateLimiter(final ServerToClientModel model, final int delayMillis) {
+        this.debounce = ServerToClientModel.DOM_HANDLER_DEBOUNCE == model;
+        this.delayMillis = delayMillis;
+    }
+
+    void submit(final Runnable sender) {
+        if (debounce) {
+            pendingSender = sender;
+            timer.schedule(delayMillis);
+        } else if (timer.isRunning()) {
+            pendingSender = sender;
+        } else {
+            sender.run();
+            timer.schedule(delayMillis);
+        }
+    }
+
+    private void onDelayElapsed() {
+        final Runnable sender = pendingSender;
+        if (sender == null) return;
+        pendingSender = null;
+        sender.run();
+        // A throttled event has been sent, the next one has to wait for a new period
+        if (!debounce) timer.schedule(delayMillis);
+    }
+
+}
@@ -38,6 +38,7 @@ import com.ponysdk.core.terminal.model.ReaderBuffer;
 public class PTScrollPanel extends PTSimplePanel<ScrollPanel> {
 
     private boolean dragging;
+    private DomEventRateLimiter rateLimiter;
 
     @Override
     protected ScrollPanel createUIObject() {
@@ -74,8 +75,9 @@ public class PTScrollPanel extends PTSimplePanel<ScrollPanel> {
     @Override
     public void addHandler(final ReaderBuffer buffer, final HandlerModel handlerModel) {
         if (HandlerModel.HANDLER_SCROLL == handlerModel) {
+            readRateLimiter(buffer);
             uiObject.addScrollHandler(event -> {
-                if (!dragging) sendScrollPositionEvent();
+                if (!dragging) submitScrollPositionEvent();
             });
             uiObject.addDomHandler(event -> {
                 if (DOM.getCaptureElement() == null) {
@@ -87,13 +89,28 @@ public class PTScrollPanel extends PTSimplePanel<ScrollPanel> {
                 dragging = false;
                 DOM.releaseCapture(uiObject.getElement());
 
-                sendScrollPositionEvent();
+                submitScrollPositionEvent();
             }, MouseUpEvent.getType());
         } else {
             super.addHandler(buffer, handlerModel);
         }
     }
 
+    private void readRateLimiter(final ReaderBuffer buffer) {
+        final BinaryModel binaryModel = buffer.readBinaryModel();
+        final ServerToClientModel model = binaryModel.getModel();
+        if (ServerToClientModel.DOM_HANDLER_THROTTLE == model || ServerToClientModel.DOM_HANDLER_DEBOUNCE == model) {
+            rateLimiter = new DomEventRateLimiter(model, binaryModel.getIntValue());
+        } else {
+            buffer.rewind(binaryModel);
+        }
+    }
+
+    private void submitScrollPositionEvent() {
+        if (rateLimiter != null) rateLimiter.submit(this::sendScrollPositionEvent);
+        else sendScrollPositionEvent();
+    }
+
     private void sendScrollPositionEvent() {
         final PTInstruction eventInstruction = new PTInstruction(getObjectID());
         eventInstruction.put(ClientToServerModel.HANDLER_SCROLL);
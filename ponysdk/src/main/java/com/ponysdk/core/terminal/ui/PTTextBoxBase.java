@@ -66,40 +66,35 @@ public abstract class PTTextBoxBase<T extends TextBoxBase> extends PTValueBoxBas
     @Override
     protected void triggerKeyUpEvent(final DomHandlerType domHandlerType, final JSONArray keyUpFilter) {
         uiObject.addKeyUpHandler(event -> {
+            final int nativeKeyCode = event.getNativeKeyCode();
             if (keyUpFilter != null) {
                 for (int i = 0; i < keyUpFilter.size(); i++) {
                     final JSONNumber keyCode = keyUpFilter.get(i).isNumber();
-                    if (keyCode.doubleValue() == event.getNativeKeyCode()) {
-                        final String newValue = uiObject.getText();
-                        if (!Objects.equals(newValue, this.lastValue)) {
-                            this.lastValue = newValue;
-                            final PTInstruction changeHandlerInstruction = new PTInstruction(getObjectID());
-                            changeHandlerInstruction.put(ClientToServerModel.HANDLER_STRING_VALUE_CHANGE, this.lastValue);
-                            uiBuilder.sendDataToServer(changeHandlerInstruction);
-                        }
-
-                        final PTInstruction eventInstruction = buildEventInstruction(domHandlerType);
-                        eventInstruction.put(ClientToServerModel.VALUE_KEY, event.getNativeKeyCode());
-                        uiBuilder.sendDataToServer(eventInstruction);
-
+                    if (keyCode.doubleValue() == nativeKeyCode) {
+                        sendDomEvent(domHandlerType, () -> sendKeyUpEvent(domHandlerType, nativeKeyCode));
                         break;
                     }
                 }
             } else {
-                final String newValue = uiObject.getText();
-                if (!Objects.equals(newValue, this.lastValue)) {
-                    this.lastValue = newValue;
-                    final PTInstruction changeHandlerInstruction = new PTInstruction(getObjectID());
-                    changeHandlerInstruction.put(ClientToServerModel.HANDLER_STRING_VALUE_CHANGE, this.lastValue);
-                    uiBuilder.sendDataToServer(changeHandlerInstruction);
-                }
-
-                final PTInstruction eventInstruction = buildEventInstruction(domHandlerType);
-                eventInstruction.put(ClientToServerModel.VALUE_KEY, event.getNativeKeyCode());
-                uiBuilder.sendDataToServer(eventInstruction);
+                sendDomEvent(domHandlerType, () -> sendKeyUpEvent(domHandlerType, nativeKeyCode));
             }
             preventOrStopEvent(event);
         });
     }
 
+    // The text is read when sending, a throttled or debounced event carries the latest value
+    private void sendKeyUpEvent(final DomHandlerType domHandlerType, final int nativeKeyCode) {
+        final String newValue = uiObject.getText();
+        if (!Objects.equals(newValue, this.lastValue)) {
+            this.lastValue = newValue;
+            final PTInstruction changeHandlerInstruction = new PTInstruction(getObjectID());
+            changeHandlerInstruction.put(ClientToServerModel.HANDLER_STRING_VALUE_CHANGE, this.lastValue);
+            uiBuilder.sendDataToServer(changeHandlerInstruction);
+        }
+
+        final PTInstruction eventInstruction = buildEventInstruction(domHandlerType);
+        eventInstruction.put(ClientToServerModel.VALUE_KEY, nativeKeyCode);
+        uiBuilder.sendDataToServer(eventInstruction);
+    }
+
 }
@@ -23,7 +23,9 @@
 
 package com.ponysdk.core.terminal.ui;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
 
@@ -71,6 +73,7 @@ public abstract class PTWidget<T extends Widget> extends PTUIObject<T> implement
 
     private Set<Integer> preventedEvents;
     private Set<Integer> stoppedEvents;
+    private Map<DomHandlerType, DomEventRateLimiter> rateLimiters;
 
     @Override
     public boolean update(final ReaderBuffer buffer, final BinaryModel binaryModel) {
@@ -97,6 +100,7 @@ public abstract class PTWidget<T extends Widget> extends PTUIObject<T> implement
         if (HandlerModel.HANDLER_DOM == handlerModel) {
             // ServerToClientModel.DOM_HANDLER_CODE
             final DomHandlerType domHandlerType = DomHandlerType.fromRawValue(buffer.readBinaryModel().getByteValue());
+            readRateLimiter(buffer, domHandlerType);
             addDomHandler(buffer, domHandlerType);
         } else {
             super.addHandler(buffer, handlerModel);
@@ -118,6 +122,17 @@ public abstract class PTWidget<T extends Widget> extends PTUIObject<T> implement
         return uiObject;
     }
 
+    private void readRateLimiter(final ReaderBuffer buffer, final DomHandlerType domHandlerType) {
+        final BinaryModel binaryModel = buffer.readBinaryModel();
+        final ServerToClientModel model = binaryModel.getModel();
+        if (ServerToClientModel.DOM_HANDLER_THROTTLE == model || ServerToClientModel.DOM_HANDLER_DEBOUNCE == model) {
+            if (rateLimiters == null) rateLimiters = new HashMap<>(4);
+            rateLimiters.put(domHandlerType, new DomEventRateLimiter(model, binaryModel.getIntValue()));
+        } else {
+            buffer.rewind(binaryModel);
+        }
+    }
+
     private void addDomHandler(final ReaderBuffer buffer, final DomHandlerType domHandlerType) {
         if (DomHandlerType.CLICK == domHandlerType) {
             uiObject.addDomHandler(event -> triggerMouseEvent(domHandlerType, event), ClickEvent.getType());
@@ -167,7 +182,7 @@ public abstract class PTWidget<T extends Widget> extends PTUIObject<T> implement
                 final String dragWidgetID = event.getData("text");
                 final PTInstruction eventInstruction = buildEventInstruction(domHandlerType);
                 if (dragWidgetID != null) eventInstruction.put(ClientToServerModel.DRAG_SRC, Long.parseLong(dragWidgetID));
-                uiBuilder.sendDataToServer(uiObject, eventInstruction);
+                sendDomEvent(domHandlerType, eventInstruction);
             }, DropEvent.getType());
         } else if (DomHandlerType.CONTEXT_MENU == domHandlerType) {
             uiObject.addDomHandler(event -> triggerDomEvent(domHandlerType, event), ContextMenuEvent.getType());
@@ -176,6 +191,19 @@ public abstract class PTWidget<T extends Widget> extends PTUIObject<T> implement
         }
     }
 
+    /**
+     * Sends the event instruction, throttled or debounced if the server asked for it
+     */
+    protected void sendDomEvent(final DomHandlerType domHandlerType, final PTInstruction eventInstruction) {
+        sendDomEvent(domHandlerType, () -> uiBuilder.sendDataToServer(uiObject, eventInstruction));
+    }
+
+    protected void sendDomEvent(final DomHandlerType domHandlerType, final Runnable sender) {
+        final DomEventRateLimiter rateLimiter = rateLimiters != null ? rateLimiters.get(domHandlerType) : null;
+        if (rateLimiter != null) rateLimiter.submit(sender);
+        else sender.run();
+    }
+
     protected PTInstruction buildEventInstruction(final DomHandlerType domHandlerType) {
         final PTInstruction eventInstruction = new PTInstruction(getObjectID());
         eventInstruction.put(ClientToServerModel.DOM_HANDLER_TYPE, domHandlerType.getValue());
@@ -184,7 +212,7 @@ public abstract class PTWidget<T extends Widget> extends PTUIObject<T> implement
 
     private void triggerDomEvent(final DomHandlerType domHandlerType, final DomEvent<?> event) {
         final PTInstruction eventInstruction = buildEventInstruction(domHandlerType);
-        uiBuilder.sendDataToServer(uiObject, eventInstruction);
+        sendDomEvent(domHandlerType, eventInstruction);
         preventOrStopEvent(event);
     }
 
@@ -210,7 +238,7 @@ public abstract class PTWidget<T extends Widget> extends PTUIObject<T> implement
         widgetInfo.set(3, new JSONNumber(uiObject.getOffsetWidth()));
         eventInstruction.put(ClientToServerModel.WIDGET_POSITION, widgetInfo);
 
-        uiBuilder.sendDataToServer(uiObject, eventInstruction);
+        sendDomEvent(domHandlerType, eventInstruction);
 
         preventOrStopEvent(event);
     }
@@ -233,7 +261,7 @@ public abstract class PTWidget<T extends Widget> extends PTUIObject<T> implement
         widgetInfo.set(3, new JSONNumber(uiObject.getOffsetWidth()));
         eventInstruction.put(ClientToServerModel.WIDGET_POSITION, widgetInfo);
 
-        uiBuilder.sendDataToServer(uiObject, eventInstruction);
+        sendDomEvent(domHandlerType, eventInstruction);
 
         preventOrStopEvent(event);
     }
@@ -247,12 +275,12 @@ public abstract class PTWidget<T extends Widget> extends PTUIObject<T> implement
                 for (int i = 0; i < keyFilter.size(); i++) {
                     final JSONNumber keyCode = keyFilter.get(i).isNumber();
                     if (keyCode.doubleValue() == event.getNativeEvent().getKeyCode()) {
-                        uiBuilder.sendDataToServer(uiObject, eventInstruction);
+                        sendDomEvent(domHandlerType, eventInstruction);
                         break;
                     }
                 }
             } else {
-                uiBuilder.sendDataToServer(uiObject, eventInstruction);
+                sendDomEvent(domHandlerType, eventInstruction);
             }
 
             preventOrStopEvent(event);
@@ -268,12 +296,12 @@ public abstract class PTWidget<T extends Widget> extends PTUIObject<T> implement
                 for (int i = 0; i < keyFilter.size(); i++) {
                     final JSONNumber keyCode = keyFilter.get(i).isNumber();
                     if (keyCode.doubleValue() == event.getNativeKeyCode()) {
-                        uiBuilder.sendDataToServer(uiObject, eventInstruction);
+                        sendDomEvent(domHandlerType, eventInstruction);
                         break;
                     }
                 }
             } else {
-                uiBuilder.sendDataToServer(uiObject, eventInstruction);
+                sendDomEvent(domHandlerType, eventInstruction);
             }
 
             preventOrStopEvent(event);
@@ -289,12 +317,12 @@ public abstract class PTWidget<T extends Widget> extends PTUIObject<T> implement
                 for (int i = 0; i < keyUpFilter.size(); i++) {
                     final JSONNumber keyCode = keyUpFilter.get(i).isNumber();
                     if (keyCode.doubleValue() == event.getNativeKeyCode()) {
-                        uiBuilder.sendDataToServer(uiObject, eventInstruction);
+                        sendDomEvent(domHandlerType, eventInstruction);
                         break;
                     }
                 }
             } else {
-                uiBuilder.sendDataToServer(uiObject, eventInstruction);
+                sendDomEvent(domHandlerType, eventInstruction);
             }
             preventOrStopEvent(event);
         }, KeyUpEvent.getType());
@@ -233,8 +233,21 @@ public abstract class PObject {
     private void saveUpdate(final int atomicKey, final ModelWriterCallback callback) {
         if (destroy) return;
 
-        if (initialized) writeUpdate(callback);
-        else safeStackedInstructions().put(atomicKey, () -> writeUpdate(callback));
+        if (initialized) writeUpdate(atomicKey, callback);
+        else safeStackedInstructions().put(atomicKey, () -> writeUpdate(atomicKey, callback));
+    }
+
+    private void writeUpdate(final int atomicKey, final ModelWriterCallback callback) {
+        if (destroy) return;
+
+        final Txn txn = Txn.get();
+        if (txn.isCoalescingUpdates()) {
+            final PWindow window = this.window;
+            final PFrame frame = this.frame;
+            txn.stackUpdate(ID, writer -> writeUpdateHeader(writer, window, frame), atomicKey, callback);
+        } else {
+            writeUpdate(callback);
+        }
     }
 
     void writeUpdate(final ModelWriterCallback callback) {
@@ -242,14 +255,18 @@ public abstract class PObject {
 
         final ModelWriter writer = Txn.get().getWriter();
         writer.beginObject();
-        if (!PWindow.isMain(window)) writer.write(ServerToClientModel.WINDOW_ID, window.getID());
-        if (frame != null) writer.write(ServerToClientModel.FRAME_ID, frame.getID());
-        writer.write(ServerToClientModel.TYPE_UPDATE, ID);
+        writeUpdateHeader(writer, window, frame);
 
         callback.doWrite(writer);
         writer.endObject();
     }
 
+    private void writeUpdateHeader(final ModelWriter writer, final PWindow window, final PFrame frame) {
+        if (!PWindow.isMain(window)) writer.write(ServerToClientModel.WINDOW_ID, window.getID());
+        if (frame != null) writer.write(ServerToClientModel.FRAME_ID, frame.getID());
+        writer.write(ServerToClientModel.TYPE_UPDATE, ID);
+    }
+
     protected void saveAdd(final int objectID, final int parentObjectID) {
         saveAdd(objectID, parentObjectID, (ServerBinaryModel) null);
     }
@@ -283,9 +300,19 @@ public abstract class PObject {
     }
 
     protected void saveAddHandler(final HandlerModel type) {
+        saveAddHandler(type, null);
+    }
+
+    /**
+     * Adds a handler whose extra parameters are written by the given callback, after its type
+     */
+    protected void saveAddHandler(final HandlerModel type, final ModelWriterCallback parameters) {
         if (destroy) return;
 
-        final ModelWriterCallback callback = writer -> writer.write(ServerToClientModel.HANDLER_TYPE, type.getValue());
+        final ModelWriterCallback callback = writer -> {
+            writer.write(ServerToClientModel.HANDLER_TYPE, type.getValue());
+            if (parameters != null) parameters.doWrite(writer);
+        };
         if (initialized) writeAddHandler(callback);
         else safeStackedInstructions().put(saveKey++, () -> writeAddHandler(callback));
     }
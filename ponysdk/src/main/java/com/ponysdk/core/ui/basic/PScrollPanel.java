@@ -33,6 +33,7 @@ import com.ponysdk.core.model.HandlerModel;
 import com.ponysdk.core.model.ServerToClientModel;
 import com.ponysdk.core.model.WidgetType;
 import com.ponysdk.core.ui.basic.event.HasPScrollHandlers;
+import com.ponysdk.core.ui.basic.event.PDomEventRate;
 import com.ponysdk.core.ui.basic.event.PScrollEvent;
 import com.ponysdk.core.ui.basic.event.PScrollEvent.PScrollHandler;
 
@@ -81,9 +82,18 @@ public class PScrollPanel extends PSimplePanel implements HasPScrollHandlers {
 
     @Override
     public void addScrollHandler(final PScrollHandler handler) {
+        addScrollHandler(handler, null);
+    }
+
+    /**
+     * Adds a scroll handler whose events are throttled or debounced by the terminal. Only the rate of the
+     * first handler added is sent to the terminal.
+     */
+    public void addScrollHandler(final PScrollHandler handler, final PDomEventRate rate) {
         if (scrollHandlers == null) {
             scrollHandlers = new ArrayList<>();
-            saveAddHandler(HandlerModel.HANDLER_SCROLL);
+            saveAddHandler(HandlerModel.HANDLER_SCROLL,
+                rate != null ? writer -> writer.write(rate.getModel(), rate.getDelayMillis()) : null);
         }
         scrollHandlers.add(handler);
     }
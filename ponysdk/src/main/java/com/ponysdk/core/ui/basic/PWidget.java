@@ -53,6 +53,7 @@ import com.ponysdk.core.ui.basic.event.PClickEvent;
 import com.ponysdk.core.ui.basic.event.PContextMenuEvent;
 import com.ponysdk.core.ui.basic.event.PDomEvent;
 import com.ponysdk.core.ui.basic.event.PDomEvent.Type;
+import com.ponysdk.core.ui.basic.event.PDomEventRate;
 import com.ponysdk.core.ui.basic.event.PDoubleClickEvent;
 import com.ponysdk.core.ui.basic.event.PDragEndEvent;
 import com.ponysdk.core.ui.basic.event.PDragEnterEvent;
@@ -418,11 +419,24 @@ public abstract class PWidget extends PObject implements IsPWidget, HasPHandlers
     }
 
     public HandlerRegistration addDomHandler(final EventHandler handler, final PDomEvent.Type type) {
-        return addDomHandler(handler, type, null);
+        return addDomHandler(handler, type, (ServerBinaryModel) null);
+    }
+
+    /**
+     * Adds a DOM handler whose events are throttled or debounced by the terminal. Only the rate of the
+     * first handler added for a type is sent to the terminal.
+     */
+    public HandlerRegistration addDomHandler(final EventHandler handler, final PDomEvent.Type type, final PDomEventRate rate) {
+        return addDomHandler(handler, type, rate, null);
     }
 
     private HandlerRegistration addDomHandler(final EventHandler handler, final PDomEvent.Type type,
                                               final ServerBinaryModel binaryModel) {
+        return addDomHandler(handler, type, null, binaryModel);
+    }
+
+    private HandlerRegistration addDomHandler(final EventHandler handler, final PDomEvent.Type type, final PDomEventRate rate,
+                                              final ServerBinaryModel binaryModel) {
         if (destroy) return null;
         final HandlerRegistration handlerRegistration = ensureEventBus().addHandlerToSource(type, this, handler);
 
@@ -434,6 +448,7 @@ public abstract class PWidget extends PObject implements IsPWidget, HasPHandlers
             final ModelWriterCallback callback = writer -> {
                 writer.write(ServerToClientModel.HANDLER_TYPE, HandlerModel.HANDLER_DOM.getValue());
                 writer.write(binaryModel1.getKey(), binaryModel1.getValue());
+                if (rate != null) writer.write(rate.getModel(), rate.getDelayMillis());
                 if (binaryModel != null) writer.write(binaryModel.getKey(), binaryModel.getValue());
             };
             if (initialized) writeAddHandler(callback);
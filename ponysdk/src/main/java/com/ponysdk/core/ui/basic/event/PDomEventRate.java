@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2011 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.ui.basic.event;
+
+import java.time.Duration;
+
+import com.ponysdk.core.model.ServerToClientModel;
+
+/**
+ * Limits how often the terminal sends the events of a {@link PDomEvent.Type} to the server
+ */
+public final class PDomEventRate {
+
+    private final ServerToClientModel model;
+    private final int delayMillis;
+
+    private PDomEventRate(final ServerToClientModel model, final Duration delay) {
+        if (delay.isNegative()) throw new IllegalArgumentException("Negative delay : " + delay);
+        this.model = model;
+        this.delayMillis = (int) Math.min(Integer.MAX_VALUE, delay.toMillis());
+    }
+
+    /**
+     * At most one event is sent per period : the first one right away, then the last one received
+     * during the period, when it ends
+     */
+    public static PDomEventRate throttle(final Duration period) {
+        return new PDomEventRate(ServerToClientModel.DOM_HANDLER_THROTTLE, period);
+    }
+
+    /**
+     * Only the last event is sent, once no other event has been received during the delay
+     */
+    public static PDomEventRate debounce(final Duration delay) {
+        return new PDomEventRate(ServerToClientModel.DOM_HANDLER_DEBOUNCE, delay);
+    }
+
+    public ServerToClientModel getModel() {
+        return model;
+    }
+
+    public int getDelayMillis() {
+        return delayMillis;
+    }
+
+    @Override
+    public String toString() {
+        return model + " " + delayMillis + " ms";
+    }
+
+}
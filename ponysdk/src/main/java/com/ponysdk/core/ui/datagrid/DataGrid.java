@@ -27,8 +27,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-import java.util.SortedSet;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -86,7 +86,22 @@ public class DataGrid<T> implements IsPWidget {
     }
 
     public void addData(final Collection<T> data) {
-        data.forEach(this::addData);
+        batch(batch -> batch.putAll(data));
+    }
+
+    /**
+     * Applies all the changes to the model first, then redraws each changed row once : the rows
+     * updated in place, and the rows from the first one that has been inserted, removed or moved.
+     */
+    public void batch(final Consumer<DataGridBatch<T>> changes) {
+        final DataGridBatch<T> batch = new DataGridBatch<>(rows);
+        changes.accept(batch);
+
+        batch.forEachUpdatedRow(r -> update(r, rows.get(r)));
+        draw(batch.getFromIndex());
+        for (int r = rows.size(); r < batch.getInitialSize(); r++) {
+            resetRow(r);
+        }
     }
 
     public Consumer<T> newConsumer() {
@@ -95,22 +110,22 @@ public class DataGrid<T> implements IsPWidget {
 
     public void addData(final T data) {
         if (rows.containsData(data)) {
-            final int indexBefore = rows.getPosition(data);
+            final int indexBefore = rows.indexOf(data);
             if (indexBefore != -1) {
                 rows.remove(data);
                 rows.add(data);
-                final int indexAfter = rows.headSet(data).size();
+                final int indexAfter = rows.indexOf(data);
                 if (indexBefore == indexAfter) {
                     update(indexAfter, data);
                 } else {
-                    draw(Math.min(indexBefore, indexAfter), data);
+                    draw(Math.min(indexBefore, indexAfter));
                 }
             } else {
                 //Update
             }
         } else {
             rows.add(data);
-            draw(rows.headSet(data).size(), data);
+            draw(rows.indexOf(data));
         }
     }
 
@@ -140,10 +155,9 @@ public class DataGrid<T> implements IsPWidget {
     }
 
     public void removeData(final T data) {
-        final T higher = rows.higher(data);
-        final int index = rows.headSet(data).size();
+        final int index = rows.indexOf(data);
         if (rows.remove(data)) {
-            draw(index, higher);
+            draw(index);
             resetRow(rows.size());
         }
     }
@@ -157,19 +171,19 @@ public class DataGrid<T> implements IsPWidget {
     }
 
     public void update(final T data, final Function<T, T> merge) {
-        final int indexBefore = rows.getPosition(data);
+        final int indexBefore = rows.indexOf(data);
         if (indexBefore != -1) {
             rows.remove(data);
             rows.add(merge.apply(data));
-            final int indexAfter = rows.getPosition(data);
+            final int indexAfter = rows.indexOf(data);
             if (indexBefore == indexAfter) {
                 update(indexAfter, data);
             } else {
-                draw(Math.min(indexBefore, indexAfter), data);
+                draw(Math.min(indexBefore, indexAfter));
             }
         } else {
             rows.add(data);
-            draw(rows.headSet(data).size(), data);
+            draw(rows.indexOf(data));
         }
 
     }
@@ -181,13 +195,14 @@ public class DataGrid<T> implements IsPWidget {
         }
     }
 
-    private void draw(final int fromRow, final T from) {
-        if (from == null) return;
-        final SortedSet<T> tail = rows.tailSet(from);
+    private void draw(final int fromRow) {
+        if (fromRow >= rows.size()) return;
+        final Iterator<T> tail = rows.iterator(fromRow);
         int r = fromRow;
         int c = 0;
 
-        for (final T w : tail) {
+        while (tail.hasNext()) {
+            final T w = tail.next();
             for (final ColumnDescriptor<T> column : columns) {
                 drawCell(r, c++, column, w);
             }
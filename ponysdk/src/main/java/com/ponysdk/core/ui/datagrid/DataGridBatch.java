@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.ui.datagrid;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Changes applied to the rows of a data grid as a whole, see {@link DataGrid#batch(java.util.function.Consumer)}.<br>
+ * The model is modified right away, the batch only remembers what has to be redrawn : the first row from which the
+ * rows may have moved, and the rows updated in place.<br>
+ */
+public class DataGridBatch<T> {
+
+    private final DataGridTreeSet<T> rows;
+    private final int initialSize;
+    private final List<T> updatedData = new ArrayList<>();
+
+    private int fromIndex = Integer.MAX_VALUE;
+
+    DataGridBatch(final DataGridTreeSet<T> rows) {
+        this.rows = rows;
+        this.initialSize = rows.size();
+    }
+
+    /**
+     * Adds the data, or replaces the data with the same key
+     */
+    public void put(final T data) {
+        final int indexBefore = rows.indexOf(data);
+        rows.add(data);
+        onChange(indexBefore, rows.indexOf(data), data);
+    }
+
+    public void putAll(final Collection<T> data) {
+        data.forEach(this::put);
+    }
+
+    public void update(final T data, final Function<T, T> merge) {
+        final int indexBefore = rows.indexOf(data);
+        final T merged = indexBefore != -1 ? merge.apply(data) : data;
+        rows.add(merged);
+        onChange(indexBefore, rows.indexOf(merged), merged);
+    }
+
+    public void remove(final T data) {
+        final int index = rows.indexOf(data);
+        if (rows.remove(data)) fromIndex = Math.min(fromIndex, index);
+    }
+
+    private void onChange(final int indexBefore, final int indexAfter, final T data) {
+        if (indexBefore == indexAfter) updatedData.add(data);
+        else if (indexBefore == -1) fromIndex = Math.min(fromIndex, indexAfter);
+        else fromIndex = Math.min(fromIndex, Math.min(indexBefore, indexAfter));
+    }
+
+    int getInitialSize() {
+        return initialSize;
+    }
+
+    /**
+     * @return the first row from which the rows may have been inserted, removed or moved, or
+     *         {@link Integer#MAX_VALUE} if none has
+     */
+    int getFromIndex() {
+        return fromIndex;
+    }
+
+    /**
+     * Iterates once, in order, over the rows updated in place that are before {@link #getFromIndex()}
+     */
+    void forEachUpdatedRow(final IntConsumer action) {
+        if (updatedData.isEmpty()) return;
+        final BitSet updatedRows = new BitSet();
+        for (final T data : updatedData) {
+            final int index = rows.indexOf(data);
+            // Removed since, or already redrawn with the moved rows
+            if (index != -1 && index < fromIndex) updatedRows.set(index);
+        }
+        updatedRows.stream().forEach(action);
+    }
+
+}
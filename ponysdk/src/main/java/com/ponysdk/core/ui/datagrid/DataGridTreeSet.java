@@ -23,50 +23,387 @@
 
 package com.ponysdk.core.ui.datagrid;
 
+import java.util.AbstractSet;
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.TreeSet;
+import java.util.NoSuchElementException;
 import java.util.function.Function;
 
-public class DataGridTreeSet<E> extends TreeSet<E> {
+/**
+ * Sorted set of the rows of a {@link DataGrid}, indexed by key.<br>
+ * The rows are stored in an AVL tree where each node knows the size of its subtree, so the
+ * position of a row, the row at a position and the insertion are O(log n). The rows are found
+ * by key, so the comparator is only used on insertion : elements equal for the comparator are
+ * kept in insertion order. Adding an element with an existing key replaces the previous one.<br>
+ * Unlike the former {@link java.util.TreeSet} based implementation, this set is not a
+ * {@link java.util.NavigableSet} : the range views ({@code headSet}, {@code tailSet},
+ * {@code subSet}), {@code descendingSet} and the comparator based lookups are not available. The
+ * positions are read with {@link #getPosition(Object)}, {@link #indexOf(Object)} and
+ * {@link #get(int)}, and a range is iterated with {@link #iterator(int)}.
+ */
+public class DataGridTreeSet<E> extends AbstractSet<E> {
 
+    private final Comparator<E> comparator;
     private final Function<E, ?> keyProvider;
 
-    private final Map<Object, E> map = new HashMap<>();
+    private final Map<Object, Node<E>> map = new HashMap<>();
+
+    private Node<E> root;
+    private int modCount;
 
     public DataGridTreeSet(final Comparator<E> comparator, final Function<E, ?> keyProvider) {
-        super((o1, o2) -> {
-            final int compare = comparator.compare(o1, o2);
-            if (compare != 0) return compare;
-            return Integer.compare(keyProvider.apply(o1).hashCode(), keyProvider.apply(o2).hashCode());
-        });
+        this.comparator = comparator;
         this.keyProvider = keyProvider;
     }
 
+    public Comparator<E> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Gets the position of the element with the same key, or the position at which the element
+     * would be inserted if there is no element with this key
+     *
+     * @return the position
+     * @see #indexOf(Object)
+     */
     public int getPosition(final E e) {
-        return headSet(e).size();
+        final Node<E> node = nodeOf(e);
+        return node != null ? rank(node) : insertionPosition(e);
+    }
+
+    /**
+     * Gets the position of the element with the same key
+     *
+     * @return the position, or -1 if there is no element with this key
+     */
+    public int indexOf(final E e) {
+        final Node<E> node = nodeOf(e);
+        return node != null ? rank(node) : -1;
+    }
+
+    /**
+     * @throws NoSuchElementException if the set is empty
+     */
+    public E first() {
+        if (root == null) throw new NoSuchElementException();
+        return node(0).value;
+    }
+
+    /**
+     * @throws NoSuchElementException if the set is empty
+     */
+    public E last() {
+        if (root == null) throw new NoSuchElementException();
+        return node(size() - 1).value;
+    }
+
+    /**
+     * Gets the element at a position
+     */
+    public E get(final int index) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        return node(index).value;
+    }
+
+    /**
+     * Gets the element following the element with the same key
+     *
+     * @return the next element, or null if there is no such element
+     */
+    public E higher(final E e) {
+        final Node<E> node = nodeOf(e);
+        if (node == null) return null;
+        final Node<E> successor = successor(node);
+        return successor != null ? successor.value : null;
+    }
+
+    public boolean containsData(final E e) {
+        return nodeOf(e) != null;
     }
 
     @Override
-    public boolean add(final E e) {
-        map.put(keyProvider.apply(e), e);
-        return super.add(e);
+    public boolean contains(final Object o) {
+        return nodeOf(o) != null;
     }
 
     @Override
-    public boolean remove(final Object e) {
-        map.remove(keyProvider.apply((E) e));
-        return super.remove(e);
+    public int size() {
+        return size(root);
     }
 
-    public boolean containsData(final E e) {
-        return map.containsKey(keyProvider.apply(e));
+    @Override
+    public boolean add(final E e) {
+        final Object key = keyProvider.apply(e);
+        final Node<E> previous = map.get(key);
+        if (previous != null) delete(previous);
+
+        final Node<E> node = new Node<>(e, key);
+        map.put(key, node);
+        insert(node);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(final Object e) {
+        final Node<E> node = nodeOf(e);
+        if (node == null) return false;
+        delete(node);
+        modCount++;
+        return true;
     }
 
     @Override
     public void clear() {
-        super.clear();
+        root = null;
         map.clear();
+        modCount++;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return iterator(0);
     }
+
+    /**
+     * Iterates over the elements from a position to the end
+     */
+    public Iterator<E> iterator(final int fromIndex) {
+        if (fromIndex < 0 || fromIndex > size()) throw new IndexOutOfBoundsException("Index: " + fromIndex + ", Size: " + size());
+        return new NodeIterator(fromIndex < size() ? node(fromIndex) : null);
+    }
+
+    // As with a TreeSet, an object which isn't an E fails in the key provider with a ClassCastException
+    @SuppressWarnings("unchecked")
+    private Node<E> nodeOf(final Object o) {
+        return map.get(keyProvider.apply((E) o));
+    }
+
+    // Equal elements are inserted after the existing ones
+    private int insertionPosition(final E e) {
+        int position = 0;
+        Node<E> node = root;
+        while (node != null) {
+            if (comparator.compare(e, node.value) < 0) {
+                node = node.left;
+            } else {
+                position += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return position;
+    }
+
+    private Node<E> node(final int index) {
+        Node<E> node = root;
+        int i = index;
+        while (true) {
+            final int leftSize = size(node.left);
+            if (i < leftSize) {
+                node = node.left;
+            } else if (i == leftSize) {
+                return node;
+            } else {
+                i -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    private static int rank(final Node<?> node) {
+        int rank = size(node.left);
+        Node<?> current = node;
+        while (current.parent != null) {
+            if (current == current.parent.right) rank += size(current.parent.left) + 1;
+            current = current.parent;
+        }
+        return rank;
+    }
+
+    private void insert(final Node<E> node) {
+        if (root == null) {
+            root = node;
+            return;
+        }
+
+        Node<E> parent = root;
+        while (true) {
+            // Equal elements are inserted after the existing ones
+            if (comparator.compare(node.value, parent.value) < 0) {
+                if (parent.left == null) {
+                    parent.left = node;
+                    break;
+                }
+                parent = parent.left;
+            } else {
+                if (parent.right == null) {
+                    parent.right = node;
+                    break;
+                }
+                parent = parent.right;
+            }
+        }
+        node.parent = parent;
+        rebalance(parent);
+    }
+
+    private void delete(final Node<E> node) {
+        map.remove(node.key);
+
+        Node<E> target = node;
+        if (node.left != null && node.right != null) {
+            // Move the successor into the node, then delete the successor which has at most one child
+            target = successor(node);
+            node.value = target.value;
+            node.key = target.key;
+            map.put(node.key, node);
+        }
+
+        final Node<E> child = target.left != null ? target.left : target.right;
+        final Node<E> parent = target.parent;
+        if (child != null) child.parent = parent;
+        replaceChild(parent, target, child);
+        target.parent = target.left = target.right = null;
+
+        rebalance(parent);
+    }
+
+    private void replaceChild(final Node<E> parent, final Node<E> oldChild, final Node<E> newChild) {
+        if (parent == null) root = newChild;
+        else if (parent.left == oldChild) parent.left = newChild;
+        else parent.right = newChild;
+    }
+
+    // Updates the heights and the sizes up to the root, rotating the unbalanced nodes
+    private void rebalance(final Node<E> from) {
+        Node<E> node = from;
+        while (node != null) {
+            node.update();
+            final int balance = height(node.left) - height(node.right);
+            if (balance > 1) {
+                if (height(node.left.left) < height(node.left.right)) rotateLeft(node.left);
+                node = rotateRight(node);
+            } else if (balance < -1) {
+                if (height(node.right.right) < height(node.right.left)) rotateRight(node.right);
+                node = rotateLeft(node);
+            }
+            node = node.parent;
+        }
+    }
+
+    private Node<E> rotateLeft(final Node<E> node) {
+        final Node<E> pivot = node.right;
+        node.right = pivot.left;
+        if (pivot.left != null) pivot.left.parent = node;
+        pivot.parent = node.parent;
+        replaceChild(node.parent, node, pivot);
+        pivot.left = node;
+        node.parent = pivot;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private Node<E> rotateRight(final Node<E> node) {
+        final Node<E> pivot = node.left;
+        node.left = pivot.right;
+        if (pivot.right != null) pivot.right.parent = node;
+        pivot.parent = node.parent;
+        replaceChild(node.parent, node, pivot);
+        pivot.right = node;
+        node.parent = pivot;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static <E> Node<E> successor(final Node<E> node) {
+        if (node.right != null) {
+            Node<E> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            return successor;
+        } else {
+            Node<E> child = node;
+            Node<E> parent = node.parent;
+            while (parent != null && child == parent.right) {
+                child = parent;
+                parent = parent.parent;
+            }
+            return parent;
+        }
+    }
+
+    private static int size(final Node<?> node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static int height(final Node<?> node) {
+        return node != null ? node.height : 0;
+    }
+
+    private static final class Node<E> {
+
+        private E value;
+        private Object key;
+        private Node<E> parent;
+        private Node<E> left;
+        private Node<E> right;
+        private int height = 1;
+        private int size = 1;
+
+        private Node(final E value, final Object key) {
+            this.value = value;
+            this.key = key;
+        }
+
+        private void update() {
+            height = Math.max(height(left), height(right)) + 1;
+            size = size(left) + size(right) + 1;
+        }
+
+    }
+
+    private final class NodeIterator implements Iterator<E> {
+
+        private Node<E> next;
+        private Node<E> lastReturned;
+        private int expectedModCount = modCount;
+
+        private NodeIterator(final Node<E> first) {
+            this.next = first;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public E next() {
+            if (next == null) throw new NoSuchElementException();
+            if (expectedModCount != modCount) throw new ConcurrentModificationException();
+            lastReturned = next;
+            next = successor(next);
+            return lastReturned.value;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) throw new IllegalStateException();
+            if (expectedModCount != modCount) throw new ConcurrentModificationException();
+            // The successor is moved into a deleted node with two children
+            if (lastReturned.left != null && lastReturned.right != null) next = lastReturned;
+            delete(lastReturned);
+            lastReturned = null;
+            expectedModCount = ++modCount;
+        }
+
+    }
+
 }
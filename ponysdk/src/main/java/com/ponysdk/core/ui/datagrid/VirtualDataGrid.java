@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.ui.datagrid;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.ponysdk.core.ui.basic.Element;
+import com.ponysdk.core.ui.basic.IsPWidget;
+import com.ponysdk.core.ui.basic.PFlowPanel;
+import com.ponysdk.core.ui.basic.PScrollPanel;
+import com.ponysdk.core.ui.basic.PWidget;
+import com.ponysdk.core.ui.basic.event.PDomEventRate;
+import com.ponysdk.core.ui.datagrid.impl.DefaultView;
+
+/**
+ * A data grid for large data sets : the whole sorted model stays on the server, but only the rows of the
+ * viewport and a few overscan rows above and below it are materialized in the view. As the user scrolls, the
+ * cell widgets of this window are recycled through {@link CellRenderer#update(Object, PWidget)}.<br>
+ * All the rows, the header included, must have the same height. The terminal reports the scroll position
+ * through a throttled scroll handler.<br>
+ */
+public class VirtualDataGrid<T> implements IsPWidget {
+
+    public static final int DEFAULT_OVERSCAN = 10;
+
+    private static final Duration SCROLL_THROTTLE = Duration.ofMillis(50);
+
+    private final View view;
+    private final PScrollPanel scrollPanel = Element.newPScrollPanel();
+    private final PFlowPanel content = Element.newPFlowPanel();
+    private final List<ColumnDescriptor<T>> columns = new ArrayList<>();
+    private final DataGridTreeSet<T> rows;
+
+    private final int rowHeight;
+    private final int windowSize;
+    private final int overscan;
+
+    private int scrollPosition;
+    private int firstRow;
+    // Number of view rows currently showing data, the following ones have been reset
+    private int drawnRowCount;
+
+    public VirtualDataGrid(final Function<T, ?> keyProvider, final Comparator<T> comparator, final int rowHeight,
+            final int visibleRowCount) {
+        this(new DefaultView(), keyProvider, comparator, rowHeight, visibleRowCount, DEFAULT_OVERSCAN);
+    }
+
+    public VirtualDataGrid(final View view, final Function<T, ?> keyProvider, final Comparator<T> comparator,
+            final int rowHeight, final int visibleRowCount, final int overscan) {
+        if (rowHeight <= 0) throw new IllegalArgumentException("Row height must be positive : " + rowHeight);
+        if (visibleRowCount <= 0) throw new IllegalArgumentException("Visible row count must be positive : " + visibleRowCount);
+        if (overscan < 0) throw new IllegalArgumentException("Overscan must not be negative : " + overscan);
+
+        this.view = view;
+        this.rows = new DataGridTreeSet<>(comparator, keyProvider);
+        this.rowHeight = rowHeight;
+        this.windowSize = visibleRowCount + 2 * overscan;
+        this.overscan = overscan;
+
+        final PWidget viewWidget = view.asWidget();
+        viewWidget.setStyleProperty("position", "absolute");
+        viewWidget.setStyleProperty("top", "0px");
+        content.setStyleProperty("position", "relative");
+        content.add(viewWidget);
+        scrollPanel.setWidget(content);
+        scrollPanel.setHeight((visibleRowCount + 1) * rowHeight + "px");
+        scrollPanel.addScrollHandler(event -> onScroll(event.getVerticalPostion()), PDomEventRate.throttle(SCROLL_THROTTLE));
+        updateContentHeight();
+    }
+
+    @Override
+    public PWidget asWidget() {
+        return scrollPanel;
+    }
+
+    public void addColumnDescriptor(final ColumnDescriptor<T> column) {
+        if (columns.add(column)) {
+            final int c = columns.size() - 1;
+            drawHeader(c, column);
+
+            final Iterator<T> window = rows.iterator(firstRow);
+            for (int r = 0; r < drawnRowCount; r++) {
+                drawCell(r, c, column, window.next());
+            }
+        }
+    }
+
+    public void removeColumn(final ColumnDescriptor<T> column) {
+        final int c = columns.indexOf(column);
+        if (c == -1) return;
+
+        final int lastColumn = columns.size() - 1;
+        columns.remove(c);
+        for (int i = c; i < columns.size(); i++) {
+            final ColumnDescriptor<T> currentColumn = columns.get(i);
+            drawHeader(i, currentColumn);
+            final Iterator<T> window = rows.iterator(firstRow);
+            for (int r = 0; r < drawnRowCount; r++) {
+                drawCell(r, i, currentColumn, window.next());
+            }
+        }
+
+        final PWidget header = view.getHeader(lastColumn);
+        if (header != null) header.removeFromParent();
+        for (int r = 0; r < drawnRowCount; r++) {
+            column.getCellRenderer().reset(view.getCell(r, lastColumn));
+        }
+    }
+
+    public List<ColumnDescriptor<T>> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    public Collection<T> getData() {
+        return Collections.unmodifiableSet(rows);
+    }
+
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    /**
+     * @return the index of the data shown in the first row of the view
+     */
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    public void addData(final Collection<T> data) {
+        batch(batch -> batch.putAll(data));
+    }
+
+    /**
+     * Applies all the changes to the model first, then redraws each changed row of the window once
+     *
+     * @see DataGrid#batch(Consumer)
+     */
+    public void batch(final Consumer<DataGridBatch<T>> changes) {
+        final DataGridBatch<T> batch = new DataGridBatch<>(rows);
+        changes.accept(batch);
+
+        if (rows.size() != batch.getInitialSize()) updateContentHeight();
+        batch.forEachUpdatedRow(index -> {
+            final int r = index - firstRow;
+            if (r >= 0 && r < drawnRowCount) drawRow(r, rows.get(index));
+        });
+        refresh(batch.getFromIndex());
+    }
+
+    public Consumer<T> newConsumer() {
+        return this::addData;
+    }
+
+    public void addData(final T data) {
+        final int indexBefore = rows.indexOf(data);
+        rows.add(data);
+        onChange(indexBefore, rows.indexOf(data));
+    }
+
+    public void update(final T data, final Function<T, T> merge) {
+        final int indexBefore = rows.indexOf(data);
+        final T merged = indexBefore != -1 ? merge.apply(data) : data;
+        rows.add(merged);
+        onChange(indexBefore, rows.indexOf(merged));
+    }
+
+    public void removeData(final T data) {
+        final int index = rows.indexOf(data);
+        if (rows.remove(data)) {
+            updateContentHeight();
+            refresh(index);
+        }
+    }
+
+    public void clear() {
+        rows.clear();
+        updateContentHeight();
+        refresh(0);
+    }
+
+    /**
+     * Scrolls the view so that the data at the given index is shown in its first visible row
+     */
+    public void scrollToRow(final int index) {
+        final int position = Math.max(0, index) * rowHeight;
+        scrollPanel.setVerticalScrollPosition(position);
+        onScroll(position);
+    }
+
+    void onScroll(final int verticalPosition) {
+        scrollPosition = verticalPosition;
+        refresh(rows.size());
+    }
+
+    private void onChange(final int indexBefore, final int indexAfter) {
+        if (indexBefore == -1) {
+            updateContentHeight();
+            refresh(indexAfter);
+        } else if (indexBefore == indexAfter) {
+            final int r = indexAfter - firstRow;
+            if (r >= 0 && r < drawnRowCount) drawRow(r, rows.get(indexAfter));
+        } else {
+            refresh(Math.min(indexBefore, indexAfter));
+        }
+    }
+
+    /**
+     * Moves the window to the current scroll position and redraws its rows from the given data index
+     */
+    private void refresh(final int fromIndex) {
+        final int newFirstRow = Math.max(0, Math.min(scrollPosition / rowHeight - overscan, rows.size() - windowSize));
+        if (newFirstRow != firstRow) {
+            firstRow = newFirstRow;
+            view.asWidget().setStyleProperty("top", firstRow * rowHeight + "px");
+            draw(0);
+        } else {
+            draw(Math.max(0, fromIndex - firstRow));
+        }
+    }
+
+    private void draw(final int fromRow) {
+        final int rowCount = Math.max(0, Math.min(windowSize, rows.size() - firstRow));
+        if (fromRow < rowCount) {
+            final Iterator<T> window = rows.iterator(firstRow + fromRow);
+            for (int r = fromRow; r < rowCount; r++) {
+                drawRow(r, window.next());
+            }
+        }
+        for (int r = rowCount; r < drawnRowCount; r++) {
+            resetRow(r);
+        }
+        drawnRowCount = rowCount;
+    }
+
+    private void drawHeader(final int c, final ColumnDescriptor<T> column) {
+        view.setHeader(c, column.getHeaderRenderer().render());
+    }
+
+    private void drawRow(final int r, final T data) {
+        int c = 0;
+        for (final ColumnDescriptor<T> column : columns) {
+            drawCell(r, c++, column, data);
+        }
+    }
+
+    private void drawCell(final int r, final int c, final ColumnDescriptor<T> column, final T data) {
+        final PWidget w = view.getCell(r, c);
+        if (w == null) view.setCell(r, c, column.getCellRenderer().render(data));
+        else column.getCellRenderer().update(data, w);
+    }
+
+    private void resetRow(final int r) {
+        int c = 0;
+        for (final ColumnDescriptor<T> column : columns) {
+            column.getCellRenderer().reset(view.getCell(r, c++));
+        }
+    }
+
+    private void updateContentHeight() {
+        // The header takes the first row
+        content.setHeight((rows.size() + 1) * rowHeight + "px");
+    }
+
+}
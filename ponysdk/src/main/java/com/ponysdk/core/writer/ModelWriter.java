@@ -29,12 +29,24 @@ import com.ponysdk.core.server.websocket.WebsocketEncoder;
 public class ModelWriter {
 
     private final WebsocketEncoder encoder;
+    private final Runnable beforeObjectListener;
 
     public ModelWriter(final WebsocketEncoder encoder) {
+        this(encoder, null);
+    }
+
+    /**
+     * @param beforeObjectListener
+     *            called before the beginning of each object, allows to write pending instructions
+     *            first
+     */
+    public ModelWriter(final WebsocketEncoder encoder, final Runnable beforeObjectListener) {
         this.encoder = encoder;
+        this.beforeObjectListener = beforeObjectListener;
     }
 
     public void beginObject() {
+        if (beforeObjectListener != null) beforeObjectListener.run();
         encoder.beginObject();
     }
 
@@ -46,8 +58,43 @@ public class ModelWriter {
         encoder.encode(model, value);
     }
 
+    public void write(final ServerToClientModel model, final boolean value) {
+        encoder.encode(model, value);
+    }
+
+    public void write(final ServerToClientModel model, final byte value) {
+        encoder.encode(model, value);
+    }
+
+    public void write(final ServerToClientModel model, final short value) {
+        encoder.encode(model, value);
+    }
+
+    public void write(final ServerToClientModel model, final int value) {
+        encoder.encode(model, value);
+    }
+
+    public void write(final ServerToClientModel model, final long value) {
+        encoder.encode(model, value);
+    }
+
+    public void write(final ServerToClientModel model, final double value) {
+        encoder.encode(model, value);
+    }
+
     public void endObject() {
         encoder.endObject();
     }
 
+    /**
+     * Writes a pre-encoded fragment, made of complete objects
+     *
+     * @param frame the fragment
+     * @param slotValues the values of its slots
+     */
+    public void write(final SharedFrame frame, final int[] slotValues) {
+        if (beforeObjectListener != null) beforeObjectListener.run();
+        encoder.encode(frame, slotValues);
+    }
+
 }
@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.writer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.json.JsonObject;
+
+import com.ponysdk.core.model.ServerToClientModel;
+import com.ponysdk.core.model.ValueTypeModel;
+import com.ponysdk.core.server.stm.Txn;
+import com.ponysdk.core.server.websocket.WebsocketEncoder;
+import com.ponysdk.core.ui.basic.PObject;
+import com.ponysdk.core.ui.basic.PWindow;
+
+/**
+ * A protocol fragment encoded once and written to many UIContexts, e.g. the same tick displayed in
+ * thousands of tabs.<br>
+ * The values are encoded by the {@link Builder}, only the object IDs differ from an UIContext to
+ * another : they are left as slots, filled when the fragment is written. Writing a fragment is a
+ * bulk copy of its bytes into the websocket buffer, so its cost doesn't depend on the number or
+ * the type of the values.<br>
+ * The dictionary of the terminal being specific to each UIContext, the
+ * {@link ValueTypeModel#STRING_DICTIONARY} values are inlined.<br>
+ * The frame goes straight to the terminal, bypassing the setters of the objects : their server
+ * side state, e.g. {@link com.ponysdk.core.ui.basic.PLabel#getText()}, is not updated and keeps
+ * the last value set by a setter. A later setter called with that stale value is skipped by its
+ * equality check, so the terminal keeps displaying the value of the frame. An object updated by
+ * frames should therefore only be updated by frames, or its server side state can't be trusted.
+ *
+ * <pre>
+ * final SharedFrame frame = SharedFrame.builder() //
+ *     .beginUpdate(0).write(ServerToClientModel.TEXT, "1.2345").endObject() //
+ *     .beginUpdate(1).write(ServerToClientModel.TEXT, "+0.12%").endObject() //
+ *     .build();
+ * // Then, in each UIContext
+ * frame.write(priceLabel, changeLabel);
+ * // priceLabel.getText() still returns its previous value, not "1.2345"
+ * </pre>
+ */
+public final class SharedFrame {
+
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 0;
+
+    private static final int MAX_UNSIGNED_SHORT_VALUE = Short.MAX_VALUE * 2 + 1;
+
+    private final byte[] bytes;
+    // Position in the bytes and index of each slot, by position
+    private final int[] slotPositions;
+    private final int[] slotIndexes;
+    private final int slotCount;
+    private final List<Instruction> instructions;
+
+    private SharedFrame(final Builder builder) {
+        this.bytes = builder.bytes.toByteArray();
+        this.slotPositions = builder.slotPositions.stream().mapToInt(Integer::intValue).toArray();
+        this.slotIndexes = builder.slotIndexes.stream().mapToInt(Integer::intValue).toArray();
+        this.slotCount = builder.slotCount;
+        this.instructions = builder.instructions;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Writes the fragment in the current transaction, for objects of the main window. The server
+     * side state of the objects is left unchanged.
+     *
+     * @param objects the objects filling the slots, by slot index
+     * @return false, and nothing is written, if an object is not initialized, destroyed, or not
+     *         in the main window
+     * @throws IllegalArgumentException if the number of objects is not the number of slots
+     */
+    public boolean write(final PObject... objects) {
+        if (objects.length != slotCount) {
+            throw new IllegalArgumentException("Expected " + slotCount + " objects, got " + objects.length);
+        }
+        final int[] objectIDs = new int[objects.length];
+        for (int i = 0; i < objects.length; i++) {
+            final PObject object = objects[i];
+            if (!object.isInitialized() || !PWindow.isMain(object.getWindow()) || object.getFrame() != null) return false;
+            objectIDs[i] = object.getID();
+        }
+        Txn.get().getWriter().write(this, objectIDs);
+        return true;
+    }
+
+    /**
+     * @return the number of slots
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * @return the encoded size of the fragment, in bytes
+     */
+    public int size() {
+        return bytes.length;
+    }
+
+    /**
+     * Writes the fragment instruction by instruction, for the encoders which can't copy the bytes
+     *
+     * @param encoder the encoder
+     * @param slotValues the values of the slots
+     */
+    public void replay(final WebsocketEncoder encoder, final int[] slotValues) {
+        checkSlotValues(slotValues);
+        boolean objectBegun = false;
+        for (final Instruction instruction : instructions) {
+            if (!objectBegun) {
+                encoder.beginObject();
+                objectBegun = true;
+            }
+            if (instruction.model == ServerToClientModel.END) {
+                encoder.endObject();
+                objectBegun = false;
+            } else if (instruction.slot != -1) encoder.encode(instruction.model, slotValues[instruction.slot]);
+            else encoder.encode(instruction.model, instruction.value);
+        }
+    }
+
+    /**
+     * Visits the encoded bytes, the slots being filled with their values. A slot takes 4 bytes.
+     *
+     * @param slotValues the values of the slots
+     * @param consumer receives the bytes between the slots and the values of the slots
+     */
+    public <E extends Exception> void splice(final int[] slotValues, final SpliceConsumer<E> consumer) throws E {
+        checkSlotValues(slotValues);
+        int position = 0;
+        for (int i = 0; i < slotPositions.length; i++) {
+            final int slotPosition = slotPositions[i];
+            if (slotPosition > position) consumer.putBytes(bytes, position, slotPosition - position);
+            consumer.putInt(slotValues[slotIndexes[i]]);
+            position = slotPosition + Integer.BYTES;
+        }
+        if (position < bytes.length) consumer.putBytes(bytes, position, bytes.length - position);
+    }
+
+    private void checkSlotValues(final int[] slotValues) {
+        if (slotValues.length != slotCount) {
+            throw new IllegalArgumentException("Expected " + slotCount + " slot values, got " + slotValues.length);
+        }
+    }
+
+    public interface SpliceConsumer<E extends Exception> {
+
+        void putBytes(byte[] bytes, int offset, int length) throws E;
+
+        void putInt(int value) throws E;
+    }
+
+    private static final class Instruction {
+
+        private final ServerToClientModel model;
+        private final Object value;
+        private final int slot;
+
+        private Instruction(final ServerToClientModel model, final Object value, final int slot) {
+            this.model = model;
+            this.value = value;
+            this.slot = slot;
+        }
+    }
+
+    /**
+     * Encodes the instructions of a {@link SharedFrame}, as the websocket does
+     */
+    public static final class Builder {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream output = new DataOutputStream(bytes);
+        private final List<Integer> slotPositions = new ArrayList<>();
+        private final List<Integer> slotIndexes = new ArrayList<>();
+        private final List<Instruction> instructions = new ArrayList<>();
+        private int slotCount;
+        private boolean objectOpened;
+
+        private Builder() {
+        }
+
+        /**
+         * Begins the update of the object filling a slot
+         *
+         * @param slot the slot index, from 0
+         */
+        public Builder beginUpdate(final int slot) {
+            if (objectOpened) throw new IllegalStateException("The previous object is not ended");
+            objectOpened = true;
+            return writeSlot(ServerToClientModel.TYPE_UPDATE, slot);
+        }
+
+        /**
+         * Writes an integer value left as a slot, filled when the fragment is written
+         *
+         * @param model a model of type {@link ValueTypeModel#INTEGER}
+         * @param slot the slot index, from 0
+         */
+        public Builder writeSlot(final ServerToClientModel model, final int slot) {
+            if (model.getTypeModel() != ValueTypeModel.INTEGER) throw new IllegalArgumentException("Not an integer model : " + model);
+            if (slot < 0) throw new IllegalArgumentException("Negative slot : " + slot);
+            if (!objectOpened) throw new IllegalStateException("No object to write in : " + model);
+            try {
+                putModelKey(model);
+                slotPositions.add(bytes.size());
+                output.writeInt(0);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            slotIndexes.add(slot);
+            slotCount = Math.max(slotCount, slot + 1);
+            instructions.add(new Instruction(model, null, slot));
+            return this;
+        }
+
+        public Builder write(final ServerToClientModel model) {
+            return write(model, null);
+        }
+
+        public Builder write(final ServerToClientModel model, final Object value) {
+            if (model == ServerToClientModel.END) return endObject();
+            if (!objectOpened) throw new IllegalStateException("No object to write in : " + model);
+            final Object normalizedValue = normalize(model, value);
+            try {
+                putModelKey(model);
+                writeValue(model, normalizedValue);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            instructions.add(new Instruction(model, normalizedValue, -1));
+            return this;
+        }
+
+        public Builder endObject() {
+            if (!objectOpened) throw new IllegalStateException("No object to end");
+            objectOpened = false;
+            try {
+                putModelKey(ServerToClientModel.END);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            instructions.add(new Instruction(ServerToClientModel.END, null, -1));
+            return this;
+        }
+
+        public SharedFrame build() {
+            if (objectOpened) throw new IllegalStateException("The last object is not ended");
+            return new SharedFrame(this);
+        }
+
+        private void putModelKey(final ServerToClientModel model) throws IOException {
+            output.writeByte(model.getValue() & 0xFF);
+        }
+
+        // Numbers are converted to the type of the model, as the websocket does for the primitive values
+        private static Object normalize(final ServerToClientModel model, final Object value) {
+            switch (model.getTypeModel()) {
+                case LONG:
+                    return ((Number) value).longValue();
+                case DOUBLE:
+                    return ((Number) value).doubleValue();
+                default:
+                    return value;
+            }
+        }
+
+        private void writeValue(final ServerToClientModel model, final Object value) throws IOException {
+            switch (model.getTypeModel()) {
+                case NULL:
+                    break;
+                case BOOLEAN:
+                    output.writeByte((boolean) value ? TRUE : FALSE);
+                    break;
+                case BYTE:
+                    output.writeByte((byte) value);
+                    break;
+                case SHORT:
+                    output.writeShort((short) value);
+                    break;
+                case INTEGER:
+                    output.writeInt((int) value);
+                    break;
+                case LONG:
+                    output.writeLong((long) value);
+                    break;
+                case DOUBLE:
+                    output.writeDouble((double) value);
+                    break;
+                case STRING:
+                    writeString((String) value, StandardCharsets.ISO_8859_1);
+                    break;
+                case STRING_UTF8:
+                    writeString((String) value, StandardCharsets.UTF_8);
+                    break;
+                case STRING_DICTIONARY:
+                    output.writeShort(ValueTypeModel.DICTIONARY_INLINE_VALUE);
+                    writeString((String) value, StandardCharsets.UTF_8);
+                    break;
+                case JSON_OBJECT:
+                    final byte[] json = ((JsonObject) value).toString().getBytes(StandardCharsets.UTF_8);
+                    output.writeInt(json.length);
+                    output.write(json);
+                    break;
+                case INTEGER_ARRAY:
+                    final int[] values = (int[]) value;
+                    output.writeInt(values.length);
+                    for (final int v : values) {
+                        output.writeInt(v);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknow model type : " + model.getTypeModel());
+            }
+        }
+
+        private void writeString(final String value, final Charset charset) throws IOException {
+            if (value == null) {
+                output.writeShort(0);
+                return;
+            }
+            final byte[] encoded = value.getBytes(charset);
+            if (encoded.length > MAX_UNSIGNED_SHORT_VALUE) {
+                throw new IllegalArgumentException("Message too big (" + encoded.length + " > " + MAX_UNSIGNED_SHORT_VALUE
+                        + "), use a JsonObject instead");
+            }
+            output.writeShort(encoded.length);
+            output.write(encoded);
+        }
+    }
+
+}
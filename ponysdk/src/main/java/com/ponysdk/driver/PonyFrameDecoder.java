@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.driver;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ponysdk.core.model.ServerToClientModel;
+import com.ponysdk.core.model.ValueTypeModel;
+
+/**
+ * Decodes the server messages into {@link PonyFrameVisitor} calls. The values are not boxed and the
+ * strings are decoded into a reused buffer. A partial frame at the end of a websocket message is
+ * kept in a buffer borrowed from a pool shared by all the decoders, until the next message completes
+ * it.
+ */
+public final class PonyFrameDecoder {
+
+    private static final int POOLED_BUFFER_SIZE = 1 << 12;
+    private static final int MAX_POOLED_BUFFERS = 1 << 10;
+
+    private static final Queue<ByteBuffer> bufferPool = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger pooledBufferCount = new AtomicInteger();
+
+    private final CharsetDecoder utf8Decoder = newDecoder(StandardCharsets.UTF_8);
+    private final CharsetDecoder latin1Decoder = newDecoder(StandardCharsets.ISO_8859_1);
+    private final String[] dictionary = new String[ValueTypeModel.DICTIONARY_MAX_SIZE];
+
+    private CharBuffer chars = CharBuffer.allocate(256);
+    private int[] ints = new int[64];
+
+    // Bytes of the partial frame not decoded yet, in write mode, null if none
+    private ByteBuffer pending;
+
+    public void decode(final ByteBuffer message, final PonyFrameVisitor visitor) {
+        if (pending == null) {
+            decodeFrames(message, visitor);
+            if (message.hasRemaining()) {
+                pending = borrow(message.remaining());
+                pending.put(message);
+            }
+        } else {
+            if (pending.remaining() < message.remaining()) pending = grow(pending, message.remaining());
+            pending.put(message);
+            pending.flip();
+            decodeFrames(pending, visitor);
+            if (pending.hasRemaining()) {
+                pending.compact();
+            } else {
+                release(pending);
+                pending = null;
+            }
+        }
+    }
+
+    /**
+     * Releases the partial frame buffer, if any
+     */
+    public void reset() {
+        if (pending != null) {
+            release(pending);
+            pending = null;
+        }
+    }
+
+    private void decodeFrames(final ByteBuffer b, final PonyFrameVisitor visitor) {
+        int frameSize;
+        while ((frameSize = getFrameSize(b)) > 0 && frameSize <= b.remaining()) {
+            decodeFrame(b, visitor);
+        }
+    }
+
+    /**
+     * @return the size of the frame starting at the buffer position, or -1 if its header is not
+     *         complete yet
+     */
+    private static int getFrameSize(final ByteBuffer b) {
+        final int position = b.position();
+        final int remaining = b.remaining();
+        if (remaining < ValueTypeModel.BYTE_SIZE) return -1;
+
+        final ValueTypeModel typeModel = ServerToClientModel.fromRawValue((short) (b.get(position) & 0xFF)).getTypeModel();
+        final int headerSize = ValueTypeModel.BYTE_SIZE;
+        switch (typeModel) {
+            case STRING:
+            case STRING_UTF8:
+                if (remaining < headerSize + ValueTypeModel.SHORT_SIZE) return -1;
+                return headerSize + ValueTypeModel.SHORT_SIZE + (b.getShort(position + headerSize) & 0xFFFF);
+            case STRING_DICTIONARY:
+                if (remaining < headerSize + ValueTypeModel.SHORT_SIZE) return -1;
+                final int reference = b.getShort(position + headerSize) & 0xFFFF;
+                if ((reference & ValueTypeModel.DICTIONARY_NEW_ENTRY_MASK) == 0) return headerSize + ValueTypeModel.SHORT_SIZE;
+                if (remaining < headerSize + 2 * ValueTypeModel.SHORT_SIZE) return -1;
+                return headerSize + 2 * ValueTypeModel.SHORT_SIZE
+                        + (b.getShort(position + headerSize + ValueTypeModel.SHORT_SIZE) & 0xFFFF);
+            case JSON_OBJECT:
+                if (remaining < headerSize + ValueTypeModel.INTEGER_SIZE) return -1;
+                return headerSize + ValueTypeModel.INTEGER_SIZE + b.getInt(position + headerSize);
+            case INTEGER_ARRAY:
+                if (remaining < headerSize + ValueTypeModel.INTEGER_SIZE) return -1;
+                return headerSize + ValueTypeModel.INTEGER_SIZE + b.getInt(position + headerSize) * ValueTypeModel.INTEGER_SIZE;
+            default:
+                return headerSize + typeModel.getSize();
+        }
+    }
+
+    private void decodeFrame(final ByteBuffer b, final PonyFrameVisitor visitor) {
+        final ServerToClientModel model = ServerToClientModel.fromRawValue((short) (b.get() & 0xFF));
+        switch (model.getTypeModel()) {
+            case NULL:
+                if (ServerToClientModel.END == model) visitor.onMessageEnd();
+                else visitor.onNull(model);
+                break;
+            case BOOLEAN:
+                visitor.onBoolean(model, b.get() != 0);
+                break;
+            case BYTE:
+                visitor.onByte(model, b.get());
+                break;
+            case SHORT:
+                visitor.onShort(model, b.getShort());
+                break;
+            case INTEGER:
+                visitor.onInt(model, b.getInt());
+                break;
+            case LONG:
+                visitor.onLong(model, b.getLong());
+                break;
+            case DOUBLE:
+                visitor.onDouble(model, b.getDouble());
+                break;
+            case STRING:
+                visitor.onString(model, decodeString(latin1Decoder, b, b.getShort() & 0xFFFF));
+                break;
+            case STRING_UTF8:
+                visitor.onString(model, decodeString(utf8Decoder, b, b.getShort() & 0xFFFF));
+                break;
+            case STRING_DICTIONARY:
+                final int reference = b.getShort() & 0xFFFF;
+                if ((reference & ValueTypeModel.DICTIONARY_NEW_ENTRY_MASK) == 0) {
+                    visitor.onString(model, dictionary[reference]);
+                } else {
+                    final CharSequence value = decodeString(utf8Decoder, b, b.getShort() & 0xFFFF);
+                    if (reference != ValueTypeModel.DICTIONARY_INLINE_VALUE) {
+                        final String entry = value.toString();
+                        dictionary[reference & ~ValueTypeModel.DICTIONARY_NEW_ENTRY_MASK] = entry;
+                        visitor.onString(model, entry);
+                    } else {
+                        visitor.onString(model, value);
+                    }
+                }
+                break;
+            case JSON_OBJECT:
+                visitor.onJson(model, decodeString(utf8Decoder, b, b.getInt()));
+                break;
+            case INTEGER_ARRAY:
+                final int length = b.getInt();
+                if (ints.length < length) ints = new int[Math.max(ints.length << 1, length)];
+                for (int i = 0; i < length; i++) {
+                    ints[i] = b.getInt();
+                }
+                visitor.onIntArray(model, ints, length);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type model : " + model.getTypeModel());
+        }
+    }
+
+    // Same replacements as new String(bytes, charset)
+    private static CharsetDecoder newDecoder(final Charset charset) {
+        return charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    private CharSequence decodeString(final CharsetDecoder decoder, final ByteBuffer b, final int length) {
+        // Both charsets never decode more chars than bytes
+        if (chars.capacity() < length) chars = CharBuffer.allocate(Math.max(chars.capacity() << 1, length));
+        chars.clear();
+
+        final int limit = b.limit();
+        final int end = b.position() + length;
+        b.limit(end);
+        decoder.reset();
+        decoder.decode(b, chars, true);
+        decoder.flush(chars);
+        b.limit(limit);
+        b.position(end);
+
+        chars.flip();
+        return chars;
+    }
+
+    private static ByteBuffer borrow(final int minCapacity) {
+        if (minCapacity <= POOLED_BUFFER_SIZE) {
+            final ByteBuffer buffer = bufferPool.poll();
+            if (buffer != null) {
+                pooledBufferCount.decrementAndGet();
+                return buffer;
+            }
+            return ByteBuffer.allocate(POOLED_BUFFER_SIZE);
+        } else {
+            return ByteBuffer.allocate(minCapacity);
+        }
+    }
+
+    private static ByteBuffer grow(final ByteBuffer buffer, final int additionalBytes) {
+        buffer.flip();
+        final ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(buffer.capacity() << 1, buffer.remaining() + additionalBytes));
+        newBuffer.put(buffer);
+        release(buffer);
+        return newBuffer;
+    }
+
+    private static void release(final ByteBuffer buffer) {
+        if (buffer.capacity() != POOLED_BUFFER_SIZE) return;
+        if (pooledBufferCount.incrementAndGet() <= MAX_POOLED_BUFFERS) {
+            buffer.clear();
+            bufferPool.offer(buffer);
+        } else {
+            pooledBufferCount.decrementAndGet();
+        }
+    }
+
+}
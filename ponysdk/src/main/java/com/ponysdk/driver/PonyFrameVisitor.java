@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.driver;
+
+import com.ponysdk.core.model.ServerToClientModel;
+
+/**
+ * Receives the frames of the server messages as they are decoded, without boxing them. The
+ * CharSequence and array arguments are reused by the decoder, they are only valid during the call.
+ */
+public interface PonyFrameVisitor {
+
+    default void onNull(final ServerToClientModel model) {
+    }
+
+    default void onBoolean(final ServerToClientModel model, final boolean value) {
+    }
+
+    default void onByte(final ServerToClientModel model, final byte value) {
+    }
+
+    default void onShort(final ServerToClientModel model, final short value) {
+    }
+
+    default void onInt(final ServerToClientModel model, final int value) {
+    }
+
+    default void onLong(final ServerToClientModel model, final long value) {
+    }
+
+    default void onDouble(final ServerToClientModel model, final double value) {
+    }
+
+    default void onString(final ServerToClientModel model, final CharSequence value) {
+    }
+
+    default void onJson(final ServerToClientModel model, final CharSequence json) {
+    }
+
+    /**
+     * @param values
+     *            Only the first length values are part of the frame
+     */
+    default void onIntArray(final ServerToClientModel model, final int[] values, final int length) {
+    }
+
+    /**
+     * Called on {@link ServerToClientModel#END}, after the last frame of the message
+     */
+    default void onMessageEnd() {
+    }
+
+}
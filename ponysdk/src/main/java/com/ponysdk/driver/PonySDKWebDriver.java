@@ -29,8 +29,6 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.net.URI;
 import java.nio.ByteBuffer;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -40,7 +38,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
-import java.util.function.ToIntFunction;
 
 import javax.json.Json;
 import javax.json.JsonArrayBuilder;
@@ -49,6 +46,7 @@ import javax.json.JsonReader;
 import javax.json.stream.JsonParsingException;
 import javax.websocket.MessageHandler;
 
+import org.glassfish.tyrus.client.ClientManager;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
@@ -57,13 +55,11 @@ import org.slf4j.LoggerFactory;
 
 import com.ponysdk.core.model.ClientToServerModel;
 import com.ponysdk.core.model.ServerToClientModel;
-import com.ponysdk.core.model.ValueTypeModel;
 import com.ponysdk.core.model.WidgetType;
 
 public class PonySDKWebDriver implements WebDriver {
 
     private final static Logger log = LoggerFactory.getLogger(PonySDKWebDriver.class);
-    private final static ThreadLocal<byte[]> byteArrays = ThreadLocal.withInitial(() -> new byte[32]);
     private final static PonyMessageListener INDIFFERENT_MSG_LISTENER = new PonyMessageListener() {
 
         @Override
@@ -93,8 +89,7 @@ public class PonySDKWebDriver implements WebDriver {
         false);
     private final MessageHandler.Whole<ByteBuffer> messageHandler = this::onMessage;
     private final Map<String, String> cookies = new ConcurrentHashMap<>();
-    private final WebsocketClient client = new WebsocketClient(messageHandler);
-    private final List<PonyFrame> messageInConstruction = new ArrayList<>();
+    private final WebsocketClient client;
     private final PonyMessageListener messageListener;
     private final PonyBandwithListener bandwithListener;
 
@@ -106,21 +101,48 @@ public class PonySDKWebDriver implements WebDriver {
     private volatile String url;
     private volatile int contextId;
 
-    private ByteBuffer buffer = ByteBuffer.allocate(4096);
+    private final PonyFrameDecoder decoder = new PonyFrameDecoder();
+    private final PonyFrameVisitor frameVisitor;
 
     public PonySDKWebDriver() {
         this(null, null);
     }
 
     public PonySDKWebDriver(final PonyMessageListener messageListener, final PonyBandwithListener bandwithListener) {
+        this(messageListener, bandwithListener, null);
+    }
+
+    /**
+     * @param clientManager
+     *            The websocket client shared by many drivers, see {@link WebsocketClient#createSharedClientManager(int)}
+     */
+    public PonySDKWebDriver(final PonyMessageListener messageListener, final PonyBandwithListener bandwithListener,
+            final ClientManager clientManager) {
+        this(messageListener, null, bandwithListener, clientManager);
+    }
+
+    /**
+     * The frames are only given to the visitor, without boxing them nor building a message. The driver
+     * still answers the heartbeats and the pings, but it doesn't keep the elements, they can't be
+     * found.
+     *
+     * @param clientManager
+     *            The websocket client shared by many drivers, null to have one per driver
+     */
+    public PonySDKWebDriver(final PonyFrameVisitor frameVisitor, final PonyBandwithListener bandwithListener,
+            final ClientManager clientManager) {
+        this(null, frameVisitor, bandwithListener, clientManager);
+    }
+
+    private PonySDKWebDriver(final PonyMessageListener messageListener, final PonyFrameVisitor frameVisitor,
+            final PonyBandwithListener bandwithListener, final ClientManager clientManager) {
         super();
+        this.client = new WebsocketClient(messageHandler, clientManager);
         this.messageListener = messageListener == null ? INDIFFERENT_MSG_LISTENER : messageListener;
         this.bandwithListener = bandwithListener == null ? INDIFFERENT_BANDWITH_LISTENER : bandwithListener;
+        this.frameVisitor = frameVisitor == null ? new FrameListVisitor() : new ProtocolVisitor(frameVisitor);
 
-        onMessageSwitch.put(ServerToClientModel.CREATE_CONTEXT, (message, frame) -> {
-            log.info("UI Context created with ID {}", contextId = (int) frame.value);
-            sendCookies();
-        });
+        onMessageSwitch.put(ServerToClientModel.CREATE_CONTEXT, (message, frame) -> onContextCreated((int) frame.value));
         onMessageSwitch.put(ServerToClientModel.HISTORY_FIRE_EVENTS, (message, frame) -> {
             if ((boolean) frame.getValue()) {
                 final String typeHistory = (String) findValueForModel(message, ServerToClientModel.TYPE_HISTORY);
@@ -165,6 +187,11 @@ public class PonySDKWebDriver implements WebDriver {
         onMessageSwitch.put(ServerToClientModel.TYPE_GC, (message, frame) -> {
             elements.remove(frame.value);
         });
+        onMessageSwitch.put(ServerToClientModel.TYPE_GC_BATCH, (message, frame) -> {
+            for (final int objectID : (int[]) frame.value) {
+                elements.remove(objectID);
+            }
+        });
         onMessageSwitch.put(ServerToClientModel.PUT_ATTRIBUTE_KEY, (message, frame) -> {
             final PonyWebElement element = findElement(message);
             if (element == null) return;
@@ -207,15 +234,8 @@ public class PonySDKWebDriver implements WebDriver {
             element.sendApplicationInstruction(ClientToServerModel.HANDLER_OPEN, "");
             sendCookies();
         });
-        onMessageSwitch.put(ServerToClientModel.PING_SERVER, (message, frame) -> {
-            final JsonObject json = Json.createObjectBuilder() //
-                .add(ClientToServerModel.PING_SERVER.toStringValue(), (long) frame.value) //
-                .build();
-            sendMessage(json);
-        });
-        onMessageSwitch.put(ServerToClientModel.HEARTBEAT, (message, frame) -> {
-            sendMessage("0");
-        });
+        onMessageSwitch.put(ServerToClientModel.PING_SERVER, (message, frame) -> answerPing((long) frame.value));
+        onMessageSwitch.put(ServerToClientModel.HEARTBEAT, (message, frame) -> answerHeartbeat());
         onMessageSwitch.put(ServerToClientModel.WIDGET_VISIBLE, (message, frame) -> {
             final PonyWebElement element = findElement(message);
             if (element == null) return;
@@ -279,6 +299,9 @@ public class PonySDKWebDriver implements WebDriver {
     @Override
     public void close() {
         client.close();
+        synchronized (this) {
+            decoder.reset();
+        }
     }
 
     @Override
@@ -316,139 +339,29 @@ public class PonySDKWebDriver implements WebDriver {
 
     private synchronized void onMessage(final ByteBuffer message) {
         bandwithListener.onReceive(message.remaining());
-        while (message.hasRemaining()) {
-            ByteBuffer b;
-            //buffer is in write mode
-            if (buffer.position() == 0) { //buffer has no pending data => use message directly
-                b = message;
-            } else { //buffer has pending data => append message to it
-                if (message.remaining() <= buffer.remaining()) {
-                    buffer.put(message);
-                } else {
-                    final int limit = message.limit();
-                    message.limit(message.position() + buffer.remaining());
-                    buffer.put(message);
-                    message.limit(limit);
-                }
-                buffer.flip();
-                b = buffer;
-            }
-
-            int length = 0;
-            loop: while (b.hasRemaining()) {
-                Object value = null;
-                final int position = b.position();
-                final ServerToClientModel model = readModel(b);
-                final ValueTypeModel typeModel = model.getTypeModel();
-                final int size = typeModel == ValueTypeModel.LONG || typeModel == ValueTypeModel.DOUBLE ? -1 : typeModel.getSize();
-                if (b.remaining() < size) {
-                    b.position(position);
-                    break loop;
-                }
-                switch (model.getTypeModel()) {
-                    case NULL:
-                        break;
-                    case BOOLEAN:
-                        value = b.get() != 0;
-                        break;
-                    case BYTE:
-                        value = b.get();
-                        break;
-                    case SHORT:
-                        value = b.getShort();
-                        break;
-                    case INTEGER:
-                        value = b.getInt();
-                        break;
-                    case LONG:
-                        length = readStringLength(b, position, 1, PonySDKWebDriver::readUnsignedByte);
-                        if (length < 0 || length > b.remaining()) {
-                            b.position(position);
-                            break loop;
-                        }
-                        value = readString(StandardCharsets.ISO_8859_1, b, length);
-                        if (value == null) break loop;
-                        value = Long.parseLong((String) value);
-                        break;
-                    case DOUBLE:
-                        length = readStringLength(b, position, 1, PonySDKWebDriver::readUnsignedByte);
-                        if (length < 0 || length > b.remaining()) {
-                            b.position(position);
-                            break loop;
-                        }
-                        value = readString(StandardCharsets.ISO_8859_1, b, length);
-                        if (value == null) break loop;
-                        value = Double.parseDouble((String) value);
-                        break;
-                    case STRING:
-                        length = readStringLength(b, position, 2, PonySDKWebDriver::readUnsignedShort);
-                        if (length < 0 || length > b.remaining()) {
-                            b.position(position);
-                            break loop;
-                        }
-                        value = readString(StandardCharsets.ISO_8859_1, b, length);
-                        if (value == null) break loop;
-                        break;
-                    case STRING_UTF8:
-                        length = readStringLength(b, position, 2, PonySDKWebDriver::readUnsignedShort);
-                        if (length < 0 || length > b.remaining()) {
-                            b.position(position);
-                            break loop;
-                        }
-                        value = readString(StandardCharsets.UTF_8, b, length);
-                        if (value == null) break loop;
-                        break;
-                    case JSON_OBJECT:
-                        length = readStringLength(b, position, 4, (buff) -> buff.getInt());
-                        if (length < 0 || length > b.remaining()) {
-                            b.position(position);
-                            break loop;
-                        }
-                        value = readString(StandardCharsets.UTF_8, b, length);
-                        if (value == null) break loop;
-                        try (JsonReader jsonReader = Json.createReader(new StringReader((String) value))) {
-                            value = jsonReader.readObject();
-                        } catch (final JsonParsingException e) {
-                            log.error("Invalid json object : {}", value, e);
-                            value = null;
-                        }
-                        break;
-                }
-                try {
-                    onMessage(model, value);
-                } catch (final PonyIOException e) {
-                    log.error("Error when reading message", e);
-                    close();
-                    return;
-                }
-            }
-            length += 5;
-            if (b == message && b.hasRemaining()) {
-                if (buffer.capacity() < length) {
-                    buffer = ByteBuffer.allocate(Math.max(buffer.capacity() << 1, length));
-                }
-                buffer.put(message);
-            } else if (b == buffer && b.hasRemaining()) {
-                if (buffer.capacity() < length) {
-                    buffer = ByteBuffer.allocate(Math.max(buffer.capacity() << 1, length));
-                    buffer.put(b);
-                } else {
-                    b.compact();
-                }
-            } else if (b == buffer && !b.hasRemaining()) {
-                b.clear();
-            }
+        try {
+            decoder.decode(message, frameVisitor);
+        } catch (final PonyIOException e) {
+            log.error("Error when reading message", e);
+            close();
         }
+    }
 
+    private void onContextCreated(final int contextId) {
+        this.contextId = contextId;
+        log.info("UI Context created with ID {}", contextId);
+        sendCookies();
     }
 
-    private void onMessage(final ServerToClientModel model, final Object value) {
-        if (model == ServerToClientModel.END) {
-            onMessage(messageInConstruction);
-            messageInConstruction.clear();
-        } else {
-            messageInConstruction.add(new PonyFrame(model, value));
-        }
+    private void answerPing(final long start) {
+        final JsonObject json = Json.createObjectBuilder() //
+            .add(ClientToServerModel.PING_SERVER.toStringValue(), start) //
+            .build();
+        sendMessage(json);
+    }
+
+    private void answerHeartbeat() {
+        sendMessage(ClientToServerModel.HEARTBEAT.toStringValue());
     }
 
     private void onMessage(final List<PonyFrame> message) {
@@ -475,40 +388,6 @@ public class PonySDKWebDriver implements WebDriver {
         return null;
     }
 
-    private static byte[] getLocalByteArray(final int minLength) {
-        byte[] array = byteArrays.get();
-        if (array.length < minLength) byteArrays.set(array = new byte[Math.max(array.length << 1, minLength)]);
-        return array;
-    }
-
-    private static int readStringLength(final ByteBuffer b, final int position, final int lengthOfLength,
-                                        final ToIntFunction<ByteBuffer> sizeRetriever) {
-        if (b.remaining() < lengthOfLength) {
-            b.position(position);
-            return -1;
-        } else {
-            return sizeRetriever.applyAsInt(b);
-        }
-    }
-
-    private static String readString(final Charset charset, final ByteBuffer b, final int length) {
-        final byte[] bytes = getLocalByteArray(length);
-        b.get(bytes, 0, length);
-        return new String(bytes, 0, length, charset);
-    }
-
-    private ServerToClientModel readModel(final ByteBuffer buffer) {
-        return ServerToClientModel.fromRawValue(readUnsignedByte(buffer));
-    }
-
-    private static short readUnsignedByte(final ByteBuffer buffer) {
-        return (short) (buffer.get() & 0xFF);
-    }
-
-    private static int readUnsignedShort(final ByteBuffer buffer) {
-        return buffer.getShort() & 0xFFFF;
-    }
-
     private void sendTypeHistory(final String value) {
         sendApplicationInstruction(Json.createObjectBuilder().add(ClientToServerModel.TYPE_HISTORY.toStringValue(), value).build());
     }
@@ -567,4 +446,147 @@ public class PonySDKWebDriver implements WebDriver {
         elements.clear();
     }
 
+    /**
+     * Builds the {@link PonyFrame} list of each message, for the elements and the {@link PonyMessageListener}
+     */
+    private final class FrameListVisitor implements PonyFrameVisitor {
+
+        private final List<PonyFrame> messageInConstruction = new ArrayList<>();
+
+        @Override
+        public void onNull(final ServerToClientModel model) {
+            messageInConstruction.add(new PonyFrame(model, null));
+        }
+
+        @Override
+        public void onBoolean(final ServerToClientModel model, final boolean value) {
+            messageInConstruction.add(new PonyFrame(model, value));
+        }
+
+        @Override
+        public void onByte(final ServerToClientModel model, final byte value) {
+            messageInConstruction.add(new PonyFrame(model, value));
+        }
+
+        @Override
+        public void onShort(final ServerToClientModel model, final short value) {
+            messageInConstruction.add(new PonyFrame(model, value));
+        }
+
+        @Override
+        public void onInt(final ServerToClientModel model, final int value) {
+            messageInConstruction.add(new PonyFrame(model, value));
+        }
+
+        @Override
+        public void onLong(final ServerToClientModel model, final long value) {
+            messageInConstruction.add(new PonyFrame(model, value));
+        }
+
+        @Override
+        public void onDouble(final ServerToClientModel model, final double value) {
+            messageInConstruction.add(new PonyFrame(model, value));
+        }
+
+        @Override
+        public void onString(final ServerToClientModel model, final CharSequence value) {
+            messageInConstruction.add(new PonyFrame(model, value == null ? null : value.toString()));
+        }
+
+        @Override
+        public void onJson(final ServerToClientModel model, final CharSequence json) {
+            JsonObject value;
+            try (JsonReader jsonReader = Json.createReader(new StringReader(json.toString()))) {
+                value = jsonReader.readObject();
+            } catch (final JsonParsingException e) {
+                log.error("Invalid json object : {}", json, e);
+                value = null;
+            }
+            messageInConstruction.add(new PonyFrame(model, value));
+        }
+
+        @Override
+        public void onIntArray(final ServerToClientModel model, final int[] values, final int length) {
+            messageInConstruction.add(new PonyFrame(model, Arrays.copyOf(values, length)));
+        }
+
+        @Override
+        public void onMessageEnd() {
+            onMessage(messageInConstruction);
+            messageInConstruction.clear();
+        }
+
+    }
+
+    /**
+     * Answers the protocol frames before giving them to the visitor of the user
+     */
+    private final class ProtocolVisitor implements PonyFrameVisitor {
+
+        private final PonyFrameVisitor visitor;
+
+        private ProtocolVisitor(final PonyFrameVisitor visitor) {
+            this.visitor = visitor;
+        }
+
+        @Override
+        public void onNull(final ServerToClientModel model) {
+            if (ServerToClientModel.HEARTBEAT == model) answerHeartbeat();
+            visitor.onNull(model);
+        }
+
+        @Override
+        public void onBoolean(final ServerToClientModel model, final boolean value) {
+            visitor.onBoolean(model, value);
+        }
+
+        @Override
+        public void onByte(final ServerToClientModel model, final byte value) {
+            visitor.onByte(model, value);
+        }
+
+        @Override
+        public void onShort(final ServerToClientModel model, final short value) {
+            visitor.onShort(model, value);
+        }
+
+        @Override
+        public void onInt(final ServerToClientModel model, final int value) {
+            if (ServerToClientModel.CREATE_CONTEXT == model) onContextCreated(value);
+            visitor.onInt(model, value);
+        }
+
+        @Override
+        public void onLong(final ServerToClientModel model, final long value) {
+            if (ServerToClientModel.PING_SERVER == model) answerPing(value);
+            visitor.onLong(model, value);
+        }
+
+        @Override
+        public void onDouble(final ServerToClientModel model, final double value) {
+            visitor.onDouble(model, value);
+        }
+
+        @Override
+        public void onString(final ServerToClientModel model, final CharSequence value) {
+            visitor.onString(model, value);
+        }
+
+        @Override
+        public void onJson(final ServerToClientModel model, final CharSequence json) {
+            visitor.onJson(model, json);
+        }
+
+        @Override
+        public void onIntArray(final ServerToClientModel model, final int[] values, final int length) {
+            visitor.onIntArray(model, values, length);
+        }
+
+        @Override
+        public void onMessageEnd() {
+            visitor.onMessageEnd();
+        }
+
+    }
+
 }
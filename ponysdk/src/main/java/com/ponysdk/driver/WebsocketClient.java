@@ -45,6 +45,7 @@ import javax.websocket.Session;
 
 import org.glassfish.tyrus.client.ClientManager;
 import org.glassfish.tyrus.client.ClientProperties;
+import org.glassfish.tyrus.client.ThreadPoolConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -72,17 +73,45 @@ public class WebsocketClient implements AutoCloseable {
     };
 
     private final MessageHandler.Whole<ByteBuffer> handler;
+    private final ClientManager clientManager;
 
     public WebsocketClient(final Whole<ByteBuffer> handler) {
+        this(handler, null);
+    }
+
+    /**
+     * @param clientManager
+     *            The client shared by many connections, null to create a client for each connection
+     */
+    public WebsocketClient(final Whole<ByteBuffer> handler, final ClientManager clientManager) {
         super();
         this.handler = handler;
+        this.clientManager = clientManager;
+    }
+
+    /**
+     * Creates a client whose container, and so its selector and worker threads, is shared by all the
+     * connections opened with it, instead of a container per connection
+     */
+    public static ClientManager createSharedClientManager(final int workerThreads) {
+        final ClientManager client = ClientManager.createClient();
+        client.getProperties().put(ClientProperties.SHARED_CONTAINER, true);
+        client.getProperties().put(ClientProperties.WORKER_THREAD_POOL_CONFIG,
+            ThreadPoolConfig.defaultConfig().setCorePoolSize(workerThreads).setMaxPoolSize(workerThreads));
+        client.getProperties().put(ClientProperties.REDIRECT_ENABLED, true);
+        return client;
     }
 
     public void connect(final URI uri) throws Exception {
         if (session != null) session.close();
         final ClientEndpointConfig cec = ClientEndpointConfig.Builder.create().configurator(configurator).build();
-        final ClientManager client = ClientManager.createClient();
-        client.getProperties().put(ClientProperties.REDIRECT_ENABLED, true);
+        final ClientManager client;
+        if (clientManager != null) {
+            client = clientManager;
+        } else {
+            client = ClientManager.createClient();
+            client.getProperties().put(ClientProperties.REDIRECT_ENABLED, true);
+        }
         final Lock lock = new ReentrantLock();
         final Condition condition = lock.newCondition();
         client.connectToServer(new Endpoint() {
@@ -40,9 +40,11 @@ import org.slf4j.LoggerFactory;
 import com.ponysdk.core.model.MappingPath;
 import com.ponysdk.core.server.application.ApplicationConfiguration;
 import com.ponysdk.core.server.application.ApplicationManager;
+import com.ponysdk.core.server.metrics.ServerMetrics;
 import com.ponysdk.core.server.servlet.AjaxServlet;
 import com.ponysdk.core.server.servlet.ApplicationLoader;
 import com.ponysdk.core.server.servlet.BootstrapServlet;
+import com.ponysdk.core.server.servlet.MetricsServlet;
 import com.ponysdk.core.server.servlet.StreamServiceServlet;
 import com.ponysdk.core.server.websocket.WebSocketServlet;
 
@@ -52,6 +54,7 @@ public class PonySDKServer {
     public static final String MAPPING_WS = "/" + MappingPath.WEBSOCKET + "/*";
     public static final String MAPPING_STREAM = "/" + MappingPath.STREAM;
     public static final String MAPPING_AJAX = "/" + MappingPath.AJAX;
+    public static final String MAPPING_METRICS = "/metrics";
 
     private static final Logger log = LoggerFactory.getLogger(PonySDKServer.class);
 
@@ -73,6 +76,7 @@ public class PonySDKServer {
     private boolean needClientAuth = false;
     private String[] enabledProtocols = new String[] { "TLSv1", "TLSv1.1", "TLSv1.2" };
     private String enabledCipherSuites;
+    private boolean metricsEndpointEnabled = false;
 
     public PonySDKServer() {
         server = new Server();
@@ -90,6 +94,7 @@ public class PonySDKServer {
         server.setHandler(gzip);
 
         applicationManager.start();
+        ServerMetrics.registerMBean();
 
         server.start();
         server.join();
@@ -108,6 +113,7 @@ public class PonySDKServer {
         context.addServlet(new ServletHolder(createStreamServiceServlet()), MAPPING_STREAM);
         context.addServlet(new ServletHolder(createAjaxServlet()), MAPPING_AJAX);
         context.addServlet(new ServletHolder(createWebSocketServlet()), MAPPING_WS);
+        if (metricsEndpointEnabled) context.addServlet(new ServletHolder(createMetricsServlet()), MAPPING_METRICS);
 
         return context;
     }
@@ -178,6 +184,10 @@ public class PonySDKServer {
         return new WebSocketServlet(applicationManager);
     }
 
+    protected MetricsServlet createMetricsServlet() {
+        return new MetricsServlet();
+    }
+
     public void stop() throws Exception {
         server.stop();
     }
@@ -238,6 +248,14 @@ public class PonySDKServer {
         this.enabledCipherSuites = enabledCipherSuites;
     }
 
+    /**
+     * Exposes the metrics of all the UIContexts in JSON on {@value #MAPPING_METRICS}. Disabled by
+     * default : the endpoint is not authenticated. The metrics are always available by JMX.
+     */
+    public void setMetricsEndpointEnabled(final boolean metricsEndpointEnabled) {
+        this.metricsEndpointEnabled = metricsEndpointEnabled;
+    }
+
     public void setApplicationManager(final ApplicationManager applicationManager) {
         this.applicationManager = applicationManager;
     }
@@ -45,6 +45,17 @@ function decode(arrayBufferView, byteOffset, byteLength) {
 if (typeof module !== 'undefined' && module.hasOwnProperty('exports')) module.exports.decode = decode;
 else window['decode'] = decode;
 
+// Encode String to UTF-8 for the binary messages to server
+var textEncoder = null;
+if ('TextEncoder' in window) textEncoder = new TextEncoder();
+
+function encode(string) {
+    if(textEncoder != null) return textEncoder.encode(string);
+    else return new Uint8Array(UTF8.setBytesFromString(string, []));
+}
+if (typeof module !== 'undefined' && module.hasOwnProperty('exports')) module.exports.encode = encode;
+else window['encode'] = encode;
+
 function AbstractAddon(params) {
   this.id = params.id;
   this.widgetID = params.widgetID;
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.application;
+
+import org.eclipse.jetty.websocket.servlet.ServletUpgradeRequest;
+import org.mockito.Mockito;
+
+import com.ponysdk.core.server.stm.TxnContext;
+import com.ponysdk.core.server.websocket.WebSocket;
+
+/**
+ * Creates real UIContexts on top of a mocked {@link WebSocket} for the tests
+ */
+public final class UIContextFixture {
+
+    private UIContextFixture() {
+    }
+
+    public static UIContext newUIContext() {
+        return newUIContext(Mockito.mock(WebSocket.class));
+    }
+
+    public static UIContext newUIContext(final WebSocket socket) {
+        return newUIContext(socket, new ApplicationConfiguration());
+    }
+
+    public static UIContext newUIContext(final ApplicationConfiguration configuration) {
+        return newUIContext(Mockito.mock(WebSocket.class), configuration);
+    }
+
+    public static UIContext newUIContext(final WebSocket socket, final ApplicationConfiguration configuration) {
+        return new UIContext(socket, new TxnContext(socket), configuration, Mockito.mock(ServletUpgradeRequest.class));
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.application;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.ponysdk.core.server.websocket.WebSocket;
+
+public class UIContextTest {
+
+    @Test
+    public void testActorModeDrainsInOneBatch() throws InterruptedException {
+        final WebSocket socket = Mockito.mock(WebSocket.class);
+        final UIContext uiContext = newActorUIContext(socket);
+
+        final int taskCount = 100;
+        final List<Integer> executed = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(taskCount);
+
+        // The producer must not block while the UIContext is locked
+        uiContext.acquire();
+        try {
+            final Thread producer = new Thread(() -> {
+                for (int i = 0; i < taskCount; i++) {
+                    final int task = i;
+                    assertTrue(uiContext.submit(() -> {
+                        executed.add(task);
+                        latch.countDown();
+                    }));
+                }
+            });
+            producer.start();
+            producer.join(TimeUnit.SECONDS.toMillis(5));
+            assertFalse(producer.isAlive());
+            assertTrue(executed.isEmpty());
+        } finally {
+            uiContext.release();
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < taskCount; i++) {
+            assertEquals(i, executed.get(i).intValue());
+        }
+        Mockito.verify(socket, Mockito.timeout(5000).times(1)).flush();
+    }
+
+    @Test
+    public void testActorModeDrainersDontWaitForLockedUIContexts() throws InterruptedException {
+        // More locked UIContexts than drainers
+        final List<UIContext> lockedContexts = new ArrayList<>();
+        for (int i = 0; i <= Runtime.getRuntime().availableProcessors(); i++) {
+            lockedContexts.add(newActorUIContext(Mockito.mock(WebSocket.class)));
+        }
+        final UIContext freeContext = newActorUIContext(Mockito.mock(WebSocket.class));
+        final CountDownLatch lockedExecutions = new CountDownLatch(lockedContexts.size());
+        final CountDownLatch freeExecution = new CountDownLatch(1);
+
+        lockedContexts.forEach(UIContext::acquire);
+        try {
+            final Thread producer = new Thread(() -> {
+                lockedContexts.forEach(uiContext -> uiContext.submit(lockedExecutions::countDown));
+                freeContext.submit(freeExecution::countDown);
+            });
+            producer.start();
+            producer.join(TimeUnit.SECONDS.toMillis(5));
+            assertTrue(freeExecution.await(5, TimeUnit.SECONDS));
+            assertEquals(lockedContexts.size(), lockedExecutions.getCount());
+        } finally {
+            lockedContexts.forEach(UIContext::release);
+        }
+
+        // Drained once released
+        assertTrue(lockedExecutions.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testActorModeExecuteIsSynchronous() {
+        final UIContext uiContext = newActorUIContext(Mockito.mock(WebSocket.class));
+        final List<Integer> executed = new ArrayList<>();
+
+        assertTrue(uiContext.execute(() -> executed.add(1)));
+        assertEquals(Arrays.asList(1), executed);
+    }
+
+    @Test
+    public void testConflatedPushKeepsLatestValueByKey() throws InterruptedException {
+        final UIContext uiContext = newActorUIContext(Mockito.mock(WebSocket.class));
+
+        final List<Object> received = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(2);
+        uiContext.addDataListener(data -> {
+            received.add(data);
+            latch.countDown();
+        });
+
+        uiContext.acquire();
+        try {
+            final Thread producer = new Thread(() -> {
+                uiContext.pushToClient("A", 1);
+                uiContext.pushToClient("B", 1);
+                uiContext.pushToClient("A", 2);
+                uiContext.pushToClient("A", 3);
+            });
+            producer.start();
+            producer.join(TimeUnit.SECONDS.toMillis(5));
+        } finally {
+            uiContext.release();
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(3, 1), received);
+        assertEquals(2, uiContext.getConflatedUpdateCount());
+        assertEquals(2, uiContext.getPushedUpdateCount());
+    }
+
+    @Test
+    public void testConflatedPushSentAfterFailedDeferral() {
+        final WebSocket socket = Mockito.mock(WebSocket.class);
+        final UIContext uiContext = UIContextFixture.newUIContext(socket);
+        final List<Object> received = new ArrayList<>();
+        uiContext.addDataListener(received::add);
+
+        Mockito.when(socket.isUnderPressure()).thenThrow(new IllegalStateException("Socket closed")).thenReturn(false);
+        assertTrue(uiContext.pushToClient("A", 1));
+        assertTrue(uiContext.pushToClient("A", 2));
+        assertEquals(Arrays.asList(1, 2), received);
+    }
+
+    @Test
+    public void testDroppableTaskSkippedUnderPressure() {
+        final WebSocket socket = Mockito.mock(WebSocket.class);
+        final UIContext uiContext = UIContextFixture.newUIContext(socket);
+        final List<TaskPriority> executed = new ArrayList<>();
+
+        Mockito.when(socket.isUnderPressure()).thenReturn(true);
+        assertTrue(uiContext.isUnderPressure());
+        assertTrue(uiContext.execute(() -> executed.add(TaskPriority.DROPPABLE), TaskPriority.DROPPABLE));
+        assertTrue(uiContext.execute(() -> executed.add(TaskPriority.URGENT), TaskPriority.URGENT));
+        assertEquals(Arrays.asList(TaskPriority.URGENT), executed);
+        assertEquals(1, uiContext.getDroppedTaskCount());
+
+        Mockito.when(socket.isUnderPressure()).thenReturn(false);
+        assertTrue(uiContext.execute(() -> executed.add(TaskPriority.DROPPABLE), TaskPriority.DROPPABLE));
+        assertEquals(Arrays.asList(TaskPriority.URGENT, TaskPriority.DROPPABLE), executed);
+    }
+
+    private static UIContext newActorUIContext(final WebSocket socket) {
+        final ApplicationConfiguration configuration = new ApplicationConfiguration();
+        configuration.setActorMode(true);
+        return UIContextFixture.newUIContext(socket, configuration);
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.broadcast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.ponysdk.core.server.application.UIContext;
+import com.ponysdk.core.server.application.UIContextFixture;
+import com.ponysdk.core.server.websocket.WebSocket;
+
+public class BroadcastServiceTest {
+
+    @Test
+    public void testBusyUIContextDoesNotHoldUpTheOthers() throws Exception {
+        final BroadcastService service = new BroadcastService(4);
+        final List<Object> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(3);
+        final UIContext busy = UIContextFixture.newUIContext(Mockito.mock(WebSocket.class));
+        busy.addDataListener(received::add);
+        for (int i = 0; i < 3; i++) {
+            final UIContext uiContext = UIContextFixture.newUIContext(Mockito.mock(WebSocket.class));
+            uiContext.addDataListener(data -> {
+                received.add(data);
+                latch.countDown();
+            });
+            service.subscribe("prices", uiContext);
+        }
+        service.subscribe("prices", busy);
+
+        final CompletableFuture<BroadcastReport> future;
+        busy.acquire();
+        try {
+            future = service.broadcast("prices", "EUR");
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertFalse(future.isDone());
+        } finally {
+            busy.release();
+        }
+
+        final BroadcastReport report = future.get(5, TimeUnit.SECONDS);
+        assertEquals(4, report.getRecipients());
+        assertEquals(4, report.getDelivered());
+        assertEquals(4, received.size());
+        assertEquals(1, service.getFanOutLatency().getCount());
+    }
+
+    @Test
+    public void testLockedUIContextDoesNotHoldUpItsWorker() throws Exception {
+        // A single worker, shared by both UIContexts, and a backlog of 2 broadcasts
+        final BroadcastService service = new BroadcastService(1, 2);
+        final UIContext locked = UIContextFixture.newUIContext(Mockito.mock(WebSocket.class));
+        final List<Object> lockedReceived = new CopyOnWriteArrayList<>();
+        locked.addDataListener(lockedReceived::add);
+        service.subscribe("prices", locked);
+        final UIContext free = UIContextFixture.newUIContext(Mockito.mock(WebSocket.class));
+        final List<Object> freeReceived = new CopyOnWriteArrayList<>();
+        final CountDownLatch freeLatch = new CountDownLatch(2);
+        free.addDataListener(data -> {
+            freeReceived.add(data);
+            freeLatch.countDown();
+        });
+        service.subscribe("prices", free);
+
+        final CompletableFuture<BroadcastReport> first;
+        final CompletableFuture<BroadcastReport> second;
+        locked.acquire();
+        try {
+            first = service.broadcast("prices", 1);
+            second = service.broadcast("prices", 2);
+            assertTrue(freeLatch.await(5, TimeUnit.SECONDS));
+            // Beyond the backlog of the locked UIContext only
+            final BroadcastReport third = service.broadcast("prices", 3).get(5, TimeUnit.SECONDS);
+            assertEquals(1, third.getDelivered());
+            assertEquals(1, third.getSkipped());
+            assertEquals(Arrays.asList(1, 2, 3), freeReceived);
+            assertFalse(first.isDone());
+            assertTrue(lockedReceived.isEmpty());
+        } finally {
+            locked.release();
+        }
+
+        assertEquals(2, first.get(5, TimeUnit.SECONDS).getDelivered());
+        assertEquals(2, second.get(5, TimeUnit.SECONDS).getDelivered());
+        assertEquals(Arrays.asList(1, 2), lockedReceived);
+    }
+
+    @Test
+    public void testBroadcastsReceivedInOrder() throws Exception {
+        final BroadcastService service = new BroadcastService(4);
+        final UIContext uiContext = UIContextFixture.newUIContext(Mockito.mock(WebSocket.class));
+        final List<Object> received = new CopyOnWriteArrayList<>();
+        uiContext.addDataListener(received::add);
+        service.subscribe("prices", uiContext);
+
+        final int count = 1000;
+        CompletableFuture<BroadcastReport> last = null;
+        for (int i = 1; i <= count; i++) {
+            last = service.broadcast("prices", "EUR", i);
+        }
+        last.get(5, TimeUnit.SECONDS);
+
+        // Conflated or not, the ticks are handed over in order : the latest one is received last
+        assertEquals(count, received.get(received.size() - 1));
+        for (int i = 1; i < received.size(); i++) {
+            assertTrue((Integer) received.get(i - 1) < (Integer) received.get(i));
+        }
+    }
+
+    @Test
+    public void testUIContextUnderPressureSkipped() throws Exception {
+        final BroadcastService service = new BroadcastService(2);
+        final WebSocket socket = Mockito.mock(WebSocket.class);
+        Mockito.when(socket.isUnderPressure()).thenReturn(true);
+        final UIContext underPressure = UIContextFixture.newUIContext(socket);
+        final List<Object> received = new CopyOnWriteArrayList<>();
+        underPressure.addDataListener(received::add);
+        service.subscribe("alerts", underPressure);
+        final UIContext withoutListener = UIContextFixture.newUIContext(Mockito.mock(WebSocket.class));
+        service.subscribe("alerts", withoutListener);
+
+        final BroadcastReport report = service.broadcast("alerts", "alert").get(5, TimeUnit.SECONDS);
+        assertEquals(2, report.getRecipients());
+        assertEquals(0, report.getDelivered());
+        assertEquals(1, report.getSkipped());
+        assertEquals(1, report.getFailed());
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    public void testDestroyedUIContextUnsubscribed() throws Exception {
+        final BroadcastService service = new BroadcastService(1);
+        final UIContext uiContext = UIContextFixture.newUIContext(Mockito.mock(WebSocket.class));
+        service.subscribe("news", uiContext);
+        service.subscribe("news", uiContext);
+        assertEquals(1, service.countSubscribers("news"));
+
+        uiContext.destroy();
+        assertEquals(0, service.countSubscribers("news"));
+        assertEquals(0, service.broadcast("news", "news").get(5, TimeUnit.SECONDS).getRecipients());
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.ponysdk.core.server.application.ApplicationConfiguration;
+import com.ponysdk.core.server.application.TaskPriority;
+import com.ponysdk.core.server.application.UIContext;
+import com.ponysdk.core.server.application.UIContextFixture;
+import com.ponysdk.core.server.concurrent.PScheduler.UIRunnable;
+import com.ponysdk.core.server.stm.Txn;
+import com.ponysdk.core.server.websocket.WebSocket;
+
+public class PSchedulerTest {
+
+    private static final Duration PERIOD = Duration.ofMillis(20);
+
+    @Test
+    public void testPeriodicTaskUrgentByDefault() throws InterruptedException {
+        final UIContext uiContext = UIContextFixture.newUIContext(newSocket(new AtomicBoolean(true)));
+        final CountDownLatch executions = new CountDownLatch(2);
+
+        final UIRunnable task = PScheduler.scheduleAtFixedRate(uiContext, executions::countDown, PERIOD);
+        try {
+            assertEquals(TaskPriority.URGENT, task.getPriority());
+            assertTrue(executions.await(5, TimeUnit.SECONDS));
+            assertEquals(0, uiContext.getDroppedTaskCount());
+        } finally {
+            task.cancel();
+        }
+    }
+
+    @Test
+    public void testDroppablePeriodicTaskSkippedUnderPressure() throws InterruptedException {
+        final AtomicBoolean underPressure = new AtomicBoolean(true);
+        final UIContext uiContext = UIContextFixture.newUIContext(newSocket(underPressure));
+        final AtomicInteger executions = new AtomicInteger();
+
+        final UIRunnable task = PScheduler.scheduleAtFixedRate(uiContext, executions::incrementAndGet, Duration.ZERO, PERIOD,
+            TaskPriority.DROPPABLE);
+        try {
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (uiContext.getDroppedTaskCount() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(PERIOD.toMillis());
+            }
+            assertTrue(uiContext.getDroppedTaskCount() >= 2);
+            assertEquals(0, executions.get());
+
+            // Still scheduled : it runs again once the terminal catches up
+            underPressure.set(false);
+            while (executions.get() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(PERIOD.toMillis());
+            }
+            assertTrue(executions.get() > 0);
+        } finally {
+            task.cancel();
+        }
+    }
+
+    @Test
+    public void testTasksOfSameTickRunInOneExecute() throws InterruptedException {
+        final int taskCount = 5;
+        // Scheduling the tasks may rarely straddle a tick boundary, the tasks are then split in two groups
+        for (int attempt = 0; attempt < 3; attempt++) {
+            final WebSocket socket = Mockito.mock(WebSocket.class);
+            final UIContext uiContext = UIContextFixture.newUIContext(socket);
+            final Set<Txn> transactions = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+            final CountDownLatch executions = new CountDownLatch(taskCount);
+
+            final Duration delay = Duration.ofMillis(100);
+            for (int i = 0; i < taskCount; i++) {
+                PScheduler.schedule(uiContext, () -> {
+                    transactions.add(Txn.get());
+                    executions.countDown();
+                }, delay);
+            }
+
+            assertTrue(executions.await(5, TimeUnit.SECONDS));
+            if (transactions.size() > 1) continue;
+            Mockito.verify(socket, Mockito.timeout(1000)).flush();
+            Mockito.verify(socket, Mockito.after(100).times(1)).flush();
+            return;
+        }
+        fail("The tasks of the same tick have not been run in one execute");
+    }
+
+    @Test
+    public void testActorModePeriodicTaskQueuedOnce() throws InterruptedException {
+        final ApplicationConfiguration configuration = new ApplicationConfiguration();
+        configuration.setActorMode(true);
+        final UIContext uiContext = UIContextFixture.newUIContext(Mockito.mock(WebSocket.class), configuration);
+        final AtomicInteger executions = new AtomicInteger();
+
+        final Duration period = Duration.ofMillis(200);
+        final UIRunnable task;
+        uiContext.acquire();
+        try {
+            task = PScheduler.scheduleWithFixedDelay(uiContext, executions::incrementAndGet, Duration.ZERO, period);
+            // Several periods while the UIContext is locked
+            Thread.sleep(5 * period.toMillis());
+            assertEquals(0, executions.get());
+        } finally {
+            uiContext.release();
+        }
+        try {
+            // The next execution is only scheduled once the queued one has run
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (executions.get() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(period.toMillis() / 4);
+            assertEquals(1, executions.get());
+        } finally {
+            task.cancel();
+        }
+    }
+
+    // Stubbed once : a mock can't be stubbed again while the scheduler threads use it
+    private static WebSocket newSocket(final AtomicBoolean underPressure) {
+        final WebSocket socket = Mockito.mock(WebSocket.class);
+        Mockito.when(socket.isUnderPressure()).thenAnswer(invocation -> underPressure.get());
+        return socket;
+    }
+
+}
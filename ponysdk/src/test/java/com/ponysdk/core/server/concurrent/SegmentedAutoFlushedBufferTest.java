@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.concurrent;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class SegmentedAutoFlushedBufferTest {
+
+    private static class TestBuffer extends SegmentedAutoFlushedBuffer {
+
+        private final ByteArrayOutputStream flushed = new ByteArrayOutputStream();
+        private final boolean completeFlushes;
+        private int flushCount;
+
+        private TestBuffer(final int segmentSize, final boolean completeFlushes) {
+            super(4 * segmentSize, segmentSize, 0.25f, 0);
+            this.completeFlushes = completeFlushes;
+        }
+
+        @Override
+        protected void doFlush(final ByteBuffer bufferToFlush) {
+            flushCount++;
+            if (!completeFlushes) return;
+            while (bufferToFlush.hasRemaining()) {
+                flushed.write(bufferToFlush.get());
+            }
+            onFlushCompletion();
+        }
+
+        @Override
+        protected void closeFlusher() {
+        }
+    }
+
+    @Test
+    public void testSegmentsAreFlushedInOrderAndReleased() throws IOException {
+        final TestBuffer buffer = new TestBuffer(16, true);
+        final byte[] bytes = new byte[100];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        buffer.put(bytes);
+        buffer.putInt(0x01020304);
+        buffer.flush();
+
+        final ByteBuffer expected = ByteBuffer.allocate(104).put(bytes).putInt(0x01020304);
+        assertArrayEquals(expected.array(), buffer.flushed.toByteArray());
+        assertEquals(7, buffer.flushCount);
+        assertEquals(0, buffer.getSegmentCount());
+    }
+
+    @Test
+    public void testCloseReleasesIdleProducerSegment() throws IOException, InterruptedException {
+        // A segment size of its own, the pool isn't shared with the other tests
+        final TestBuffer buffer = new TestBuffer(24, true);
+        final DirectBufferPool pool = DirectBufferPool.get(24);
+        buffer.putInt(0);
+        assertEquals(1, buffer.getSegmentCount());
+        assertEquals(1, pool.getBorrowedCount());
+
+        final Thread closer = new Thread(() -> {
+            try {
+                buffer.close();
+            } catch (final IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        closer.start();
+        closer.join();
+
+        assertEquals(0, buffer.getSegmentCount());
+        assertEquals(0, pool.getBorrowedCount());
+        try {
+            buffer.putInt(0);
+            fail("The buffer is closed");
+        } catch (final IOException e) {
+            assertEquals(0, pool.getBorrowedCount());
+        }
+    }
+
+    @Test
+    public void testMaxSizeIsEnforced() throws IOException {
+        final TestBuffer buffer = new TestBuffer(8, false);
+        for (int i = 0; i < 3; i++) {
+            buffer.putLong(i);
+        }
+        buffer.putInt(0);
+        assertTrue(buffer.shouldOnlyWriteUrgentMessages());
+        try {
+            buffer.putInt(0);
+            buffer.putLong(0);
+            fail("The buffer is full");
+        } catch (final IOException e) {
+            assertTrue(buffer.isClosed());
+        }
+    }
+
+}
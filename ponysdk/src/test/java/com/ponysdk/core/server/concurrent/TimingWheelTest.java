@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class TimingWheelTest {
+
+    // Small wheel, so the timeouts need several rounds
+    private final TimingWheel wheel = new TimingWheel(r -> {
+        final Thread t = new Thread(r);
+        t.setDaemon(true);
+        return t;
+    }, Runnable::run, 1, TimeUnit.MILLISECONDS, 8);
+
+    @Test
+    public void testTimeoutsExpireInDeadlineOrder() throws InterruptedException {
+        final List<Integer> expired = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(3);
+        final long now = System.nanoTime();
+        wheel.newTimeout(() -> {
+            expired.add(3);
+            latch.countDown();
+        }, now + TimeUnit.MILLISECONDS.toNanos(60));
+        wheel.newTimeout(() -> {
+            expired.add(1);
+            latch.countDown();
+        }, now);
+        wheel.newTimeout(() -> {
+            expired.add(2);
+            latch.countDown();
+        }, now + TimeUnit.MILLISECONDS.toNanos(20));
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2, 3), expired);
+        assertTrue(System.nanoTime() - now >= TimeUnit.MILLISECONDS.toNanos(60));
+    }
+
+    @Test
+    public void testCancelledTimeoutNeverExpires() throws InterruptedException {
+        final CountDownLatch cancelledLatch = new CountDownLatch(1);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long now = System.nanoTime();
+        // Far enough to be cancelled before expiring on a loaded machine
+        final TimingWheel.Timeout timeout = wheel.newTimeout(cancelledLatch::countDown, now + TimeUnit.MILLISECONDS.toNanos(500));
+        wheel.newTimeout(latch::countDown, now + TimeUnit.MILLISECONDS.toNanos(600));
+
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertFalse(cancelledLatch.await(0, TimeUnit.MILLISECONDS));
+    }
+
+}
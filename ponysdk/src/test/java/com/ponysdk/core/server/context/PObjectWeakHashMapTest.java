@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.ponysdk.core.ui.basic.PObject;
+import com.ponysdk.core.ui.basic.PWindow;
+
+public class PObjectWeakHashMapTest {
+
+    private static PObject newObject() {
+        final PObject object = Mockito.mock(PObject.class);
+        Mockito.when(object.getWindow()).thenReturn(Mockito.mock(PWindow.class));
+        return object;
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        final PObjectWeakHashMap map = new PObjectWeakHashMap();
+        final int count = 10_000;
+        final PObject[] objects = new PObject[count];
+        for (int i = 0; i < count; i++) {
+            objects[i] = newObject();
+            map.put(i + 1, objects[i]);
+        }
+        assertEquals(count, map.size());
+
+        for (int i = 0; i < count; i++) {
+            assertSame(objects[i], map.get(i + 1));
+        }
+        assertNull(map.get(count + 1));
+
+        // Remove every other object, the others have to be still reachable
+        for (int i = 0; i < count; i += 2) {
+            assertSame(objects[i], map.remove(i + 1));
+        }
+        assertEquals(count / 2, map.size());
+        for (int i = 0; i < count; i++) {
+            if (i % 2 == 0) assertNull(map.get(i + 1));
+            else assertSame(objects[i], map.get(i + 1));
+        }
+
+        assertTrue(map.containsKey(2));
+        assertTrue(map.containsValue(objects[1]));
+    }
+
+    @Test
+    public void testReplace() {
+        final PObjectWeakHashMap map = new PObjectWeakHashMap();
+        final PObject first = newObject();
+        final PObject second = newObject();
+        map.put(1, first);
+        map.put(1, second);
+        assertEquals(1, map.size());
+        assertSame(second, map.get(1));
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.ponysdk.core.server.application.UIContext;
+
+public class UIContextIndexTest {
+
+    private static UIContext newUIContext() {
+        return new UIContext(null, null, null, null);
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        final UIContextIndex index = new UIContextIndex();
+        final int count = 6_000;
+        final UIContext[] uiContexts = new UIContext[count];
+        for (int i = 0; i < count; i++) {
+            uiContexts[i] = newUIContext();
+            index.put(uiContexts[i]);
+        }
+        index.put(uiContexts[0]);
+        assertEquals(count, index.size());
+
+        for (int i = 0; i < count; i += 2) {
+            index.remove(uiContexts[i].getID());
+        }
+        index.remove(-1);
+        assertEquals(count / 2, index.size());
+        for (int i = 0; i < count; i++) {
+            if (i % 2 == 0) assertNull(index.get(uiContexts[i].getID()));
+            else assertSame(uiContexts[i], index.get(uiContexts[i].getID()));
+        }
+        assertNull(index.get(-1));
+    }
+
+    @Test
+    public void testChurnPurgesTombstones() {
+        final UIContextIndex index = new UIContextIndex();
+        final UIContext stable = newUIContext();
+        index.put(stable);
+        // Far more registrations than the capacity : the tombstones must be recycled
+        for (int i = 1; i <= 20_000; i++) {
+            final UIContext uiContext = newUIContext();
+            index.put(uiContext);
+            assertSame(uiContext, index.get(uiContext.getID()));
+            index.remove(uiContext.getID());
+        }
+        assertEquals(1, index.size());
+        assertSame(stable, index.get(stable.getID()));
+    }
+
+    @Test
+    public void testLockFreeReadsDuringRegistrations() throws InterruptedException {
+        final UIContextIndex index = new UIContextIndex();
+        final UIContext[] stable = new UIContext[100];
+        for (int i = 0; i < stable.length; i++) {
+            stable[i] = newUIContext();
+            index.put(stable[i]);
+        }
+
+        final AtomicBoolean failed = new AtomicBoolean();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final Thread reader = new Thread(() -> {
+            while (running.get()) {
+                for (final UIContext uiContext : stable) {
+                    if (index.get(uiContext.getID()) != uiContext) failed.set(true);
+                }
+            }
+        });
+        reader.start();
+        final UIContext[] churn = new UIContext[10_000];
+        for (int i = 0; i < churn.length; i++) {
+            churn[i] = newUIContext();
+        }
+        for (int round = 0; round < 5; round++) {
+            for (final UIContext uiContext : churn) {
+                index.put(uiContext);
+            }
+            for (final UIContext uiContext : churn) {
+                index.remove(uiContext.getID());
+            }
+        }
+        running.set(false);
+        reader.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(failed.get());
+        assertEquals(stable.length, index.size());
+    }
+
+}
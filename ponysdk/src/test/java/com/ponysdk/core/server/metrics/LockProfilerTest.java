@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.ponysdk.core.server.application.ApplicationConfiguration;
+import com.ponysdk.core.server.application.UIContext;
+import com.ponysdk.core.server.application.UIContextFixture;
+
+public class LockProfilerTest {
+
+    // The long holds exceed the threshold by a wide margin, to be reported even on a slow machine
+    private static final long THRESHOLD_MILLIS = 100;
+    private static final long LONG_HOLD_MILLIS = 3 * THRESHOLD_MILLIS;
+
+    @Test
+    public void testDisabledByDefault() {
+        final UIContext uiContext = UIContextFixture.newUIContext();
+        assertNull(uiContext.getLockProfiler());
+    }
+
+    @Test
+    public void testLongHoldReported() {
+        final UIContext uiContext = newProfiledUIContext();
+        final LockProfiler profiler = uiContext.getLockProfiler();
+
+        uiContext.execute(() -> {
+        });
+        // A slow machine may report the short hold as well, only the long one is certain
+        final int longHoldCount = profiler.getLongHolds().size();
+
+        uiContext.execute(() -> sleep(LONG_HOLD_MILLIS));
+        final List<LockHoldEvent> longHolds = profiler.getLongHolds();
+        assertEquals(longHoldCount + 1, longHolds.size());
+        // The newest first
+        final LockHoldEvent event = longHolds.get(0);
+        assertEquals(uiContext.getID(), event.getUIContextID());
+        assertEquals(Thread.currentThread().getName(), event.getThreadName());
+        assertTrue(event.getHoldNanos() >= TimeUnit.MILLISECONDS.toNanos(LONG_HOLD_MILLIS));
+        assertTrue(event.getCallSite(), event.getCallSite().startsWith(LockProfilerTest.class.getName()));
+        assertTrue(event.getOrigin(), event.getOrigin().startsWith(LockProfilerTest.class.getName()));
+        assertEquals(2, profiler.getHoldTimes().getCount());
+        assertNull(profiler.getHolder());
+    }
+
+    @Test
+    public void testCurrentHoldDescribed() throws InterruptedException {
+        final UIContext uiContext = newProfiledUIContext();
+        final LockProfiler profiler = uiContext.getLockProfiler();
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch unlock = new CountDownLatch(1);
+
+        final Thread thread = new Thread(() -> uiContext.execute(() -> {
+            locked.countDown();
+            try {
+                unlock.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }), "holder");
+        thread.start();
+        try {
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+            assertEquals(thread, profiler.getHolder());
+            sleep(LONG_HOLD_MILLIS);
+            final String description = profiler.describeCurrentHold();
+            assertNotNull(description);
+            assertTrue(description, description.contains("by holder"));
+            assertTrue(description, description.contains(LockProfilerTest.class.getName()));
+        } finally {
+            unlock.countDown();
+        }
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+        assertNull(profiler.describeCurrentHold());
+        assertEquals("holder", profiler.getLongHolds().get(0).getThreadName());
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 99; i++) {
+            histogram.record(1000);
+        }
+        histogram.record(1_000_000);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(1023, histogram.getPercentile(50));
+        assertEquals(1023, histogram.getPercentile(99));
+        assertEquals(1_000_000, histogram.getPercentile(100));
+    }
+
+    private static UIContext newProfiledUIContext() {
+        final ApplicationConfiguration configuration = new ApplicationConfiguration();
+        configuration.setLockProfiling(true);
+        configuration.setLockHoldThreshold(Duration.ofMillis(THRESHOLD_MILLIS));
+        return UIContextFixture.newUIContext(configuration);
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
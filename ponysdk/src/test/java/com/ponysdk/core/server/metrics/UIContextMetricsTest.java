@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.ponysdk.core.server.application.UIContext;
+import com.ponysdk.core.server.application.UIContextFixture;
+
+public class UIContextMetricsTest {
+
+    @Test
+    public void testExecuteAndLockWaitRecorded() throws InterruptedException {
+        final UIContext uiContext = UIContextFixture.newUIContext();
+
+        uiContext.acquire();
+        final Thread thread = new Thread(() -> uiContext.execute(() -> {
+        }));
+        try {
+            thread.start();
+            while (thread.getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+            Thread.sleep(10);
+        } finally {
+            uiContext.release();
+        }
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+
+        final MetricsSnapshot snapshot = uiContext.getMetrics().snapshot(uiContext);
+        assertEquals(uiContext.getID(), snapshot.getUIContextID());
+        assertEquals(1, snapshot.get(Metric.EXECUTE_COUNT));
+        assertTrue(snapshot.get(Metric.LOCK_WAIT_NANOS) >= TimeUnit.MILLISECONDS.toNanos(10));
+        assertEquals(snapshot.get(Metric.LOCK_WAIT_NANOS), snapshot.get(Metric.MAX_LOCK_WAIT_NANOS));
+    }
+
+    @Test
+    public void testAggregateAndTop() {
+        final UIContext uiContext1 = UIContextFixture.newUIContext();
+        uiContext1.getMetrics().onFrameSent(100);
+        uiContext1.getMetrics().onBufferUsage(4096);
+        final UIContext uiContext2 = UIContextFixture.newUIContext();
+        uiContext2.getMetrics().onFrameSent(300);
+        uiContext2.getMetrics().onFrameSent(50);
+        uiContext2.getMetrics().onBufferUsage(1024);
+        final UIContext uiContext3 = UIContextFixture.newUIContext();
+
+        final List<MetricsSnapshot> snapshots = Arrays.asList(uiContext1.getMetrics().snapshot(uiContext1),
+            uiContext2.getMetrics().snapshot(uiContext2), uiContext3.getMetrics().snapshot(uiContext3));
+
+        final MetricsSnapshot aggregate = MetricsSnapshot.aggregate(snapshots);
+        assertEquals(MetricsSnapshot.AGGREGATE_ID, aggregate.getUIContextID());
+        assertEquals(450, aggregate.get(Metric.BYTES_SENT));
+        assertEquals(3, aggregate.get(Metric.FRAMES_SENT));
+        assertEquals(4096, aggregate.get(Metric.BUFFER_HIGH_WATER_MARK));
+
+        final List<MetricsSnapshot> top = MetricsSnapshot.top(snapshots, Metric.fromKey("bytesSent"), 2);
+        assertEquals(2, top.size());
+        assertEquals(uiContext2.getID(), top.get(0).getUIContextID());
+        assertEquals(uiContext1.getID(), top.get(1).getUIContextID());
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.stm;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import com.ponysdk.core.model.ServerToClientModel;
+import com.ponysdk.core.server.websocket.WebSocket;
+import com.ponysdk.core.writer.ModelWriter;
+import com.ponysdk.core.writer.ModelWriterCallback;
+
+public class TxnContextTest {
+
+    private WebSocket socket;
+    private TxnContext context;
+
+    @Before
+    public void before() {
+        socket = Mockito.mock(WebSocket.class);
+        context = new TxnContext(socket);
+        context.setCoalescingUpdates(true);
+    }
+
+    private static ModelWriterCallback header(final int objectID) {
+        return writer -> writer.write(ServerToClientModel.TYPE_UPDATE, objectID);
+    }
+
+    @Test
+    public void testUpdatesMergedIntoOneFrame() {
+        assertTrue(context.isCoalescingUpdates());
+
+        context.stackUpdate(1, header(1), ServerToClientModel.WIDGET_WIDTH.getValue(),
+            writer -> writer.write(ServerToClientModel.WIDGET_WIDTH, "10px"));
+        context.stackUpdate(1, header(1), ServerToClientModel.WIDGET_HEIGHT.getValue(),
+            writer -> writer.write(ServerToClientModel.WIDGET_HEIGHT, "20px"));
+        context.stackUpdate(1, header(1), ServerToClientModel.WIDGET_WIDTH.getValue(),
+            writer -> writer.write(ServerToClientModel.WIDGET_WIDTH, "30px"));
+
+        Mockito.verifyZeroInteractions(socket);
+
+        context.flush();
+
+        final InOrder inOrder = Mockito.inOrder(socket);
+        inOrder.verify(socket).beginObject();
+        inOrder.verify(socket).encode(ServerToClientModel.TYPE_UPDATE, 1);
+        inOrder.verify(socket).encode(ServerToClientModel.WIDGET_HEIGHT, (Object) "20px");
+        inOrder.verify(socket).encode(ServerToClientModel.WIDGET_WIDTH, (Object) "30px");
+        inOrder.verify(socket).endObject();
+        inOrder.verify(socket).flush();
+        Mockito.verify(socket, Mockito.never()).encode(ServerToClientModel.WIDGET_WIDTH, (Object) "10px");
+    }
+
+    @Test
+    public void testSupersededUpdateWrittenAfterInterleavedKeys() {
+        // setStyleName(a), addStyleName(b), setStyleName(c) : b must not survive c
+        context.stackUpdate(1, header(1), ServerToClientModel.STYLE_NAME.getValue(),
+            writer -> writer.write(ServerToClientModel.STYLE_NAME, "a"));
+        context.stackUpdate(1, header(1), ServerToClientModel.ADD_STYLE_NAME.getValue(),
+            writer -> writer.write(ServerToClientModel.ADD_STYLE_NAME, "b"));
+        context.stackUpdate(1, header(1), ServerToClientModel.STYLE_NAME.getValue(),
+            writer -> writer.write(ServerToClientModel.STYLE_NAME, "c"));
+
+        context.flush();
+
+        final InOrder inOrder = Mockito.inOrder(socket);
+        inOrder.verify(socket).encode(ServerToClientModel.TYPE_UPDATE, 1);
+        inOrder.verify(socket).encode(ServerToClientModel.ADD_STYLE_NAME, (Object) "b");
+        inOrder.verify(socket).encode(ServerToClientModel.STYLE_NAME, (Object) "c");
+        inOrder.verify(socket).endObject();
+        Mockito.verify(socket, Mockito.never()).encode(ServerToClientModel.STYLE_NAME, (Object) "a");
+    }
+
+    @Test
+    public void testPendingUpdatesWrittenBeforeOtherInstructions() {
+        context.stackUpdate(1, header(1), ServerToClientModel.WIDGET_WIDTH.getValue(),
+            writer -> writer.write(ServerToClientModel.WIDGET_WIDTH, "10px"));
+
+        final ModelWriter writer = context.getWriter();
+        writer.beginObject();
+        writer.write(ServerToClientModel.TYPE_GC, 1);
+        writer.endObject();
+
+        final InOrder inOrder = Mockito.inOrder(socket);
+        inOrder.verify(socket).encode(ServerToClientModel.TYPE_UPDATE, 1);
+        inOrder.verify(socket).encode(ServerToClientModel.WIDGET_WIDTH, (Object) "10px");
+        inOrder.verify(socket).endObject();
+        inOrder.verify(socket).beginObject();
+        inOrder.verify(socket).encode(ServerToClientModel.TYPE_GC, 1);
+    }
+
+}
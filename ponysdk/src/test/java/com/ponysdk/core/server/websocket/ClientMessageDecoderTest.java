@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.websocket;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import javax.json.JsonObject;
+import javax.json.spi.JsonProvider;
+
+import org.junit.Test;
+
+import com.ponysdk.core.model.ClientToServerModel;
+import com.ponysdk.core.model.ClientToServerValueTypeModel;
+
+public class ClientMessageDecoderTest {
+
+    private final JsonProvider jsonProvider = JsonProvider.provider();
+    private final ClientMessageDecoder decoder = new ClientMessageDecoder(jsonProvider);
+
+    @Test
+    public void testDecodeInstructions() {
+        final ByteBuffer buffer = ByteBuffer.allocate(256);
+        writeType(buffer, ClientToServerValueTypeModel.OBJECT);
+        buffer.putInt(1);
+        buffer.put(ClientToServerModel.APPLICATION_INSTRUCTIONS.getValue());
+        writeType(buffer, ClientToServerValueTypeModel.ARRAY);
+        buffer.putInt(1);
+        writeType(buffer, ClientToServerValueTypeModel.OBJECT);
+        buffer.putInt(6);
+        buffer.put(ClientToServerModel.OBJECT_ID.getValue());
+        writeType(buffer, ClientToServerValueTypeModel.INTEGER);
+        buffer.putInt(42);
+        buffer.put(ClientToServerModel.HANDLER_STRING_VALUE_CHANGE.getValue());
+        writeType(buffer, ClientToServerValueTypeModel.STRING);
+        final byte[] value = "héllo".getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(value.length);
+        buffer.put(value);
+        buffer.put(ClientToServerValueTypeModel.STRING_KEY);
+        final byte[] key = "custom".getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) key.length);
+        buffer.put(key);
+        writeType(buffer, ClientToServerValueTypeModel.DOUBLE);
+        buffer.putDouble(1.5);
+        buffer.put(ClientToServerModel.HANDLER_BOOLEAN_VALUE_CHANGE.getValue());
+        writeType(buffer, ClientToServerValueTypeModel.TRUE);
+        buffer.put(ClientToServerModel.HANDLER_CLOSE.getValue());
+        writeType(buffer, ClientToServerValueTypeModel.FALSE);
+        buffer.put(ClientToServerModel.NATIVE.getValue());
+        writeType(buffer, ClientToServerValueTypeModel.NULL);
+        buffer.flip();
+
+        final String expected = "{\"6\":[{\"1\":42,\"y\":\"héllo\",\"custom\":1.5,\"w\":true,\"B\":false,\"5\":null}]}";
+        assertEquals(jsonProvider.createReader(new StringReader(expected)).readObject(), decoder.decode(buffer));
+    }
+
+    @Test
+    public void testDecodeWrappedPayload() {
+        final byte[] payload = new byte[32];
+        final ByteBuffer buffer = ByteBuffer.wrap(payload, 3, payload.length - 3).slice();
+        writeType(buffer, ClientToServerValueTypeModel.OBJECT);
+        buffer.putInt(1);
+        buffer.put(ClientToServerModel.PING_SERVER.getValue());
+        writeType(buffer, ClientToServerValueTypeModel.DOUBLE);
+        buffer.putDouble(1234567890123d);
+
+        final JsonObject jsonObject = decoder.decode(ByteBuffer.wrap(payload, 3, buffer.position()));
+        assertEquals(1234567890123L, jsonObject.getJsonNumber(ClientToServerModel.PING_SERVER.toStringValue()).longValue());
+    }
+
+    @Test
+    public void testDecodeMessageDispatchesInstructionsByObjectID() {
+        final ByteBuffer buffer = ByteBuffer.allocate(256);
+        writeType(buffer, ClientToServerValueTypeModel.OBJECT);
+        buffer.putInt(2);
+        // Unknown entries are skipped
+        buffer.put(ClientToServerValueTypeModel.STRING_KEY);
+        buffer.putShort((short) 1);
+        buffer.put((byte) 'x');
+        writeType(buffer, ClientToServerValueTypeModel.ARRAY);
+        buffer.putInt(2);
+        writeType(buffer, ClientToServerValueTypeModel.INTEGER);
+        buffer.putInt(1);
+        writeType(buffer, ClientToServerValueTypeModel.DOUBLE);
+        buffer.putDouble(2);
+        buffer.put(ClientToServerModel.APPLICATION_INSTRUCTIONS.getValue());
+        writeType(buffer, ClientToServerValueTypeModel.ARRAY);
+        buffer.putInt(2);
+        writeType(buffer, ClientToServerValueTypeModel.OBJECT);
+        buffer.putInt(2);
+        buffer.put(ClientToServerModel.HANDLER_BOOLEAN_VALUE_CHANGE.getValue());
+        writeType(buffer, ClientToServerValueTypeModel.TRUE);
+        buffer.put(ClientToServerModel.OBJECT_ID.getValue());
+        writeType(buffer, ClientToServerValueTypeModel.INTEGER);
+        buffer.putInt(42);
+        writeType(buffer, ClientToServerValueTypeModel.OBJECT);
+        buffer.putInt(1);
+        buffer.put(ClientToServerModel.TYPE_HISTORY.getValue());
+        writeType(buffer, ClientToServerValueTypeModel.STRING);
+        buffer.putInt(1);
+        buffer.put((byte) 'h');
+        buffer.flip();
+
+        final ClientMessageDecoder.ClientMessage message = decoder.decodeMessage(buffer);
+        assertEquals(ClientToServerModel.APPLICATION_INSTRUCTIONS, message.getType());
+        assertArrayEquals(new int[] { 42, ClientMessageDecoder.NO_OBJECT_ID }, message.getObjectIDs());
+        final String expected = "{\"w\":true,\"1\":42}";
+        assertEquals(jsonProvider.createReader(new StringReader(expected)).readObject(), message.getInstructions()[0]);
+        assertEquals("h", message.getInstructions()[1].getString(ClientToServerModel.TYPE_HISTORY.toStringValue()));
+    }
+
+    @Test
+    public void testDecodeMessageRejectsUnknownKey() {
+        final ByteBuffer buffer = ByteBuffer.allocate(16);
+        writeType(buffer, ClientToServerValueTypeModel.OBJECT);
+        buffer.putInt(1);
+        buffer.put((byte) (ClientToServerModel.values().length + 1));
+        writeType(buffer, ClientToServerValueTypeModel.INTEGER);
+        buffer.putInt(7);
+        buffer.flip();
+
+        try {
+            decoder.decodeMessage(buffer);
+            fail("The key is unknown");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(String.valueOf(ClientToServerModel.values().length + 1)));
+        }
+    }
+
+    @Test
+    public void testDecodeMessageRejectsUnknownType() {
+        final ByteBuffer buffer = ByteBuffer.allocate(16);
+        writeType(buffer, ClientToServerValueTypeModel.OBJECT);
+        buffer.putInt(1);
+        buffer.put(ClientToServerModel.OBJECT_ID.getValue());
+        buffer.put((byte) -3);
+        buffer.putInt(7);
+        buffer.flip();
+
+        try {
+            decoder.decodeMessage(buffer);
+            fail("The type is unknown");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("-3"));
+        }
+    }
+
+    @Test
+    public void testDecodeMessageLog() {
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        writeType(buffer, ClientToServerValueTypeModel.OBJECT);
+        buffer.putInt(2);
+        buffer.put(ClientToServerModel.OBJECT_ID.getValue());
+        writeType(buffer, ClientToServerValueTypeModel.INTEGER);
+        buffer.putInt(7);
+        buffer.put(ClientToServerModel.WARN_MSG.getValue());
+        writeType(buffer, ClientToServerValueTypeModel.STRING);
+        buffer.putInt(4);
+        buffer.put("oops".getBytes(StandardCharsets.UTF_8));
+        buffer.flip();
+
+        final ClientMessageDecoder.ClientMessage message = decoder.decodeMessage(buffer);
+        assertEquals(ClientToServerModel.WARN_MSG, message.getType());
+        assertEquals(7, message.getObjectID());
+        assertEquals("oops", message.getLogMessage());
+    }
+
+    @Test(expected = BufferUnderflowException.class)
+    public void testDecodeTruncatedString() {
+        final ByteBuffer buffer = ByteBuffer.allocate(16);
+        writeType(buffer, ClientToServerValueTypeModel.OBJECT);
+        buffer.putInt(1);
+        buffer.put(ClientToServerModel.INFO_MSG.getValue());
+        writeType(buffer, ClientToServerValueTypeModel.STRING);
+        buffer.putInt(10);
+        buffer.flip();
+
+        decoder.decode(buffer);
+    }
+
+    private static void writeType(final ByteBuffer buffer, final ClientToServerValueTypeModel type) {
+        buffer.put(type.getValue());
+    }
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.websocket;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import com.ponysdk.core.model.ServerToClientModel;
+import com.ponysdk.core.model.ValueTypeModel;
+import com.ponysdk.core.writer.ModelWriter;
+import com.ponysdk.core.writer.SharedFrame;
+
+public class SharedFrameTest {
+
+    private final ByteArrayOutputStream sent = new ByteArrayOutputStream();
+
+    private WebSocketPusher newPusher() {
+        final RemoteEndpoint remote = Mockito.mock(RemoteEndpoint.class);
+        Mockito.doAnswer(invocation -> {
+            final ByteBuffer buffer = (ByteBuffer) invocation.getArguments()[0];
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            sent.write(bytes);
+            ((WriteCallback) invocation.getArguments()[1]).writeSuccess();
+            return null;
+        }).when(remote).sendBytes(Mockito.any(ByteBuffer.class), Mockito.any(WriteCallback.class));
+        final Session session = Mockito.mock(Session.class);
+        Mockito.when(session.getRemote()).thenReturn(remote);
+        return new WebSocketPusher(session, 1 << 16, 1 << 12, 1000);
+    }
+
+    private byte[] takeSent() {
+        final byte[] bytes = sent.toByteArray();
+        sent.reset();
+        return bytes;
+    }
+
+    private static SharedFrame newFrame() {
+        return SharedFrame.builder() //
+            .beginUpdate(1).write(ServerToClientModel.TEXT, "1.2345 €").write(ServerToClientModel.WIDGET_VISIBLE, true)
+            .endObject() //
+            .beginUpdate(0).write(ServerToClientModel.DATE, 1234).write(ServerToClientModel.TEXT, null).endObject() //
+            .build();
+    }
+
+    @Test
+    public void testSplicedAsEncoded() {
+        final WebSocketPusher pusher = newPusher();
+        pusher.encode(ServerToClientModel.TYPE_UPDATE, 42);
+        pusher.encode(ServerToClientModel.TEXT, "1.2345 €");
+        pusher.encode(ServerToClientModel.WIDGET_VISIBLE, true);
+        pusher.encode(ServerToClientModel.END, null);
+        pusher.encode(ServerToClientModel.TYPE_UPDATE, 7);
+        pusher.encode(ServerToClientModel.DATE, 1234L);
+        pusher.encode(ServerToClientModel.TEXT, (Object) null);
+        pusher.encode(ServerToClientModel.END, null);
+        pusher.flush();
+        final byte[] expected = takeSent();
+
+        final SharedFrame frame = newFrame();
+        assertEquals(2, frame.getSlotCount());
+        assertEquals(expected.length, frame.size());
+
+        pusher.encode(frame, new int[] { 7, 42 });
+        pusher.flush();
+        assertArrayEquals(expected, takeSent());
+
+        frame.replay(new ModelWriterEncoder(pusher), new int[] { 7, 42 });
+        pusher.flush();
+        assertArrayEquals(expected, takeSent());
+    }
+
+    @Test
+    public void testDictionaryValuesInlined() {
+        final SharedFrame frame = SharedFrame.builder() //
+            .beginUpdate(0).write(ServerToClientModel.ADD_STYLE_NAME, "up").endObject() //
+            .build();
+
+        final WebSocketPusher pusher = newPusher();
+        pusher.encode(frame, new int[] { 3 });
+        pusher.flush();
+        final ByteBuffer bytes = ByteBuffer.wrap(takeSent());
+        assertEquals(ServerToClientModel.TYPE_UPDATE.getValue(), bytes.get() & 0xFF);
+        assertEquals(3, bytes.getInt());
+        assertEquals(ServerToClientModel.ADD_STYLE_NAME.getValue(), bytes.get() & 0xFF);
+        assertEquals(ValueTypeModel.DICTIONARY_INLINE_VALUE, bytes.getShort() & 0xFFFF);
+        assertEquals(2, bytes.getShort());
+        assertEquals('u', bytes.get());
+        assertEquals('p', bytes.get());
+        assertEquals(ServerToClientModel.END.getValue(), bytes.get() & 0xFF);
+        assertEquals(0, bytes.remaining());
+    }
+
+    @Test
+    public void testPendingInstructionsWrittenFirst() {
+        final WebsocketEncoder encoder = Mockito.mock(WebsocketEncoder.class);
+        final Runnable beforeObjectListener = Mockito.mock(Runnable.class);
+        final SharedFrame frame = newFrame();
+        final int[] slotValues = { 1, 2 };
+
+        new ModelWriter(encoder, beforeObjectListener).write(frame, slotValues);
+
+        final InOrder inOrder = Mockito.inOrder(beforeObjectListener, encoder);
+        inOrder.verify(beforeObjectListener).run();
+        inOrder.verify(encoder).encode(frame, slotValues);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingSlotValue() {
+        newPusher().encode(newFrame(), new int[] { 1 });
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWriteOutsideObject() {
+        SharedFrame.builder().beginUpdate(0).endObject().write(ServerToClientModel.TEXT, "text");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSlotOutsideObject() {
+        SharedFrame.builder().writeSlot(ServerToClientModel.TYPE_UPDATE, 0);
+    }
+
+    /**
+     * Encodes instruction by instruction, as an encoder without bulk copy
+     */
+    private static final class ModelWriterEncoder implements WebsocketEncoder {
+
+        private final WebSocketPusher pusher;
+
+        private ModelWriterEncoder(final WebSocketPusher pusher) {
+            this.pusher = pusher;
+        }
+
+        @Override
+        public void beginObject() {
+        }
+
+        @Override
+        public void encode(final ServerToClientModel model, final Object value) {
+            pusher.encode(model, value);
+        }
+
+        @Override
+        public void encode(final ServerToClientModel model, final boolean value) {
+            pusher.encode(model, value);
+        }
+
+        @Override
+        public void encode(final ServerToClientModel model, final byte value) {
+            pusher.encode(model, value);
+        }
+
+        @Override
+        public void encode(final ServerToClientModel model, final short value) {
+            pusher.encode(model, value);
+        }
+
+        @Override
+        public void encode(final ServerToClientModel model, final int value) {
+            pusher.encode(model, value);
+        }
+
+        @Override
+        public void encode(final ServerToClientModel model, final long value) {
+            pusher.encode(model, value);
+        }
+
+        @Override
+        public void encode(final ServerToClientModel model, final double value) {
+            pusher.encode(model, value);
+        }
+
+        @Override
+        public void endObject() {
+            pusher.encode(ServerToClientModel.END, null);
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.websocket;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.ponysdk.core.model.ServerToClientModel;
+import com.ponysdk.core.model.ValueTypeModel;
+
+public class WebSocketPusherTest {
+
+    private final ByteArrayOutputStream sent = new ByteArrayOutputStream();
+
+    private WebSocketPusher newPusher() {
+        final RemoteEndpoint remote = Mockito.mock(RemoteEndpoint.class);
+        Mockito.doAnswer(invocation -> {
+            final ByteBuffer buffer = (ByteBuffer) invocation.getArguments()[0];
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            sent.write(bytes);
+            ((WriteCallback) invocation.getArguments()[1]).writeSuccess();
+            return null;
+        }).when(remote).sendBytes(Mockito.any(ByteBuffer.class), Mockito.any(WriteCallback.class));
+        final Session session = Mockito.mock(Session.class);
+        Mockito.when(session.getRemote()).thenReturn(remote);
+        return new WebSocketPusher(session, 1 << 16, 1 << 12, 1000);
+    }
+
+    private ByteBuffer takeSent() {
+        final ByteBuffer bytes = ByteBuffer.wrap(sent.toByteArray());
+        sent.reset();
+        return bytes;
+    }
+
+    private static void assertModel(final ServerToClientModel expected, final ByteBuffer bytes) {
+        assertEquals(expected.getValue(), bytes.get() & 0xFF);
+    }
+
+    private static void assertString(final String expected, final ByteBuffer bytes) {
+        final byte[] value = new byte[bytes.getShort() & 0xFFFF];
+        bytes.get(value);
+        assertEquals(expected, new String(value, StandardCharsets.UTF_8));
+    }
+
+    private static void assertDictionaryValue(final int expectedReference, final String expected, final ByteBuffer bytes) {
+        assertModel(ServerToClientModel.ADD_STYLE_NAME, bytes);
+        assertEquals(expectedReference, bytes.getShort() & 0xFFFF);
+        if (expected != null) assertString(expected, bytes);
+    }
+
+    @Test
+    public void testLongAndDoubleWrittenAsBinary() {
+        final WebSocketPusher pusher = newPusher();
+        pusher.encode(ServerToClientModel.DATE, 1234567890123L);
+        pusher.encode(ServerToClientModel.DATE, (Object) Long.MIN_VALUE);
+        pusher.encode(ServerToClientModel.WIDTH, 12.5);
+        pusher.encode(ServerToClientModel.WIDTH, (Object) Double.NaN);
+        pusher.encode(ServerToClientModel.WIDTH, 3L);
+        pusher.flush();
+
+        final ByteBuffer bytes = takeSent();
+        assertModel(ServerToClientModel.DATE, bytes);
+        assertEquals(1234567890123L, bytes.getLong());
+        assertModel(ServerToClientModel.DATE, bytes);
+        assertEquals(Long.MIN_VALUE, bytes.getLong());
+        assertModel(ServerToClientModel.WIDTH, bytes);
+        assertEquals(12.5, bytes.getDouble(), 0);
+        assertModel(ServerToClientModel.WIDTH, bytes);
+        assertEquals(Double.NaN, bytes.getDouble(), 0);
+        assertModel(ServerToClientModel.WIDTH, bytes);
+        assertEquals(3.0, bytes.getDouble(), 0);
+        assertEquals(0, bytes.remaining());
+    }
+
+    @Test
+    public void testDictionaryNewEntryThenReference() {
+        final WebSocketPusher pusher = newPusher();
+        pusher.encode(ServerToClientModel.ADD_STYLE_NAME, "up");
+        pusher.encode(ServerToClientModel.ADD_STYLE_NAME, "down");
+        pusher.encode(ServerToClientModel.ADD_STYLE_NAME, "up");
+        pusher.encode(ServerToClientModel.ADD_STYLE_NAME, "down");
+        pusher.flush();
+
+        final ByteBuffer bytes = takeSent();
+        assertDictionaryValue(0 | ValueTypeModel.DICTIONARY_NEW_ENTRY_MASK, "up", bytes);
+        assertDictionaryValue(1 | ValueTypeModel.DICTIONARY_NEW_ENTRY_MASK, "down", bytes);
+        assertDictionaryValue(0, null, bytes);
+        assertDictionaryValue(1, null, bytes);
+        assertEquals(0, bytes.remaining());
+    }
+
+    @Test
+    public void testDictionaryValuesInlinedInWindowAndFrameBlocks() {
+        final WebSocketPusher pusher = newPusher();
+        pusher.encode(ServerToClientModel.ADD_STYLE_NAME, "up");
+        for (final ServerToClientModel block : new ServerToClientModel[] { ServerToClientModel.WINDOW_ID,
+                                                                           ServerToClientModel.FRAME_ID }) {
+            pusher.encode(block, 5);
+            pusher.encode(ServerToClientModel.ADD_STYLE_NAME, "up");
+            pusher.encode(ServerToClientModel.ADD_STYLE_NAME, "down");
+            pusher.encode(ServerToClientModel.END, null);
+        }
+        pusher.encode(ServerToClientModel.ADD_STYLE_NAME, "up");
+        pusher.encode(ServerToClientModel.ADD_STYLE_NAME, "down");
+        pusher.flush();
+
+        final ByteBuffer bytes = takeSent();
+        assertDictionaryValue(0 | ValueTypeModel.DICTIONARY_NEW_ENTRY_MASK, "up", bytes);
+        for (final ServerToClientModel block : new ServerToClientModel[] { ServerToClientModel.WINDOW_ID,
+                                                                           ServerToClientModel.FRAME_ID }) {
+            assertModel(block, bytes);
+            assertEquals(5, bytes.getInt());
+            assertDictionaryValue(ValueTypeModel.DICTIONARY_INLINE_VALUE, "up", bytes);
+            assertDictionaryValue(ValueTypeModel.DICTIONARY_INLINE_VALUE, "down", bytes);
+            assertModel(ServerToClientModel.END, bytes);
+        }
+        assertDictionaryValue(0, null, bytes);
+        // Inlined values are not entries of the dictionary
+        assertDictionaryValue(1 | ValueTypeModel.DICTIONARY_NEW_ENTRY_MASK, "down", bytes);
+        assertEquals(0, bytes.remaining());
+    }
+
+    @Test
+    public void testDictionaryNullValueInlined() {
+        final WebSocketPusher pusher = newPusher();
+        pusher.encode(ServerToClientModel.ADD_STYLE_NAME, (Object) null);
+        pusher.flush();
+
+        final ByteBuffer bytes = takeSent();
+        assertDictionaryValue(ValueTypeModel.DICTIONARY_INLINE_VALUE, null, bytes);
+        assertEquals(0, bytes.getShort());
+        assertEquals(0, bytes.remaining());
+    }
+
+    @Test
+    public void testDictionaryFullValuesInlined() {
+        final WebSocketPusher pusher = newPusher();
+        for (int i = 0; i < ValueTypeModel.DICTIONARY_MAX_SIZE; i++) {
+            pusher.encode(ServerToClientModel.ADD_STYLE_NAME, "s" + i);
+        }
+        pusher.flush();
+        takeSent();
+
+        pusher.encode(ServerToClientModel.ADD_STYLE_NAME, "s0");
+        pusher.encode(ServerToClientModel.ADD_STYLE_NAME, "full");
+        pusher.encode(ServerToClientModel.ADD_STYLE_NAME, "s" + (ValueTypeModel.DICTIONARY_MAX_SIZE - 1));
+        pusher.flush();
+
+        final ByteBuffer bytes = takeSent();
+        assertDictionaryValue(0, null, bytes);
+        assertDictionaryValue(ValueTypeModel.DICTIONARY_INLINE_VALUE, "full", bytes);
+        assertDictionaryValue(ValueTypeModel.DICTIONARY_MAX_SIZE - 1, null, bytes);
+        assertEquals(0, bytes.remaining());
+    }
+
+}
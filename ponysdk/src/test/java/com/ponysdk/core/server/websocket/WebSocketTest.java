@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.server.websocket;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.ponysdk.core.model.ServerToClientModel;
+
+public class WebSocketTest {
+
+    @Test
+    public void testDetachedWebSocketFlushes() {
+        final RemoteEndpoint remote = Mockito.mock(RemoteEndpoint.class);
+        final Session session = Mockito.mock(Session.class);
+        Mockito.when(session.getRemote()).thenReturn(remote);
+        Mockito.when(session.isOpen()).thenReturn(true);
+
+        final WebSocket socket = WebSocket.newDetached(session, 1 << 16);
+        socket.encode(ServerToClientModel.TYPE_UPDATE, 42);
+        socket.endObject();
+        socket.flush();
+
+        Mockito.verify(remote).sendBytes(Mockito.eq(ByteBuffer.wrap(new byte[] { (byte) ServerToClientModel.TYPE_UPDATE.getValue(), 0, 0,
+                                                                                  0, 42, (byte) ServerToClientModel.END.getValue() })),
+            Mockito.any(WriteCallback.class));
+    }
+
+    @Test
+    public void testUtf8Length() {
+        for (final String message : new String[] { "", "{\"1\":2}", "1.2345 €", "é߿ࠀ", "😀 pony" }) {
+            assertEquals(message, message.getBytes(StandardCharsets.UTF_8).length, WebSocket.utf8Length(message));
+        }
+    }
+
+}
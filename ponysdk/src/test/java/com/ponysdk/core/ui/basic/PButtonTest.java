@@ -29,9 +29,20 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.time.Duration;
+
 import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
 
+import com.ponysdk.core.model.HandlerModel;
+import com.ponysdk.core.model.ServerToClientModel;
 import com.ponysdk.core.model.WidgetType;
+import com.ponysdk.core.server.stm.Txn;
+import com.ponysdk.core.ui.basic.event.PClickEvent;
+import com.ponysdk.core.ui.basic.event.PClickHandler;
+import com.ponysdk.core.ui.basic.event.PDomEventRate;
+import com.ponysdk.core.writer.ModelWriter;
 
 public class PButtonTest extends PSuite {
 
@@ -92,4 +103,30 @@ public class PButtonTest extends PSuite {
         assertTrue(widget.isShowLoadingOnRequest());
     }
 
+    @Test
+    public void testAddRateLimitedDomHandler() {
+        final PButton widget = new PButton();
+        widget.window = Element.newPWindow(null, null);
+        widget.initialized = true;
+        final PDomEventRate rate = PDomEventRate.debounce(Duration.ofMillis(300));
+        assertEquals(ServerToClientModel.DOM_HANDLER_DEBOUNCE, rate.getModel());
+        assertEquals(300, rate.getDelayMillis());
+
+        final ModelWriter writer = Txn.get().getWriter();
+        Mockito.reset(writer);
+        assertNotNull(widget.addDomHandler((PClickHandler) event -> {}, PClickEvent.TYPE, rate));
+
+        // The terminal reads the rate after the handler type
+        final InOrder inOrder = Mockito.inOrder(writer);
+        inOrder.verify(writer).write(ServerToClientModel.TYPE_ADD_HANDLER, widget.getID());
+        inOrder.verify(writer).write(ServerToClientModel.HANDLER_TYPE, HandlerModel.HANDLER_DOM.getValue());
+        inOrder.verify(writer).write(ServerToClientModel.DOM_HANDLER_DEBOUNCE, 300);
+        inOrder.verify(writer).endObject();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeDomEventRate() {
+        PDomEventRate.throttle(Duration.ofMillis(-1));
+    }
+
 }
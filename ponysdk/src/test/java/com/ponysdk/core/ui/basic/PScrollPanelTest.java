@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.ui.basic;
+
+import java.time.Duration;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import com.ponysdk.core.model.HandlerModel;
+import com.ponysdk.core.model.ServerToClientModel;
+import com.ponysdk.core.server.stm.Txn;
+import com.ponysdk.core.ui.basic.event.PDomEventRate;
+import com.ponysdk.core.writer.ModelWriter;
+
+public class PScrollPanelTest extends PSuite {
+
+    @Test
+    public void testAddRateLimitedScrollHandler() {
+        final PScrollPanel widget = new PScrollPanel();
+        widget.window = Element.newPWindow(null, null);
+        widget.initialized = true;
+
+        final ModelWriter writer = Txn.get().getWriter();
+        Mockito.reset(writer);
+        widget.addScrollHandler(event -> {}, PDomEventRate.throttle(Duration.ofMillis(100)));
+
+        // The terminal reads the rate after the handler type
+        final InOrder inOrder = Mockito.inOrder(writer);
+        inOrder.verify(writer).write(ServerToClientModel.TYPE_ADD_HANDLER, widget.getID());
+        inOrder.verify(writer).write(ServerToClientModel.HANDLER_TYPE, HandlerModel.HANDLER_SCROLL.getValue());
+        inOrder.verify(writer).write(ServerToClientModel.DOM_HANDLER_THROTTLE, 100);
+        inOrder.verify(writer).endObject();
+    }
+
+}
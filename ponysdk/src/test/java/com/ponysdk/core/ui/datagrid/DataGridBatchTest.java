@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.ui.datagrid;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Comparator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ponysdk.core.ui.basic.PLabel;
+import com.ponysdk.core.ui.basic.PSuite;
+import com.ponysdk.core.ui.basic.PWidget;
+import com.ponysdk.core.ui.datagrid.impl.DefaultView;
+import com.ponysdk.core.ui.datagrid.impl.PLabelCellRenderer;
+import com.ponysdk.core.ui.datagrid.impl.PLabelHeaderRenderer;
+
+public class DataGridBatchTest extends PSuite {
+
+    private DefaultView view;
+    private DataGrid<Integer> grid;
+    private int drawCount;
+
+    @Before
+    public void setUp() {
+        view = new DefaultView();
+        grid = new DataGrid<>(view, Function.identity(), Comparator.<Integer> naturalOrder());
+
+        final ColumnDescriptor<Integer> column = new ColumnDescriptor<>();
+        column.setHeaderRenderer(new PLabelHeaderRenderer("Value"));
+        column.setCellRenderer(new PLabelCellRenderer<Integer>() {
+
+            @Override
+            public PLabel render(final Integer value) {
+                drawCount++;
+                return super.render(value);
+            }
+
+            @Override
+            protected PLabel update0(final Integer value, final PLabel widget) {
+                drawCount++;
+                return super.update0(value, widget);
+            }
+        });
+        grid.addColumnDescriptor(column);
+    }
+
+    @Test
+    public void testEachCellDrawnOnce() {
+        // Inserted in reverse order, each addData would redraw every row
+        grid.addData(IntStream.range(0, 100).map(i -> 99 - i).boxed().collect(Collectors.toList()));
+
+        assertEquals(100, drawCount);
+        for (int r = 0; r < 100; r++) {
+            assertEquals(String.valueOf(r), cellText(r));
+        }
+    }
+
+    @Test
+    public void testOnlyChangedRowsRedrawn() {
+        grid.addData(IntStream.range(0, 100).map(i -> i * 2).boxed().collect(Collectors.toList()));
+        drawCount = 0;
+
+        grid.batch(batch -> {
+            batch.put(10);
+            batch.put(191);
+            batch.remove(194);
+        });
+
+        // Row 5 updated in place, rows from 96 shifted
+        assertEquals(1 + 4, drawCount);
+        assertEquals("10", cellText(5));
+        assertEquals("190", cellText(95));
+        assertEquals("191", cellText(96));
+        assertEquals("192", cellText(97));
+        assertEquals("196", cellText(98));
+        assertEquals("198", cellText(99));
+    }
+
+    @Test
+    public void testRemovedRowsReset() {
+        grid.addData(IntStream.range(0, 10).boxed().collect(Collectors.toList()));
+
+        grid.batch(batch -> {
+            batch.remove(0);
+            batch.remove(5);
+            batch.put(20);
+            batch.remove(9);
+        });
+
+        assertEquals(8, grid.getData().size());
+        assertEquals("1", cellText(0));
+        assertEquals("20", cellText(7));
+        assertEquals("", cellText(8));
+        assertEquals("", cellText(9));
+    }
+
+    private String cellText(final int r) {
+        final PWidget cell = view.getCell(r, 0);
+        return ((PLabel) cell).getText();
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.ui.datagrid;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DataGridTreeSetTest {
+
+    private static final class Row {
+
+        private final int key;
+        private final int value;
+
+        private Row(final int key, final int value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final Comparator<Row> BY_VALUE = Comparator.comparingInt(row -> row.value);
+
+    @Test
+    public void testMatchesSortedList() {
+        final DataGridTreeSet<Row> rows = new DataGridTreeSet<>(BY_VALUE, row -> row.key);
+        final List<Row> expected = new ArrayList<>();
+        final Random random = new Random(42);
+
+        for (int i = 0; i < 5_000; i++) {
+            final int key = random.nextInt(500);
+            expected.removeIf(row -> row.key == key);
+            if (random.nextInt(4) == 0) {
+                rows.remove(new Row(key, 0));
+            } else {
+                final Row row = new Row(key, random.nextInt(100));
+                rows.add(row);
+                // Equal rows are kept in insertion order
+                int index = 0;
+                while (index < expected.size() && expected.get(index).value <= row.value) {
+                    index++;
+                }
+                expected.add(index, row);
+            }
+        }
+
+        assertEquals(expected.size(), rows.size());
+        final Iterator<Row> iterator = rows.iterator();
+        for (int i = 0; i < expected.size(); i++) {
+            final Row row = expected.get(i);
+            assertEquals(row, rows.get(i));
+            assertEquals(i, rows.getPosition(row));
+            assertEquals(row, iterator.next());
+            assertEquals(i + 1 < expected.size() ? expected.get(i + 1) : null, rows.higher(row));
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testPositionAndRangeIteration() {
+        final DataGridTreeSet<Row> rows = new DataGridTreeSet<>(BY_VALUE, row -> row.key);
+        for (int i = 0; i < 100; i++) {
+            rows.add(new Row(i, 99 - i));
+        }
+        assertEquals(99, rows.getPosition(new Row(0, 0)));
+        assertEquals(99, rows.indexOf(new Row(0, 0)));
+        assertEquals(-1, rows.indexOf(new Row(100, 0)));
+        // The insertion position of a missing key, after the equal elements
+        assertEquals(50, rows.getPosition(new Row(100, 49)));
+        assertEquals(100, rows.getPosition(new Row(100, 99)));
+        assertEquals(0, rows.getPosition(new Row(100, -1)));
+        assertTrue(rows.containsData(new Row(50, 0)));
+        assertEquals(99, rows.first().key);
+        assertEquals(0, rows.last().key);
+
+        // Updating a row moves it
+        rows.add(new Row(0, -1));
+        assertEquals(0, rows.getPosition(new Row(0, 0)));
+        assertEquals(100, rows.size());
+
+        final Iterator<Row> tail = rows.iterator(98);
+        assertEquals(2, tail.next().key);
+        assertEquals(1, tail.next().key);
+        assertFalse(tail.hasNext());
+
+        final Iterator<Row> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().key % 2 == 0) iterator.remove();
+        }
+        assertEquals(50, rows.size());
+        assertNull(rows.higher(new Row(1, 0)));
+        assertEquals(1, rows.get(49).key);
+    }
+
+}
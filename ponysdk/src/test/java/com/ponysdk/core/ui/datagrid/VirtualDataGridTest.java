@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.core.ui.datagrid;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Comparator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ponysdk.core.ui.basic.PLabel;
+import com.ponysdk.core.ui.basic.PSuite;
+import com.ponysdk.core.ui.basic.PWidget;
+import com.ponysdk.core.ui.datagrid.impl.DefaultView;
+import com.ponysdk.core.ui.datagrid.impl.PLabelCellRenderer;
+import com.ponysdk.core.ui.datagrid.impl.PLabelHeaderRenderer;
+
+public class VirtualDataGridTest extends PSuite {
+
+    private static final int ROW_HEIGHT = 20;
+    private static final int VISIBLE_ROWS = 10;
+    private static final int OVERSCAN = 5;
+    private static final int WINDOW = VISIBLE_ROWS + 2 * OVERSCAN;
+
+    private DefaultView view;
+    private VirtualDataGrid<Integer> grid;
+    private int renderCount;
+
+    @Before
+    public void setUp() {
+        view = new DefaultView();
+        grid = new VirtualDataGrid<>(view, Function.identity(), Comparator.<Integer> naturalOrder(), ROW_HEIGHT, VISIBLE_ROWS, OVERSCAN);
+        renderCount = 0;
+
+        final ColumnDescriptor<Integer> column = new ColumnDescriptor<>();
+        column.setHeaderRenderer(new PLabelHeaderRenderer("Value"));
+        column.setCellRenderer(new PLabelCellRenderer<Integer>() {
+
+            @Override
+            public PLabel render(final Integer value) {
+                renderCount++;
+                return super.render(value);
+            }
+        });
+        grid.addColumnDescriptor(column);
+    }
+
+    @Test
+    public void testOnlyTheWindowIsMaterialized() {
+        grid.addData(IntStream.range(0, 1000).boxed().collect(Collectors.toList()));
+
+        assertEquals(1000, grid.getRowCount());
+        assertEquals(WINDOW, view.getRowCount());
+        assertEquals(WINDOW, renderCount);
+        assertEquals("0", cellText(0));
+        assertEquals(String.valueOf(WINDOW - 1), cellText(WINDOW - 1));
+    }
+
+    @Test
+    public void testScrollRecyclesCells() {
+        grid.addData(IntStream.range(0, 1000).boxed().collect(Collectors.toList()));
+
+        grid.onScroll(500 * ROW_HEIGHT);
+        assertEquals(500 - OVERSCAN, grid.getFirstRow());
+        assertEquals(String.valueOf(500 - OVERSCAN), cellText(0));
+        assertEquals(WINDOW, view.getRowCount());
+        assertEquals(WINDOW, renderCount);
+
+        // The window stays full at the end of the data
+        grid.onScroll(5000 * ROW_HEIGHT);
+        assertEquals(1000 - WINDOW, grid.getFirstRow());
+        assertEquals("999", cellText(WINDOW - 1));
+    }
+
+    @Test
+    public void testMutationsInsideAndOutsideTheWindow() {
+        grid.addData(IntStream.range(0, 100).map(i -> i * 2).boxed().collect(Collectors.toList()));
+        grid.onScroll(50 * ROW_HEIGHT);
+        final int firstRow = grid.getFirstRow();
+        assertEquals(String.valueOf(firstRow * 2), cellText(0));
+
+        // Inserted before the window, every row of the window shifts
+        grid.addData(1);
+        assertEquals(String.valueOf((firstRow - 1) * 2), cellText(0));
+
+        grid.removeData(1);
+        assertEquals(String.valueOf(firstRow * 2), cellText(0));
+
+        // Removed after the window, nothing to redraw
+        grid.removeData(198);
+        assertEquals(String.valueOf(firstRow * 2), cellText(0));
+        assertEquals(WINDOW, renderCount);
+    }
+
+    @Test
+    public void testClearResetsTheWindow() {
+        grid.addData(IntStream.range(0, 5).boxed().collect(Collectors.toList()));
+        assertEquals("4", cellText(4));
+
+        grid.clear();
+        assertEquals(0, grid.getFirstRow());
+        assertEquals("", cellText(4));
+
+        grid.addData(7);
+        assertEquals("7", cellText(0));
+        assertEquals(5, renderCount);
+    }
+
+    private String cellText(final int r) {
+        final PWidget cell = view.getCell(r, 0);
+        return ((PLabel) cell).getText();
+    }
+
+}
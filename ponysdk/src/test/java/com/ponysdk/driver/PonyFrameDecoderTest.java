@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2018 PonySDK
+ *  Owners:
+ *  Luciano Broussal  <luciano.broussal AT gmail.com>
+ *	Mathieu Barbier   <mathieu.barbier AT gmail.com>
+ *	Nicolas Ciaravola <nicolas.ciaravola.pro AT gmail.com>
+ *
+ *  WebSite:
+ *  http://code.google.com/p/pony-sdk/
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.ponysdk.driver;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.ponysdk.core.model.ServerToClientModel;
+import com.ponysdk.core.model.ValueTypeModel;
+
+public class PonyFrameDecoderTest {
+
+    @Test
+    public void testFramesSplitAcrossMessages() {
+        final ByteBuffer message = ByteBuffer.allocate(64);
+        message.put((byte) ServerToClientModel.TYPE_CREATE.getValue()).putInt(12);
+        putString(message, ServerToClientModel.VALUE, "héllo");
+        message.put((byte) ServerToClientModel.END.getValue());
+        message.flip();
+
+        final RecordingVisitor visitor = new RecordingVisitor();
+        final PonyFrameDecoder decoder = new PonyFrameDecoder();
+        // Byte per byte, each frame is cut at every possible position
+        while (message.hasRemaining()) {
+            decoder.decode(ByteBuffer.wrap(new byte[] { message.get() }), visitor);
+        }
+
+        assertEquals(Arrays.asList("TYPE_CREATE=12", "VALUE=héllo", "END"), visitor.events);
+    }
+
+    @Test
+    public void testDictionaryEntryReused() {
+        final ByteBuffer message = ByteBuffer.allocate(64);
+        message.put((byte) ServerToClientModel.PUT_STYLE_KEY.getValue());
+        message.putShort((short) (3 | ValueTypeModel.DICTIONARY_NEW_ENTRY_MASK));
+        final byte[] bytes = "color".getBytes(StandardCharsets.UTF_8);
+        message.putShort((short) bytes.length).put(bytes);
+        message.put((byte) ServerToClientModel.PUT_STYLE_KEY.getValue()).putShort((short) 3);
+        message.put((byte) ServerToClientModel.END.getValue());
+        message.flip();
+
+        final RecordingVisitor visitor = new RecordingVisitor();
+        new PonyFrameDecoder().decode(message, visitor);
+
+        assertEquals(Arrays.asList("PUT_STYLE_KEY=color", "PUT_STYLE_KEY=color", "END"), visitor.events);
+    }
+
+    private static void putString(final ByteBuffer buffer, final ServerToClientModel model, final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.put((byte) model.getValue()).putShort((short) bytes.length).put(bytes);
+    }
+
+    private static final class RecordingVisitor implements PonyFrameVisitor {
+
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onInt(final ServerToClientModel model, final int value) {
+            events.add(model + "=" + value);
+        }
+
+        @Override
+        public void onString(final ServerToClientModel model, final CharSequence value) {
+            events.add(model + "=" + value);
+        }
+
+        @Override
+        public void onMessageEnd() {
+            events.add("END");
+        }
+
+    }
+
+}